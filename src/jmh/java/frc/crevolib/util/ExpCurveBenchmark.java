@@ -0,0 +1,48 @@
+package frc.crevolib.util;
+
+import java.util.Random;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Stick curve mapping, once per axis per loop. Uses the driver's translation curve
+ * (base 4, 1% deadzone) both compiled into its lookup table and evaluated directly.
+ */
+@State(Scope.Thread)
+public class ExpCurveBenchmark {
+    private static final int kInputCount = 1024; // Power of two so the index can be masked
+
+    private final ExpCurve mCompiled = new ExpCurve(4.0, 0, 1, 0.01);
+    private final ExpCurve mUncompiled = new ExpCurve(4.0, 0, 1, 0.01);
+    private final double[] mInputs = new double[kInputCount];
+    private int mIndex = 0;
+
+    @Setup
+    public void setup() {
+        mCompiled.compile(1025);
+
+        // Stick readings are all over the place during a match, including the deadzone
+        var random = new Random(2851);
+        for (int i = 0; i < mInputs.length; i++) {
+            mInputs[i] = random.nextDouble() * 2.0 - 1.0;
+        }
+    }
+
+    @Benchmark
+    public double compiled() {
+        return mCompiled.calculate(nextInput());
+    }
+
+    @Benchmark
+    public double uncompiled() {
+        return mUncompiled.calculate(nextInput());
+    }
+
+    private double nextInput() {
+        mIndex = (mIndex + 1) & (kInputCount - 1);
+        return mInputs[mIndex];
+    }
+}
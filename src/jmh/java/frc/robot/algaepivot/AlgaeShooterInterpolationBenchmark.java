@@ -0,0 +1,35 @@
+package frc.robot.algaepivot;
+
+import java.util.Random;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Shooter angle lookup from the distance to the target. Goes through the static
+ * table so the subsystem (and NetworkTables) isn't needed.
+ */
+@State(Scope.Thread)
+public class AlgaeShooterInterpolationBenchmark {
+    private static final int kInputCount = 1024;
+
+    private final double[] mDistances = new double[kInputCount];
+    private int mIndex = 0;
+
+    @Setup
+    public void setup() {
+        // Anywhere from on top of the target to past the last data point
+        var random = new Random(2851);
+        for (int i = 0; i < mDistances.length; i++) {
+            mDistances[i] = random.nextDouble() * 6.0;
+        }
+    }
+
+    @Benchmark
+    public double interpolateAngle() {
+        mIndex = (mIndex + 1) & (kInputCount - 1);
+        return AlgaeShooterInterpolation.interpolateAngle(mDistances[mIndex]);
+    }
+}
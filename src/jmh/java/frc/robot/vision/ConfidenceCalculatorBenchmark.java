@@ -0,0 +1,65 @@
+package frc.robot.vision;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.photonvision.targeting.PhotonTrackedTarget;
+import org.photonvision.targeting.TargetCorner;
+
+import edu.wpi.first.math.Matrix;
+import edu.wpi.first.math.Nat;
+import edu.wpi.first.math.geometry.Rotation3d;
+import edu.wpi.first.math.geometry.Transform3d;
+import edu.wpi.first.math.numbers.N1;
+import edu.wpi.first.math.numbers.N3;
+
+/**
+ * Vision standard deviations for one camera result, run for every estimate the
+ * cameras hand over. One tag is the usual case at the reef, two or three happen
+ * when lining up from farther back.
+ */
+@State(Scope.Thread)
+public class ConfidenceCalculatorBenchmark {
+    private static final int kResultCount = 64;
+
+    @Param({"1", "2", "3"})
+    public int targetCount;
+
+    @SuppressWarnings("unchecked")
+    private final List<PhotonTrackedTarget>[] mResults = new List[kResultCount];
+    private final Matrix<N3, N1> mStdDevs = new Matrix<>(Nat.N3(), Nat.N1());
+    private int mIndex = 0;
+
+    @Setup
+    public void setup() {
+        var random = new Random(2851);
+        var corners = List.<TargetCorner>of();
+        for (int i = 0; i < kResultCount; i++) {
+            var targets = new ArrayList<PhotonTrackedTarget>(targetCount);
+            for (int j = 0; j < targetCount; j++) {
+                // 0.5 to 4.5 m out, a little off to the side and below the camera
+                var cameraToTarget = new Transform3d(
+                    0.5 + random.nextDouble() * 4.0,
+                    random.nextDouble() - 0.5,
+                    -0.2 + random.nextDouble() * 0.2,
+                    new Rotation3d(0, 0, Math.PI));
+                targets.add(new PhotonTrackedTarget(
+                    0, 0, 0, 0, 17 + j, -1, -1.0f, cameraToTarget, cameraToTarget,
+                    random.nextDouble() * 0.2, corners, corners));
+            }
+            mResults[i] = targets;
+        }
+    }
+
+    @Benchmark
+    public Matrix<N3, N1> confidenceCalculator() {
+        mIndex = (mIndex + 1) & (kResultCount - 1);
+        return PoseEstimatorSubsystem.confidenceCalculator(mResults[mIndex], mStdDevs);
+    }
+}
@@ -0,0 +1,72 @@
+package frc.robot.vision;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import edu.wpi.first.math.estimator.SwerveDrivePoseEstimator;
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.geometry.Translation2d;
+import edu.wpi.first.math.kinematics.SwerveDriveKinematics;
+import edu.wpi.first.math.kinematics.SwerveModulePosition;
+import edu.wpi.first.math.util.Units;
+
+/**
+ * One odometry update of the WPILib estimator PoseEstimatorSubsystem uses when it
+ * isn't taking the drivetrain's odometry. The robot drives an arc at about 3 m/s
+ * with a 20 ms timestep, so the pose buffer fills and trims like it does on the
+ * field.
+ */
+@State(Scope.Thread)
+public class PoseEstimatorUpdateBenchmark {
+    // Module locations from TunerConstants
+    private static final double kModuleOffset = Units.inchesToMeters(10.5);
+    private static final double kLoopPeriod = 0.02;
+    private static final double kDistancePerLoop = 3.0 * kLoopPeriod;
+    private static final double kTurnPerLoop = Units.degreesToRadians(90) * kLoopPeriod;
+    private static final int kHeadingCount = 1024;
+
+    private final SwerveModulePosition[] mModulePositions = {
+        new SwerveModulePosition(), new SwerveModulePosition(),
+        new SwerveModulePosition(), new SwerveModulePosition()
+    };
+    // Built up front so the benchmark's own allocations don't show up in bytes/op
+    private final Rotation2d[] mHeadings = new Rotation2d[kHeadingCount];
+    private SwerveDrivePoseEstimator mPoseEstimator;
+    private double mTimestamp = 0.0;
+    private int mIndex = 0;
+
+    @Setup
+    public void setup() {
+        for (int i = 0; i < kHeadingCount; i++) {
+            mHeadings[i] = Rotation2d.fromRadians(i * kTurnPerLoop);
+        }
+
+        var kinematics = new SwerveDriveKinematics(
+            new Translation2d(kModuleOffset, kModuleOffset),
+            new Translation2d(kModuleOffset, -kModuleOffset),
+            new Translation2d(-kModuleOffset, kModuleOffset),
+            new Translation2d(-kModuleOffset, -kModuleOffset));
+        mPoseEstimator = new SwerveDrivePoseEstimator(
+            kinematics,
+            Rotation2d.kZero,
+            mModulePositions,
+            new Pose2d(),
+            VisionConfig.STATE_STANDARD_DEVIATIONS,
+            VisionConfig.VISION_MEASUREMENT_STANDARD_DEVIATIONS);
+    }
+
+    @Benchmark
+    public Pose2d update() {
+        mTimestamp += kLoopPeriod;
+        mIndex = (mIndex + 1) & (kHeadingCount - 1);
+        var heading = mHeadings[mIndex];
+        for (var module : mModulePositions) {
+            module.distanceMeters += kDistancePerLoop;
+            module.angle = heading;
+        }
+        return mPoseEstimator.updateWithTime(mTimestamp, heading, mModulePositions);
+    }
+}
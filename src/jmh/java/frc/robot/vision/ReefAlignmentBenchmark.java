@@ -0,0 +1,83 @@
+package frc.robot.vision;
+
+import java.util.Random;
+import java.util.function.Supplier;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import frc.robot.superstructure.Superstructure;
+import frc.robot.vision.VisionConfig.ReefFace;
+
+/**
+ * The alignment lookups AutoAlign does every loop. The robot poses are scattered
+ * around both reefs, about where the robot is when the driver asks to line up.
+ *
+ * {@link #goal()} is the part of AutoAlign.execute that picks the goal pose (nearest
+ * face, superstructure state, goal table) without the drivetrain, gamepad and
+ * telemetry around it. {@link #computeGoal()} builds the same pose from scratch, the
+ * way execute used to before the table.
+ */
+@State(Scope.Thread)
+public class ReefAlignmentBenchmark {
+    private static final int kPoseCount = 1024;
+    private static final double kBlueReefX = 4.49;
+    private static final double kRedReefX = 13.06;
+    private static final double kReefY = 4.03;
+
+    private final Pose2d[] mPoses = new Pose2d[kPoseCount];
+    private final boolean[] mLeftBranch = new boolean[kPoseCount];
+    private int mIndex = 0;
+    private Pose2d mPose;
+    private final Supplier<Pose2d> mPoseSupplier = () -> mPose;
+
+    @Setup
+    public void setup() {
+        var random = new Random(2851);
+        for (int i = 0; i < kPoseCount; i++) {
+            // 1 to 3 m from the reef center in any direction
+            double angle = random.nextDouble() * 2.0 * Math.PI;
+            double radius = 1.0 + random.nextDouble() * 2.0;
+            double centerX = random.nextBoolean() ? kBlueReefX : kRedReefX;
+            mPoses[i] = new Pose2d(
+                centerX + radius * Math.cos(angle),
+                kReefY + radius * Math.sin(angle),
+                Rotation2d.fromRadians(angle + Math.PI));
+            mLeftBranch[i] = random.nextBoolean();
+        }
+        mPose = mPoses[0];
+    }
+
+    @Benchmark
+    public ReefFace closestReefFace() {
+        nextPose();
+        return LineupMaster.getClosestReefFace(mPoseSupplier);
+    }
+
+    @Benchmark
+    public Pose2d goal() {
+        nextPose();
+        ReefFace face = LineupMaster.getClosestReefFace(mPoseSupplier);
+        boolean isRightWrist = Superstructure.getInstance().has(Superstructure.kWristRight);
+        boolean isElevatorL4 = Superstructure.getInstance().has(Superstructure.kElevatorL4);
+        return ReefAlignmentGoals.getGoal(face, mLeftBranch[mIndex], isRightWrist, isElevatorL4);
+    }
+
+    @Benchmark
+    public Pose2d computeGoal() {
+        nextPose();
+        ReefFace face = LineupMaster.getClosestReefFace(mPoseSupplier);
+        boolean isRightWrist = Superstructure.getInstance().has(Superstructure.kWristRight);
+        boolean isElevatorL4 = Superstructure.getInstance().has(Superstructure.kElevatorL4);
+        return ReefAlignmentGoals.computeGoal(face, mLeftBranch[mIndex], isRightWrist, isElevatorL4);
+    }
+
+    private void nextPose() {
+        mIndex = (mIndex + 1) & (kPoseCount - 1);
+        mPose = mPoses[mIndex];
+    }
+}
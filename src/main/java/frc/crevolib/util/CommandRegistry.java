@@ -0,0 +1,83 @@
+package frc.crevolib.util;
+
+import java.util.EnumMap;
+
+import edu.wpi.first.wpilibj.DriverStation;
+import edu.wpi.first.wpilibj.event.EventLoop;
+import edu.wpi.first.wpilibj2.command.CommandScheduler;
+
+/**
+ * Holds the button bindings for every robot mode so they're only built once.
+ *
+ * Each mode gets its own button loop. The gamepads build a mode's bindings (and the
+ * command trees behind them) into that loop the first time the mode is entered, and
+ * after that a mode change just points the scheduler at the mode's loop with
+ * {@link #activate(Mode)} instead of clearing the buttons and rebuilding everything.
+ *
+ * The loop handed to the scheduler polls the bindings first and then the
+ * LoopProfiler's button marker, so the marker stays last even when a gamepad is
+ * plugged in later and adds its bindings after the fact.
+ */
+public class CommandRegistry {
+    private static CommandRegistry mInstance;
+
+    public enum Mode {
+        kDisabled,
+        kTeleop, // Also used in autonomous, same as the old per-mode setup
+        kTest;
+
+        public static Mode current() {
+            if (DriverStation.isTest()) {
+                return kTest;
+            } else if (DriverStation.isDisabled()) {
+                return kDisabled;
+            }
+            return kTeleop;
+        }
+    }
+
+    private final EnumMap<Mode, EventLoop> mBindingLoops = new EnumMap<>(Mode.class);
+    private final EnumMap<Mode, EventLoop> mSchedulerLoops = new EnumMap<>(Mode.class);
+    private Mode mActiveMode = null;
+
+    private CommandRegistry() {
+        for (var mode : Mode.values()) {
+            var bindings = new EventLoop();
+            var loop = new EventLoop();
+            loop.bind(bindings::poll);
+            loop.bind(LoopProfiler.getInstance()::markButtonsPolled);
+            mBindingLoops.put(mode, bindings);
+            mSchedulerLoops.put(mode, loop);
+        }
+    }
+
+    public static CommandRegistry getInstance() {
+        if (mInstance == null) {
+            mInstance = new CommandRegistry();
+        }
+        return mInstance;
+    }
+
+    /**
+     * @return loop that bindings for the mode should be added to
+     */
+    public EventLoop getBindingLoop(Mode mode) {
+        return mBindingLoops.get(mode);
+    }
+
+    /**
+     * Switches the scheduler over to a mode's bindings. Nothing is rebuilt, the
+     * bindings for the other modes are kept around for next time.
+     */
+    public void activate(Mode mode) {
+        if (mode == mActiveMode) {
+            return;
+        }
+        mActiveMode = mode;
+        CommandScheduler.getInstance().setActiveButtonLoop(mSchedulerLoops.get(mode));
+    }
+
+    public Mode getActiveMode() {
+        return mActiveMode;
+    }
+}
@@ -14,6 +14,9 @@ package frc.crevolib.util;
  * <p>To create a Curve, do not create a <code>Curve</code> object directly, use a subclass of
  * <code>Curve</code> such as <code>ExpCurve</code> instead.
  *
+ * <p>Curves that are evaluated every loop can be compiled with <code>compile(int)</code>, which
+ * samples the curve into a table once so mapping an input is an interpolated array lookup.
+ *
  * @author Justin Babilino
  * @version 0.0.3
  */
@@ -26,6 +29,11 @@ public abstract class Curve {
     /** The width of the deadband on the curve. */
     private double deadzone;
 
+    /** Samples of the curve from -1.0 to 1.0, <code>null</code> until the curve is compiled. */
+    private double[] table;
+    /** Table index per unit of input. */
+    private double tableScale;
+
     /**
      * Calculates and returns a mapped value based on the curve.
      *
@@ -34,6 +42,57 @@ public abstract class Curve {
      */
     public abstract double calculate(double input);
 
+    /**
+     * Samples the curve into a table of <code>sampleCount</code> evenly spaced points from -1.0
+     * to 1.0. After this, inputs in that range are mapped by linear interpolation between the two
+     * nearest samples instead of evaluating the curve, which gives the same cost for every curve.
+     * Changing the offset, scalar, deadzone or any subclass parameter drops the table, call this
+     * again afterwards.
+     *
+     * @param sampleCount number of samples, at least 2
+     */
+    public void compile(int sampleCount) {
+        table = null; // Sample the curve itself, not the old table
+        double[] samples = new double[Math.max(2, sampleCount)];
+        double dx = 2.0 / (samples.length - 1);
+        for (int i = 0; i < samples.length; i++) {
+            samples[i] = calculate(-1.0 + (i * dx));
+        }
+        tableScale = (samples.length - 1) / 2.0;
+        table = samples;
+    }
+
+    /**
+     * Returns whether inputs can be mapped through the compiled table. Subclasses should check
+     * this at the top of <code>calculate</code> and return <code>lookup(input)</code> when it is
+     * true.
+     *
+     * @param input the input value to be mapped
+     * @return true if the curve is compiled and <code>input</code> is in the table's range
+     */
+    protected boolean canLookup(double input) {
+        return table != null && input >= -1.0 && input <= 1.0;
+    }
+
+    /**
+     * Returns the value of <code>input</code> interpolated from the compiled table. Inputs outside
+     * of -1.0 to 1.0 are clamped.
+     *
+     * @param input the input value to be mapped
+     * @return mapped value
+     */
+    protected double lookup(double input) {
+        double position = (Math.min(Math.max(input, -1.0), 1.0) + 1.0) * tableScale;
+        int index = Math.min((int) position, table.length - 2);
+        double fraction = position - index;
+        return table[index] + (table[index + 1] - table[index]) * fraction;
+    }
+
+    /** Drops the compiled table, subclasses call this when a parameter of the curve changes. */
+    protected void invalidate() {
+        table = null;
+    }
+
     /**
      * Returns the value of <code>input</code> mapped to create a deadband of width <code>deadzone
      * </code> in the center of the curve and squishes the rest of the curve to the outside
@@ -124,6 +183,7 @@ public abstract class Curve {
      */
     public void setOffset(double offset) {
         this.offset = offset;
+        invalidate();
     }
 
     /**
@@ -133,6 +193,7 @@ public abstract class Curve {
      */
     public void setScalar(double scalar) {
         this.scalar = scalar;
+        invalidate();
     }
 
     /**
@@ -143,6 +204,7 @@ public abstract class Curve {
      */
     public void setDeadzone(double deadzone) {
         this.deadzone = Math.abs(deadzone);
+        invalidate();
     }
 
     /**
@@ -47,6 +47,9 @@ public class ExpCurve extends Curve {
     /** @param input value to be mapped */
     @Override
     public double calculate(double input) {
+        if (canLookup(input)) {
+            return lookup(input);
+        }
         double val = calculateOffset(calculateScalar(calculateExpVal(calculateDeadzone(input))));
         return val;
     }
@@ -75,6 +78,7 @@ public class ExpCurve extends Curve {
             expVal = 1.0;
         }
         this.expVal = expVal;
+        invalidate();
     }
 
     /**
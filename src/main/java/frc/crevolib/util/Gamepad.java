@@ -14,6 +14,7 @@ public abstract class Gamepad extends SubsystemBase {
     public boolean configured = false;
     private boolean printed = false;
     public CommandPS5Controller controller;
+    private final LoopProfiler.Section mLoopProfile = LoopProfiler.getInstance().addSection(getClass().getSimpleName() + ".periodic()");
     private Rotation2d storedLeftStickDirection = new Rotation2d();
     private Rotation2d storedRightStickDirection = new Rotation2d();
 
@@ -29,7 +30,9 @@ public abstract class Gamepad extends SubsystemBase {
 
     @Override
     public void periodic() {
+        mLoopProfile.start();
         configure();
+        mLoopProfile.stop();
     }
 
     // Configure the driver controller
@@ -0,0 +1,341 @@
+package frc.crevolib.util;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+
+import edu.wpi.first.networktables.DoubleArrayPublisher;
+import edu.wpi.first.networktables.NetworkTable;
+import edu.wpi.first.networktables.NetworkTableInstance;
+import edu.wpi.first.networktables.StringArrayPublisher;
+import edu.wpi.first.wpilibj2.command.Command;
+import edu.wpi.first.wpilibj2.command.CommandScheduler;
+
+/**
+ * Breaks the robot loop down into where the time actually goes.
+ *
+ * Subsystems time their own periodic() with a {@link Section} handle. Commands are
+ * timed from the scheduler's execute callbacks: the scheduler runs commands back to
+ * back, so the time since the previous mark is the command's execute(). Button
+ * polling is the time from the last subsystem to a marker bound at the end of the
+ * button loop, and whatever is left of CommandScheduler.run() after that is scheduler
+ * overhead.
+ *
+ * Every section keeps a rolling window of samples in a preallocated array. Roughly
+ * once a second the p50/p95/max of each section (in ms) is published under
+ * /LoopProfiler/ along with the sections with the worst p95.
+ *
+ * The same marks also read how many bytes the main thread has allocated, so each
+ * section publishes its mean bytes/loop as a fourth value and the worst allocators
+ * are listed next to the top offenders. That's where to look when GC pauses show up.
+ * This is the only place the counter is read, GcMonitor and ReplayStats take the
+ * per-loop total from {@link #getLoopAllocatedBytes()}.
+ */
+public class LoopProfiler {
+    private static LoopProfiler mInstance;
+
+    public static class Settings {
+        public static final boolean kEnabled = true;
+        static final int kWindowSize = 250; // 5 sec of 20 ms loops
+        static final int kPublishPeriodLoops = 50;
+        static final int kTopOffenderCount = 5;
+        // Commands are added as they show up, anything past this is lumped together
+        static final int kMaxCommandSections = 48;
+        // Adds a thread allocation counter read to every mark
+        public static final boolean kTrackAllocations = true;
+    }
+
+    /**
+     * Rolling timing window for one part of the loop.
+     */
+    public final class Section {
+        private final String mName;
+        // Aggregates (the whole loop, the whole scheduler) are left out of the top offenders
+        private final boolean mAggregate;
+        private final double[] mSamplesMs = new double[Settings.kWindowSize];
+        private final long[] mSamplesBytes = new long[Settings.kWindowSize];
+        private final double[] mStats = new double[4];
+        private final DoubleArrayPublisher mPublisher;
+        private int mCount = 0;
+        private int mNext = 0;
+        private long mStartNanos;
+        private long mStartBytes;
+        private double mP95Ms = 0.0;
+        private double mMeanBytes = 0.0;
+
+        private Section(String name, boolean aggregate) {
+            mName = name;
+            mAggregate = aggregate;
+            mPublisher = mTable.getDoubleArrayTopic(name).publish();
+        }
+
+        public void start() {
+            if (Settings.kEnabled) {
+                mStartNanos = System.nanoTime();
+                mStartBytes = allocatedBytes();
+            }
+        }
+
+        public void stop() {
+            if (Settings.kEnabled) {
+                long now = System.nanoTime();
+                long bytes = allocatedBytes();
+                record(now - mStartNanos, bytes - mStartBytes);
+                mLastMarkNanos = now;
+                mLastMarkBytes = bytes;
+            }
+        }
+
+        public String getName() {
+            return mName;
+        }
+
+        private void record(long nanos, long bytes) {
+            mSamplesMs[mNext] = nanos * 1e-6;
+            mSamplesBytes[mNext] = bytes;
+            mNext = (mNext + 1) % mSamplesMs.length;
+            mCount = Math.min(mCount + 1, mSamplesMs.length);
+        }
+
+        private void publish() {
+            if (mCount == 0) {
+                return;
+            }
+            System.arraycopy(mSamplesMs, 0, mScratch, 0, mCount);
+            Arrays.sort(mScratch, 0, mCount);
+            mStats[0] = mScratch[(int) (0.50 * (mCount - 1))];
+            mStats[1] = mScratch[(int) (0.95 * (mCount - 1))];
+            mStats[2] = mScratch[mCount - 1];
+            long totalBytes = 0;
+            for (int i = 0; i < mCount; i++) {
+                totalBytes += mSamplesBytes[i];
+            }
+            mStats[3] = (double) totalBytes / mCount;
+            mP95Ms = mStats[1];
+            mMeanBytes = mStats[3];
+            mPublisher.set(mStats);
+        }
+    }
+
+    private final NetworkTable mTable = NetworkTableInstance.getDefault().getTable("LoopProfiler");
+    private final ArrayList<Section> mSections = new ArrayList<>();
+    private final HashMap<String, Section> mCommandSections = new HashMap<>();
+    private final double[] mScratch = new double[Settings.kWindowSize];
+    private final Section[] mTopOffenders = new Section[Settings.kTopOffenderCount];
+    private final StringArrayPublisher mTopOffendersPublisher = mTable.getStringArrayTopic("TopOffenders").publish();
+    private final Section[] mTopAllocators = new Section[Settings.kTopOffenderCount];
+    private final StringArrayPublisher mTopAllocatorsPublisher = mTable.getStringArrayTopic("TopAllocators").publish();
+    private final com.sun.management.ThreadMXBean mThreadBean;
+    private final boolean mAllocationSupported;
+
+    private final Section mLoopPeriod = new Section("Loop Period", true);
+    private final Section mRobotPeriodic = new Section("robotPeriodic()", true);
+    private final Section mScheduler = new Section("CommandScheduler.run()", true);
+    private final Section mButtons = new Section("Button Loop", false);
+    private final Section mSchedulerOverhead = new Section("Scheduler Overhead", false);
+    private final Section mOtherCommands = new Section("Command: (other)", false);
+
+    private long mLastMarkNanos;
+    private long mLastMarkBytes;
+    private long mLoopStartNanos = 0;
+    private long mLoopAllocatedBytes = 0;
+    private int mLoopsSincePublish = 0;
+
+    private LoopProfiler() {
+        mSections.add(mLoopPeriod);
+        mSections.add(mRobotPeriodic);
+        mSections.add(mScheduler);
+        mSections.add(mButtons);
+        mSections.add(mSchedulerOverhead);
+        mSections.add(mOtherCommands);
+
+        mThreadBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        mAllocationSupported = Settings.kTrackAllocations && mThreadBean.isThreadAllocatedMemorySupported();
+        if (mAllocationSupported) {
+            mThreadBean.setThreadAllocatedMemoryEnabled(true);
+        }
+        CommandScheduler.getInstance().onCommandExecute(this::onCommandExecute);
+    }
+
+    public static LoopProfiler getInstance() {
+        if (mInstance == null) {
+            mInstance = new LoopProfiler();
+        }
+        return mInstance;
+    }
+
+    /**
+     * Registers a section to time by hand, e.g. a subsystem's periodic(). Call once and keep the handle.
+     */
+    public Section addSection(String name) {
+        var section = new Section(name, false);
+        mSections.add(section);
+        return section;
+    }
+
+    /**
+     * Marks the end of button polling. Bind this to the active button loop after all
+     * the gamepad bindings so it runs last.
+     */
+    public void markButtonsPolled() {
+        if (Settings.kEnabled) {
+            long now = System.nanoTime();
+            long bytes = allocatedBytes();
+            mButtons.record(now - mLastMarkNanos, bytes - mLastMarkBytes);
+            mLastMarkNanos = now;
+            mLastMarkBytes = bytes;
+        }
+    }
+
+    /** Call at the top of robotPeriodic(), before the scheduler runs. */
+    public void startLoop() {
+        if (!Settings.kEnabled) {
+            return;
+        }
+        long now = System.nanoTime();
+        long bytes = allocatedBytes();
+        if (mLoopStartNanos != 0) {
+            // Includes whatever LoggedRobot and the scheduler loop did between robotPeriodic calls
+            mLoopPeriod.record(now - mLoopStartNanos, bytes - mLoopPeriod.mStartBytes);
+        }
+        mLoopStartNanos = now;
+        mLoopPeriod.mStartBytes = bytes;
+        mRobotPeriodic.mStartNanos = now;
+        mRobotPeriodic.mStartBytes = bytes;
+        mScheduler.mStartNanos = now;
+        mScheduler.mStartBytes = bytes;
+        mLastMarkNanos = now;
+        mLastMarkBytes = bytes;
+    }
+
+    /** Call right after CommandScheduler.run(). */
+    public void endScheduler() {
+        if (!Settings.kEnabled) {
+            return;
+        }
+        long now = System.nanoTime();
+        long bytes = allocatedBytes();
+        mSchedulerOverhead.record(now - mLastMarkNanos, bytes - mLastMarkBytes);
+        mScheduler.record(now - mScheduler.mStartNanos, bytes - mScheduler.mStartBytes);
+        mLastMarkNanos = now;
+        mLastMarkBytes = bytes;
+    }
+
+    /** Call at the end of robotPeriodic(). Publishes about once a second. */
+    public void endLoop() {
+        if (!Settings.kEnabled) {
+            return;
+        }
+        mLoopAllocatedBytes = allocatedBytes() - mRobotPeriodic.mStartBytes;
+        mRobotPeriodic.record(System.nanoTime() - mRobotPeriodic.mStartNanos, mLoopAllocatedBytes);
+
+        if (++mLoopsSincePublish < Settings.kPublishPeriodLoops) {
+            return;
+        }
+        mLoopsSincePublish = 0;
+        for (int i = 0; i < mSections.size(); i++) {
+            mSections.get(i).publish();
+        }
+        publishTopOffenders();
+        if (mAllocationSupported) {
+            publishTopAllocators();
+        }
+    }
+
+    /**
+     * @return bytes the main thread allocated in the last robotPeriodic(), 0 if allocations
+     *     aren't tracked. Valid after {@link #endLoop()}.
+     */
+    public long getLoopAllocatedBytes() {
+        return mLoopAllocatedBytes;
+    }
+
+    /**
+     * @return whether the profiler is reading the thread allocation counter
+     */
+    public boolean isTrackingAllocations() {
+        return Settings.kEnabled && mAllocationSupported;
+    }
+
+    private void onCommandExecute(Command command) {
+        if (!Settings.kEnabled) {
+            return;
+        }
+        long now = System.nanoTime();
+        var section = mCommandSections.get(command.getName());
+        if (section == null) {
+            if (mCommandSections.size() < Settings.kMaxCommandSections) {
+                section = addSection("Command: " + command.getName());
+                mCommandSections.put(command.getName(), section);
+            } else {
+                section = mOtherCommands;
+            }
+        }
+        long bytes = allocatedBytes();
+        section.record(now - mLastMarkNanos, bytes - mLastMarkBytes);
+        mLastMarkNanos = now;
+        mLastMarkBytes = bytes;
+    }
+
+    /** Bytes allocated by the calling thread so far, 0 if the JVM can't tell us. */
+    private long allocatedBytes() {
+        return mAllocationSupported ? mThreadBean.getCurrentThreadAllocatedBytes() : 0;
+    }
+
+    private void publishTopOffenders() {
+        Arrays.fill(mTopOffenders, null);
+        for (int i = 0; i < mSections.size(); i++) {
+            var section = mSections.get(i);
+            if (section.mAggregate || section.mCount == 0) {
+                continue;
+            }
+            // Insertion into a short sorted list, worst first
+            for (int slot = 0; slot < mTopOffenders.length; slot++) {
+                if (mTopOffenders[slot] == null || section.mP95Ms > mTopOffenders[slot].mP95Ms) {
+                    System.arraycopy(mTopOffenders, slot, mTopOffenders, slot + 1, mTopOffenders.length - slot - 1);
+                    mTopOffenders[slot] = section;
+                    break;
+                }
+            }
+        }
+
+        int count = 0;
+        while (count < mTopOffenders.length && mTopOffenders[count] != null) {
+            count++;
+        }
+        // Only built once a second
+        String[] names = new String[count];
+        for (int i = 0; i < count; i++) {
+            names[i] = String.format("%s: %.2f ms p95", mTopOffenders[i].mName, mTopOffenders[i].mP95Ms);
+        }
+        mTopOffendersPublisher.set(names);
+    }
+
+    private void publishTopAllocators() {
+        Arrays.fill(mTopAllocators, null);
+        for (int i = 0; i < mSections.size(); i++) {
+            var section = mSections.get(i);
+            if (section.mAggregate || section.mCount == 0 || section.mMeanBytes <= 0.0) {
+                continue;
+            }
+            for (int slot = 0; slot < mTopAllocators.length; slot++) {
+                if (mTopAllocators[slot] == null || section.mMeanBytes > mTopAllocators[slot].mMeanBytes) {
+                    System.arraycopy(mTopAllocators, slot, mTopAllocators, slot + 1, mTopAllocators.length - slot - 1);
+                    mTopAllocators[slot] = section;
+                    break;
+                }
+            }
+        }
+
+        int count = 0;
+        while (count < mTopAllocators.length && mTopAllocators[count] != null) {
+            count++;
+        }
+        String[] names = new String[count];
+        for (int i = 0; i < count; i++) {
+            names[i] = String.format("%s: %.0f bytes/loop", mTopAllocators[i].mName, mTopAllocators[i].mMeanBytes);
+        }
+        mTopAllocatorsPublisher.set(names);
+    }
+}
@@ -0,0 +1,101 @@
+package frc.crevolib.util;
+
+import java.util.ArrayList;
+
+import com.ctre.phoenix6.Utils;
+
+import edu.wpi.first.wpilibj.Notifier;
+import edu.wpi.first.wpilibj.RobotController;
+import edu.wpi.first.wpilibj.simulation.BatterySim;
+import edu.wpi.first.wpilibj.simulation.RoboRioSim;
+
+/**
+ * Steps the physics models of every simulated mechanism on its own 5 ms thread, the
+ * same rate the drivetrain's sim thread runs at.
+ *
+ * A mechanism's sim IO drives the real device objects (Talons, CANcoders, Sparks)
+ * through their sim state, so the onboard controllers (Motion Magic, velocity loops,
+ * current limits) run the same as on the robot and only the plant is simulated.
+ * Running faster than the robot loop keeps those controllers stable in sim.
+ *
+ * {@link #updateBattery()} is called from Robot.simulationPeriodic and sags the
+ * simulated battery by the current every mechanism is pulling, which the models pick
+ * up as their supply voltage on the next step.
+ */
+public class MechanismSimRunner {
+    private static MechanismSimRunner mInstance;
+
+    public static class Settings {
+        static final double kSimLoopPeriod = 0.005; // 5 ms
+    }
+
+    /**
+     * A simulated plant and the device sim states it feeds.
+     */
+    public interface Mechanism {
+        /**
+         * Reads the device outputs, steps the model and writes the new sensor values back.
+         *
+         * @param dtSeconds time since the last step
+         * @param batteryVolts supply voltage for the devices
+         */
+        void simulate(double dtSeconds, double batteryVolts);
+
+        /**
+         * @return current drawn from the battery by the mechanism's motors, amps
+         */
+        double getSupplyCurrentAmps();
+    }
+
+    private final ArrayList<Mechanism> mMechanisms = new ArrayList<>();
+    private double[] mCurrents = new double[0];
+    private Notifier mNotifier = null;
+    private double mLastSimTime;
+
+    private MechanismSimRunner() {}
+
+    public static MechanismSimRunner getInstance() {
+        if (mInstance == null) {
+            mInstance = new MechanismSimRunner();
+        }
+        return mInstance;
+    }
+
+    /**
+     * Adds a mechanism to the sim thread, starting it with the first one. Call from the
+     * sim IO's constructor.
+     */
+    public synchronized void register(Mechanism mechanism) {
+        mMechanisms.add(mechanism);
+        mCurrents = new double[mMechanisms.size()];
+
+        if (mNotifier == null) {
+            mLastSimTime = Utils.getCurrentTimeSeconds();
+            mNotifier = new Notifier(this::step);
+            mNotifier.setName("MechanismSim");
+            mNotifier.startPeriodic(Settings.kSimLoopPeriod);
+        }
+    }
+
+    /**
+     * Sags the simulated battery by the current the mechanisms are drawing. Call once per
+     * loop from simulationPeriodic().
+     */
+    public synchronized void updateBattery() {
+        for (int i = 0; i < mCurrents.length; i++) {
+            mCurrents[i] = mMechanisms.get(i).getSupplyCurrentAmps();
+        }
+        RoboRioSim.setVInVoltage(BatterySim.calculateDefaultBatteryLoadedVoltage(mCurrents));
+    }
+
+    private synchronized void step() {
+        double currentTime = Utils.getCurrentTimeSeconds();
+        double deltaTime = currentTime - mLastSimTime;
+        mLastSimTime = currentTime;
+
+        double batteryVolts = RobotController.getBatteryVoltage();
+        for (int i = 0; i < mMechanisms.size(); i++) {
+            mMechanisms.get(i).simulate(deltaTime, batteryVolts);
+        }
+    }
+}
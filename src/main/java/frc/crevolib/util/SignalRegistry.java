@@ -0,0 +1,229 @@
+package frc.crevolib.util;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+
+import com.ctre.phoenix6.BaseStatusSignal;
+import com.ctre.phoenix6.CANBus;
+import com.ctre.phoenix6.hardware.ParentDevice;
+
+import edu.wpi.first.networktables.DoublePublisher;
+import edu.wpi.first.networktables.NetworkTable;
+import edu.wpi.first.networktables.NetworkTableInstance;
+
+/**
+ * Central cache of the status signals the mechanisms read every loop, and the owner
+ * of every device's status frame rates.
+ *
+ * Subsystems grab their StatusSignals once, register them here with the rate they
+ * need, and read them with getValueAsDouble() (which doesn't refresh) instead of
+ * calling getPosition() etc. every time. {@link #refreshAll()} runs once at the top of
+ * the loop and refreshes every registered signal with one BaseStatusSignal.refreshAll
+ * per CAN bus, so all of the mechanisms see the same snapshot for the whole loop.
+ *
+ * Signals that are only looked at occasionally (temperatures, supply current) go
+ * through {@link #registerDiagnostics} at a slow rate and aren't refreshed every loop.
+ * Once the robot is built, {@link #optimizeBusUtilization()} turns off every status
+ * signal on the registered devices that wasn't given a rate here, so a device only
+ * streams what the code actually reads.
+ */
+public class SignalRegistry {
+    private static SignalRegistry mInstance;
+
+    public static class Settings {
+        // Extended ID frame with 8 data bytes plus typical bit stuffing
+        static final double kBitsPerFrame = 150.0;
+        static final double kBitRate = 1.0e6; // CAN 2.0, the CANivore's nominal rate is the same
+        static final int kStatusPeriodLoops = 50;
+    }
+
+    // Signals grouped by CAN bus, refreshAll wants everything in one call on the same bus
+    private final LinkedHashMap<String, ArrayList<BaseStatusSignal>> mSignalsByBus = new LinkedHashMap<>();
+    private BaseStatusSignal[][] mBatches = new BaseStatusSignal[0][];
+
+    // Everything given a rate here, for the bus load estimate
+    private final IdentityHashMap<BaseStatusSignal, Double> mFrequencies = new IdentityHashMap<>();
+    private final IdentityHashMap<BaseStatusSignal, String> mSignalBuses = new IdentityHashMap<>();
+    private final ArrayList<ParentDevice> mDevices = new ArrayList<>();
+    private boolean mOptimized = false;
+
+    private final NetworkTable mTable = NetworkTableInstance.getDefault().getTable("CAN");
+    private final LinkedHashMap<String, BusStatus> mBuses = new LinkedHashMap<>();
+    private BusStatus[] mBusArray = new BusStatus[0];
+    private int mLoopsSinceStatus = 0;
+
+    private SignalRegistry() {}
+
+    public static SignalRegistry getInstance() {
+        if (mInstance == null) {
+            mInstance = new SignalRegistry();
+        }
+        return mInstance;
+    }
+
+    /**
+     * Sets the rate of signals from a device and adds them to the per-loop refresh.
+     * Call once from the subsystem's constructor and keep the signal objects around to
+     * read from.
+     *
+     * @param device device the signals belong to, used to batch by CAN bus
+     * @param frequencyHz how often the device sends the signals
+     * @param signals cached signals from the device
+     */
+    public void register(ParentDevice device, double frequencyHz, BaseStatusSignal... signals) {
+        setFrequency(device, frequencyHz, signals);
+        var busSignals = mSignalsByBus.computeIfAbsent(device.getNetwork(), bus -> new ArrayList<>());
+        for (var signal : signals) {
+            if (!busSignals.contains(signal)) {
+                busSignals.add(signal);
+            }
+        }
+        rebuildBatches();
+    }
+
+    /**
+     * Keeps signals alive at a (usually slow) rate without refreshing them every loop.
+     * Also used for devices the code never reads from at all, so they still get
+     * optimized.
+     *
+     * @param device device the signals belong to
+     * @param frequencyHz how often the device sends the signals
+     * @param signals signals to keep, may be empty
+     */
+    public void registerDiagnostics(ParentDevice device, double frequencyHz, BaseStatusSignal... signals) {
+        setFrequency(device, frequencyHz, signals);
+    }
+
+    /**
+     * Adds a bus to the utilization report even if nothing on it registered signals here.
+     */
+    public void monitorBus(String busName) {
+        if (!mBuses.containsKey(busName)) {
+            mBuses.put(busName, new BusStatus(busName));
+            mBusArray = mBuses.values().toArray(new BusStatus[0]);
+        }
+    }
+
+    /**
+     * Disables every signal on the registered devices that doesn't have a rate set.
+     * Call once after the subsystems are constructed, devices registered after this
+     * are optimized as they come in.
+     */
+    public void optimizeBusUtilization() {
+        ParentDevice.optimizeBusUtilizationForAll(mDevices.toArray(new ParentDevice[0]));
+        mOptimized = true;
+        printReport();
+    }
+
+    /**
+     * Refreshes every registered signal. Call once per loop before the scheduler runs.
+     */
+    public void refreshAll() {
+        for (int i = 0; i < mBatches.length; i++) {
+            BaseStatusSignal.refreshAll(mBatches[i]);
+        }
+
+        // Bus status is a blocking call into the driver, only ask for it once a second
+        if (++mLoopsSinceStatus >= Settings.kStatusPeriodLoops) {
+            mLoopsSinceStatus = 0;
+            for (int i = 0; i < mBusArray.length; i++) {
+                mBusArray[i].publish();
+            }
+        }
+    }
+
+    /**
+     * @return number of signals refreshed every loop
+     */
+    public int getSignalCount() {
+        int count = 0;
+        for (var batch : mBatches) {
+            count += batch.length;
+        }
+        return count;
+    }
+
+    /**
+     * Estimated utilization of a bus from the registered signal rates, 0 to 1.
+     *
+     * Every signal is counted as its own frame, signals that share a frame are counted
+     * twice, so this is an upper bound. Devices that never registered here (and were
+     * never optimized) aren't counted at all, compare against the measured value.
+     */
+    public double getEstimatedUtilization(String busName) {
+        double framesPerSecond = 0.0;
+        for (var entry : mFrequencies.entrySet()) {
+            if (busName.equals(mSignalBuses.get(entry.getKey()))) {
+                framesPerSecond += entry.getValue();
+            }
+        }
+        return framesPerSecond * Settings.kBitsPerFrame / Settings.kBitRate;
+    }
+
+    private void setFrequency(ParentDevice device, double frequencyHz, BaseStatusSignal... signals) {
+        if (signals.length > 0) {
+            BaseStatusSignal.setUpdateFrequencyForAll(frequencyHz, signals);
+        }
+        for (var signal : signals) {
+            mFrequencies.put(signal, frequencyHz);
+            mSignalBuses.put(signal, device.getNetwork());
+        }
+        if (!mDevices.contains(device)) {
+            mDevices.add(device);
+        }
+        monitorBus(device.getNetwork());
+
+        if (mOptimized) {
+            device.optimizeBusUtilization();
+            mBuses.get(device.getNetwork()).updateEstimate();
+        }
+    }
+
+    private void printReport() {
+        System.out.println("[SignalRegistry] Optimized " + mDevices.size() + " devices, "
+            + mFrequencies.size() + " signals enabled, " + getSignalCount() + " refreshed every loop");
+        for (var bus : mBusArray) {
+            bus.updateEstimate();
+            System.out.println(String.format("[SignalRegistry]   %s: estimated %.1f%% bus load",
+                bus.mName, bus.mEstimated * 100.0));
+        }
+    }
+
+    private void rebuildBatches() {
+        var batches = new BaseStatusSignal[mSignalsByBus.size()][];
+        int i = 0;
+        for (var busSignals : mSignalsByBus.values()) {
+            batches[i++] = busSignals.toArray(new BaseStatusSignal[0]);
+        }
+        mBatches = batches;
+    }
+
+    /**
+     * Estimated and measured utilization of one bus, published under /CAN/<bus>/.
+     */
+    private final class BusStatus {
+        private final String mName;
+        private final CANBus mBus;
+        private final DoublePublisher mEstimatedPublisher;
+        private final DoublePublisher mMeasuredPublisher;
+        private double mEstimated = 0.0;
+
+        private BusStatus(String name) {
+            mName = name;
+            mBus = new CANBus(name);
+            var table = mTable.getSubTable(name);
+            mEstimatedPublisher = table.getDoubleTopic("Estimated Utilization").publish();
+            mMeasuredPublisher = table.getDoubleTopic("Measured Utilization").publish();
+        }
+
+        private void updateEstimate() {
+            mEstimated = getEstimatedUtilization(mName);
+        }
+
+        private void publish() {
+            mEstimatedPublisher.set(mEstimated);
+            mMeasuredPublisher.set(mBus.getStatus().BusUtilization);
+        }
+    }
+}
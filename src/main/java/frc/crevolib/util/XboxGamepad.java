@@ -1,12 +1,13 @@
 package frc.crevolib.util;
 
 import edu.wpi.first.math.geometry.Rotation2d;
-import edu.wpi.first.wpilibj.DriverStation;
+import edu.wpi.first.wpilibj.event.EventLoop;
 import edu.wpi.first.wpilibj2.command.SubsystemBase;
 import edu.wpi.first.wpilibj2.command.button.CommandPS5Controller;
 import edu.wpi.first.wpilibj2.command.button.CommandXboxController;
 import edu.wpi.first.wpilibj2.command.button.Trigger;
 
+import java.util.EnumSet;
 import java.util.function.DoubleSupplier;
 
 public abstract class XboxGamepad extends SubsystemBase{
@@ -14,6 +15,13 @@ public abstract class XboxGamepad extends SubsystemBase{
     public boolean configured = false;
     private boolean printed = false;
     public CommandXboxController controller;
+    private final BindingXboxController mBindingController;
+    // Modes whose bindings are already in the CommandRegistry
+    private final EnumSet<CommandRegistry.Mode> mConfiguredModes = EnumSet.noneOf(CommandRegistry.Mode.class);
+    private final LoopProfiler.Section mLoopProfile = LoopProfiler.getInstance().addSection(getClass().getSimpleName() + ".periodic()");
+    // Angles are kept as radians, the Rotation2d is only rebuilt when someone asks for it
+    private double storedLeftStickAngle = 0.0;
+    private double storedRightStickAngle = 0.0;
     private Rotation2d storedLeftStickDirection = new Rotation2d();
     private Rotation2d storedRightStickDirection = new Rotation2d();
 
@@ -24,12 +32,15 @@ public abstract class XboxGamepad extends SubsystemBase{
      * @param name The name of the gamepad
      */
     public XboxGamepad(String name, int port) {
-        controller = new CommandXboxController(port);
+        mBindingController = new BindingXboxController(port);
+        controller = mBindingController;
     }
 
     @Override
     public void periodic() {
+        mLoopProfile.start();
         configure();
+        mLoopProfile.stop();
     }
 
     // Configure the driver controller
@@ -45,13 +56,16 @@ public abstract class XboxGamepad extends SubsystemBase{
                 return;
             }
 
-            // Configure button bindings once the driver controller is connected
-            if (DriverStation.isTest()) {
-                setupTestButtons();
-            } else if (DriverStation.isDisabled()) {
-                setupDisabledButtons();
-            } else {
-                setupTeleopButtons();
+            // Bindings for a mode are built the first time it's entered and kept after that
+            var mode = CommandRegistry.Mode.current();
+            if (!mConfiguredModes.contains(mode)) {
+                mBindingController.mLoop = CommandRegistry.getInstance().getBindingLoop(mode);
+                switch (mode) {
+                    case kTest -> setupTestButtons();
+                    case kDisabled -> setupDisabledButtons();
+                    default -> setupTeleopButtons();
+                }
+                mConfiguredModes.add(mode);
             }
             configured = true;
 
@@ -59,26 +73,33 @@ public abstract class XboxGamepad extends SubsystemBase{
         }
     }
 
-    // Reset the controller configure, should be used with
-    // CommandScheduler.getInstance.clearButtons()
-    // to reset buttons
+    // Called on mode changes after CommandRegistry.activate(), only builds bindings
+    // for a mode this gamepad hasn't seen yet
     public void resetConfig() {
         configured = false;
         configure();
     }
 
-    /* Zero is stick up, 90 is stick to the left*/
-    public Rotation2d getLeftStickDirection() {
+    /* Zero is stick up, 90 is stick to the left. Holds the last angle when the stick is centered */
+    public double getLeftStickAngle() {
         double x = -1 * controller.getLeftX();
         double y = -1 * controller.getLeftY();
         if (x != 0 || y != 0) {
-            storedLeftStickDirection = new Rotation2d(y, x);
+            storedLeftStickAngle = Math.atan2(x, y);
+        }
+        return storedLeftStickAngle;
+    }
+
+    public Rotation2d getLeftStickDirection() {
+        double angle = getLeftStickAngle();
+        if (angle != storedLeftStickDirection.getRadians()) {
+            storedLeftStickDirection = new Rotation2d(angle);
         }
         return storedLeftStickDirection;
     }
 
     public double getLeftStickCardinals() {
-        double stickAngle = getLeftStickDirection().getRadians();
+        double stickAngle = getLeftStickAngle();
         if (stickAngle > -Math.PI / 4 && stickAngle <= Math.PI / 4) {
             return 0;
         } else if (stickAngle > Math.PI / 4 && stickAngle <= 3 * Math.PI / 4) {
@@ -96,17 +117,25 @@ public abstract class XboxGamepad extends SubsystemBase{
         return Math.sqrt(x * x + y * y);
     }
 
-    public Rotation2d getRightStickDirection() {
+    public double getRightStickAngle() {
         double x = controller.getRightX();
         double y = controller.getRightY();
         if (x != 0 || y != 0) {
-            storedRightStickDirection = new Rotation2d(y, x);
+            storedRightStickAngle = Math.atan2(x, y);
+        }
+        return storedRightStickAngle;
+    }
+
+    public Rotation2d getRightStickDirection() {
+        double angle = getRightStickAngle();
+        if (angle != storedRightStickDirection.getRadians()) {
+            storedRightStickDirection = new Rotation2d(angle);
         }
         return storedRightStickDirection;
     }
 
     public double getRightStickCardinals() {
-        double stickAngle = getRightStickDirection().getRadians();
+        double stickAngle = getRightStickAngle();
         if (stickAngle > -Math.PI / 4 && stickAngle <= Math.PI / 4) {
             return 0;
         } else if (stickAngle > Math.PI / 4 && stickAngle <= 3 * Math.PI / 4) {
@@ -182,7 +211,7 @@ public abstract class XboxGamepad extends SubsystemBase{
     }
 
     private Trigger axisTrigger(Gamepad.ThresholdType t, double threshold, DoubleSupplier v) {
-        return new Trigger(() -> {
+        return new Trigger(mBindingController.mLoop, () -> {
             double value = v.getAsDouble();
             return switch (t) {
                 case GREATER_THAN -> value > threshold;
@@ -205,4 +234,87 @@ public abstract class XboxGamepad extends SubsystemBase{
     public abstract void setupDisabledButtons();
 
     public abstract void setupTestButtons();
+
+    /**
+     * Puts triggers made with the no-argument button methods (controller.a(),
+     * controller.povUp(), ...) on the loop of the mode being set up instead of the
+     * scheduler's default loop, so the setup methods don't need to know about loops.
+     */
+    private static class BindingXboxController extends CommandXboxController {
+        private EventLoop mLoop = CommandRegistry.getInstance().getBindingLoop(CommandRegistry.Mode.kTeleop);
+
+        private BindingXboxController(int port) {
+            super(port);
+        }
+
+        @Override
+        public Trigger button(int button) {
+            return button(button, mLoop);
+        }
+
+        @Override
+        public Trigger pov(int angle) {
+            return pov(0, angle, mLoop);
+        }
+
+        @Override
+        public Trigger a() {
+            return a(mLoop);
+        }
+
+        @Override
+        public Trigger b() {
+            return b(mLoop);
+        }
+
+        @Override
+        public Trigger x() {
+            return x(mLoop);
+        }
+
+        @Override
+        public Trigger y() {
+            return y(mLoop);
+        }
+
+        @Override
+        public Trigger leftBumper() {
+            return leftBumper(mLoop);
+        }
+
+        @Override
+        public Trigger rightBumper() {
+            return rightBumper(mLoop);
+        }
+
+        @Override
+        public Trigger back() {
+            return back(mLoop);
+        }
+
+        @Override
+        public Trigger start() {
+            return start(mLoop);
+        }
+
+        @Override
+        public Trigger leftStick() {
+            return leftStick(mLoop);
+        }
+
+        @Override
+        public Trigger rightStick() {
+            return rightStick(mLoop);
+        }
+
+        @Override
+        public Trigger leftTrigger(double threshold) {
+            return leftTrigger(threshold, mLoop);
+        }
+
+        @Override
+        public Trigger rightTrigger(double threshold) {
+            return rightTrigger(threshold, mLoop);
+        }
+    }
 }
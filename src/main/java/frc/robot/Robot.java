@@ -7,14 +7,18 @@ package frc.robot;
 import static edu.wpi.first.units.Units.MetersPerSecond;
 import static edu.wpi.first.units.Units.RadiansPerSecond;
 
+import org.littletonrobotics.junction.LogFileUtil;
 import org.littletonrobotics.junction.LoggedRobot;
 import org.littletonrobotics.junction.Logger;
+import org.littletonrobotics.junction.networktables.NT4Publisher;
+import org.littletonrobotics.junction.wpilog.WPILOGReader;
+import org.littletonrobotics.junction.wpilog.WPILOGWriter;
 
 import com.ctre.phoenix6.swerve.SwerveModule.DriveRequestType;
 import com.ctre.phoenix6.swerve.SwerveRequest;
 
+import edu.wpi.first.wpilibj.RobotBase;
 import edu.wpi.first.wpilibj.TimedRobot;
-import edu.wpi.first.wpilibj.Timer;
 import edu.wpi.first.wpilibj.smartdashboard.SendableChooser;
 import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
 import edu.wpi.first.wpilibj2.command.Command;
@@ -23,10 +27,17 @@ import edu.wpi.first.wpilibj2.command.InstantCommand;
 import edu.wpi.first.wpilibj2.command.ParallelRaceGroup;
 import edu.wpi.first.wpilibj2.command.SequentialCommandGroup;
 import frc.crevolib.configs.CTREConfigs;
+import frc.crevolib.util.CommandRegistry;
+import frc.crevolib.util.LoopProfiler;
+import frc.crevolib.util.MechanismSimRunner;
+import frc.crevolib.util.SignalRegistry;
 import frc.robot.driver.DriverXbox;
 import frc.robot.drivetrain.CommandSwerveDrivetrain;
 import frc.robot.drivetrain.TunerConstants;
 import frc.robot.operator.OperatorXbox;
+import frc.robot.replay.ReplayStats;
+import frc.robot.telemetry.GcMonitor;
+import frc.robot.telemetry.Telemetry;
 import frc.robot.RobotContainer.*;
 
 import static edu.wpi.first.units.Units.*;
@@ -43,22 +54,72 @@ import static edu.wpi.first.units.Units.*;
  * project.
  */
 public class Robot extends LoggedRobot {
+  public static class Settings {
+    // Desktop runs replay the newest log (or the one AdvantageScope has open) instead of simulating
+    static final boolean kReplay = false;
+    // Set by ./gradlew simulateJava -PreplayLog=<log>, replays that log headless
+    static final String kReplayEnvVar = "ROBOT_REPLAY";
+  }
+
+  /**
+   * Where the mechanisms get their inputs from. Each subsystem picks its IO layer off
+   * of this when it's constructed.
+   */
+  public enum Mode {
+    kReal, // Talons, CANcoders, etc
+    kSim, // physics models
+    kReplay // nothing, the inputs are read back out of a log
+  }
+
+  public static final Mode kMode = RobotBase.isReal() ? Mode.kReal
+      : (Settings.kReplay || System.getenv(Settings.kReplayEnvVar) != null) ? Mode.kReplay
+      : Mode.kSim;
+
   public static final CTREConfigs ctreConfigs = new CTREConfigs();
 
   private Command m_autonomousCommand;
   private RobotContainer m_robotContainer;
+  private final LoopProfiler.Section m_signalRefreshProfile = LoopProfiler.getInstance().addSection("SignalRegistry.refreshAll()");
+  private final LoopProfiler.Section m_telemetryFlushProfile = LoopProfiler.getInstance().addSection("Telemetry.flush()");
   // private boolean constantRPM;
 
+  public Robot() {
+    Logger.recordMetadata("ProjectName", "2025RobotCode");
+    Logger.recordMetadata("Mode", kMode.name());
+
+    switch (kMode) {
+      case kReal:
+        // Dashboards already get everything through Telemetry, only write the log
+        Logger.addDataReceiver(new WPILOGWriter());
+        break;
+      case kSim:
+        Logger.addDataReceiver(new NT4Publisher());
+        break;
+      case kReplay:
+        // Run as fast as possible, the log decides what time it is
+        setUseTiming(false);
+        String logPath = LogFileUtil.findReplayLog();
+        Logger.setReplaySource(new WPILOGReader(logPath));
+        Logger.addDataReceiver(new WPILOGWriter(LogFileUtil.addPathSuffix(logPath, "_sim")));
+        // The replay exits when the log runs out
+        Runtime.getRuntime().addShutdownHook(new Thread(ReplayStats.getInstance()::printSummary));
+        break;
+    }
+
+    Logger.start();
+  }
+
   /**
-   * This method cancels all commands and returns subsystems to their default commands and the
-   * gamepad configs are reset so that new bindings can be assigned based on mode This method
-   * should be called when each mode is intialized
+   * This method cancels all commands and returns subsystems to their default commands and
+   * switches the buttons over to the bindings for the new mode. Bindings are built the first
+   * time a mode is entered and reused after that. This method should be called when each mode
+   * is intialized
    */
   public static void resetCommandsAndButtons() {
     CommandScheduler.getInstance().cancelAll(); // Disable any currently running commands
-    CommandScheduler.getInstance().getActiveButtonLoop().clear();
+    CommandRegistry.getInstance().activate(CommandRegistry.Mode.current());
 
-    // Reset Config for all gamepads and other button bindings
+    // Builds the bindings for this mode if a gamepad hasn't seen it yet
     // Driver.getInstance().resetConfig();
     // Operator.getInstance().resetConfig();
     DriverXbox.getInstance().resetConfig();
@@ -77,6 +138,9 @@ public class Robot extends LoggedRobot {
     
     //CameraServer.startAutomaticCapture();
     m_robotContainer = new RobotContainer();
+
+    // Every subsystem has set its signal rates by now, turn off everything else on the bus
+    SignalRegistry.getInstance().optimizeBusUtilization();
   }
 
   /**
@@ -93,7 +157,33 @@ public class Robot extends LoggedRobot {
     // and running subsystem periodic() methods.  This must be called from the robot's periodic
     // block in order for anything in the Command-based framework to work.
 
+    if (kMode == Mode.kReplay) {
+      ReplayStats.getInstance().startLoop();
+    } else {
+      // Replay runs untimed, the loop periods (and pauses) there don't mean anything
+      GcMonitor.getInstance().startLoop();
+    }
+    LoopProfiler.getInstance().startLoop();
+
+    // Refresh every mechanism signal in one batch so all subsystems see the same snapshot
+    m_signalRefreshProfile.start();
+    SignalRegistry.getInstance().refreshAll();
+    m_signalRefreshProfile.stop();
+
     CommandScheduler.getInstance().run();
+    LoopProfiler.getInstance().endScheduler();
+
+    // Publish everything the subsystems and commands logged this loop in one pass
+    m_telemetryFlushProfile.start();
+    Telemetry.getInstance().flush();
+    m_telemetryFlushProfile.stop();
+
+    LoopProfiler.getInstance().endLoop();
+    if (kMode == Mode.kReplay) {
+      ReplayStats.getInstance().endLoop();
+    } else {
+      GcMonitor.getInstance().endLoop();
+    }
   }
 
   /**
@@ -109,8 +199,6 @@ public class Robot extends LoggedRobot {
       
   }
 
-  Timer m_gcTimer = new Timer();
-
   /**
    * This autonomous runs the autonomous command selected by your {@link RobotContainer} class.
    */
@@ -123,9 +211,6 @@ public class Robot extends LoggedRobot {
     if (m_autonomousCommand != null) {
         m_autonomousCommand.schedule();
     }
-
-    // m_gcTimer.start();
-    
   }
 
   
@@ -159,9 +244,6 @@ public class Robot extends LoggedRobot {
 
   @Override
   public void autonomousPeriodic() {
-    // if (m_gcTimer.advanceIfElapsed(5)) {
-    //   System.gc();
-    // }
   }
 
 
@@ -172,7 +254,6 @@ public class Robot extends LoggedRobot {
     // continue until interrupted by another command, remove
     // this line or comment it out.
     resetCommandsAndButtons();
-    // m_gcTimer.start();
   }
 
   /**
@@ -180,9 +261,6 @@ public class Robot extends LoggedRobot {
    */
   @Override
   public void teleopPeriodic() {
-    // if (m_gcTimer.advanceIfElapsed(0)) {
-    //   System.gc();
-    // }
   }
 
   @Override
@@ -210,5 +288,9 @@ public class Robot extends LoggedRobot {
    */
   @Override
   public void simulationPeriodic() {
+    // The mechanism models step on their own 5 ms thread, just sag the battery from what they drew
+    if (kMode == Mode.kSim) {
+      MechanismSimRunner.getInstance().updateBattery();
+    }
   }
 }
@@ -28,6 +28,7 @@ import frc.robot.vision.VisionConfig;
 
 import frc.robot.rushinator.*;
 import frc.robot.rushinator.commands.*;
+import frc.robot.superstructure.Superstructure;
 
 /**
  * This class is where the bulk of the robot should be declared. Since Command-based is a
@@ -88,22 +89,22 @@ public class RobotContainer {
                 CommandSwerveDrivetrain.getInstance().applyRequest(() -> {
                     if (currAlliance == Alliance.Blue){
                         if (modeFast) {
-                        return drive.withVelocityX(driver.getDriveTranslation().getX() * kMaxVelocity) // Drive forward with negative Y (forward)
-                        .withVelocityY(driver.getDriveTranslation().getY() * kMaxVelocity) // Drive left with negative X (left)
+                        return drive.withVelocityX(driver.getDriveTranslationX() * kMaxVelocity) // Drive forward with negative Y (forward)
+                        .withVelocityY(driver.getDriveTranslationY() * kMaxVelocity) // Drive left with negative X (left)
                         .withRotationalRate(driver.getDriveRotation() * kMaxAngularVelocity); // Drive counterclockwise with negative X (left)
                         } else {
-                        return drive.withVelocityX(driver.getDriveTranslation().getX() * kMaxVelocity * 0.3) // Drive forward with negative Y (forward)
-                            .withVelocityY(driver.getDriveTranslation().getY() * kMaxVelocity * 0.3) // Drive left with negative X (left)
+                        return drive.withVelocityX(driver.getDriveTranslationX() * kMaxVelocity * 0.3) // Drive forward with negative Y (forward)
+                            .withVelocityY(driver.getDriveTranslationY() * kMaxVelocity * 0.3) // Drive left with negative X (left)
                             .withRotationalRate(driver.getDriveRotation() * kMaxAngularVelocity * 0.3); // Drive counterclockwise with negative X (left)
                         }
                     } else {
                         if (modeFast) {
-                            return drive.withVelocityX(-driver.getDriveTranslation().getX() * kMaxVelocity) // Drive forward with negative Y (forward)
-                            .withVelocityY(-driver.getDriveTranslation().getY() * kMaxVelocity) // Drive left with negative X (left)
+                            return drive.withVelocityX(-driver.getDriveTranslationX() * kMaxVelocity) // Drive forward with negative Y (forward)
+                            .withVelocityY(-driver.getDriveTranslationY() * kMaxVelocity) // Drive left with negative X (left)
                             .withRotationalRate(driver.getDriveRotation() * kMaxAngularVelocity); // Drive counterclockwise with negative X (left)
                         } else {
-                            return drive.withVelocityX(-driver.getDriveTranslation().getX() * kMaxVelocity * 0.3) // Drive forward with negative Y (forward)
-                                .withVelocityY(-driver.getDriveTranslation().getY() * kMaxVelocity * 0.3) // Drive left with negative X (left)
+                            return drive.withVelocityX(-driver.getDriveTranslationX() * kMaxVelocity * 0.3) // Drive forward with negative Y (forward)
+                                .withVelocityY(-driver.getDriveTranslationY() * kMaxVelocity * 0.3) // Drive left with negative X (left)
                                 .withRotationalRate(driver.getDriveRotation() * kMaxAngularVelocity * 0.3); // Drive counterclockwise with negative X (left)
                         }
                     }
@@ -174,15 +175,7 @@ public class RobotContainer {
             new ConditionalCommand(
             new SetWristState(RushinatorWrist.State.kTravelRight), 
             new SetWristState(RushinatorWrist.State.kTravelLeft), 
-            () -> RushinatorWrist.kLastState == RushinatorWrist.State.kTravelRight ||
-            RushinatorWrist.kLastState == RushinatorWrist.State.kScoreL4RightWrist || 
-            RushinatorWrist.kLastState == RushinatorWrist.State.kScoreL3RightWrist || 
-            RushinatorWrist.kLastState == RushinatorWrist.State.kScoreL2RightWrist || 
-            RushinatorWrist.kLastState == RushinatorWrist.State.kScoreL1Mid ||
-            RushinatorWrist.kLastState == RushinatorWrist.State.kGroundMid ||
-            RushinatorWrist.kLastState == RushinatorWrist.State.kHPMid ||
-            RushinatorWrist.kLastState == RushinatorWrist.State.kTravelL4Right ||
-            RushinatorWrist.kLastState == RushinatorWrist.State.kClimblRight
+            () -> Superstructure.getInstance().has(Superstructure.kWristRight)
             )
         );
         
@@ -4,17 +4,17 @@
 
 package frc.robot.algaeflywheel;
 
+import org.littletonrobotics.junction.Logger;
 import org.opencv.core.RotatedRect;
 
-import com.ctre.phoenix6.configs.CurrentLimitsConfigs;
-import com.ctre.phoenix6.controls.VelocityVoltage;
-import com.ctre.phoenix6.hardware.TalonFX;
-
 import edu.wpi.first.math.geometry.Rotation2d;
-import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
 import edu.wpi.first.wpilibj2.command.Command;
 import edu.wpi.first.wpilibj2.command.SubsystemBase;
 import edu.wpi.first.wpilibj2.command.WaitCommand;
+import frc.crevolib.util.LoopProfiler;
+import frc.robot.Robot;
+import frc.robot.telemetry.Telemetry;
+import frc.robot.telemetry.Telemetry.Level;
 
 /** Add your docs here. */
 public class AlgaeRoller extends SubsystemBase{
@@ -26,19 +26,33 @@ public class AlgaeRoller extends SubsystemBase{
         static final double kCurrentLimit = 25.0;
 
         static final Rotation2d kMaxAngluarVelocity = Rotation2d.fromRotations(6000 / 60);
+
+        // Status signal rates, everything else is turned off by the SignalRegistry
+        static final double kSignalFrequencyHz = 50.0;
+        static final double kDiagnosticFrequencyHz = 4.0;
+
+        // Physics model for the desktop sim
+        static final double kSimGearing = 1.0;
+        static final double kSimFlywheelMOI = 0.002; // kg * m^2
+        static final double kSimIndexerMOI = 0.0005; // kg * m^2
     }
 
     private static AlgaeRoller mInstance;
-    private final TalonFX mTalonShooterLeft, mTalonShooterRight, mTalonIndexer;
+    private final LoopProfiler.Section mLoopProfile = LoopProfiler.getInstance().addSection("AlgaeRoller.periodic()");
 
-    private AlgaeRoller() {
-        mTalonShooterLeft = new TalonFX(Settings.kLeftID);
-        mTalonShooterRight = new TalonFX(Settings.kRightID);
-        mTalonIndexer = new TalonFX(Settings.kIndexID);
+    private final AlgaeRollerIO mIO;
+    private final AlgaeRollerIOInputsAutoLogged mInputs = new AlgaeRollerIOInputsAutoLogged();
 
-        mTalonShooterLeft.getConfigurator().apply(new CurrentLimitsConfigs().withSupplyCurrentLimit(Settings.kCurrentLimit));
-        mTalonShooterRight.getConfigurator().apply(new CurrentLimitsConfigs().withSupplyCurrentLimit(Settings.kCurrentLimit));
-        mTalonIndexer.getConfigurator().apply(new CurrentLimitsConfigs().withSupplyCurrentLimit(Settings.kCurrentLimit));
+    // Telemetry
+    private final Telemetry.DoubleEntry mLeftVelocityEntry = Telemetry.getInstance().addDouble("Left Flywheel Velocity (RPM)", Level.kDebug);
+    private final Telemetry.DoubleEntry mRightVelocityEntry = Telemetry.getInstance().addDouble("Right Flywheel Velocity (RPM)", Level.kDebug);
+
+    private AlgaeRoller() {
+        mIO = switch (Robot.kMode) {
+            case kReal -> new AlgaeRollerIOTalonFX();
+            case kSim -> new AlgaeRollerIOSim();
+            case kReplay -> new AlgaeRollerIO() {};
+        };
     }
 
     public static AlgaeRoller getInstance() {
@@ -49,31 +63,34 @@ public class AlgaeRoller extends SubsystemBase{
     }
 
     public void setFlywheelVoltage(double voltage) {
-        mTalonShooterLeft.setVoltage(voltage);
-        mTalonShooterRight.setVoltage(voltage);
+        mIO.setFlywheelVoltage(voltage);
     }
 
     public void setFlywheelVelocity(Rotation2d velocity) {
-        mTalonShooterLeft.setControl(new VelocityVoltage(velocity.getRotations()));
-        mTalonShooterRight.setControl(new VelocityVoltage(velocity.getRotations()));
+        mIO.setFlywheelVelocity(velocity.getRotations());
     }
 
     public void setIndexerVoltage(double voltage) {
-        mTalonIndexer.setVoltage(voltage);
+        mIO.setIndexerVoltage(voltage);
     }
 
     public Rotation2d geLeftVelocity() {
-        return Rotation2d.fromRotations(mTalonShooterLeft.getVelocity().getValueAsDouble());
+        return Rotation2d.fromRotations(mInputs.leftVelocityRotationsPerSec);
     }
 
     public Rotation2d getRightVelocity() {
-        return Rotation2d.fromRotations(mTalonShooterRight.getVelocity().getValueAsDouble());
+        return Rotation2d.fromRotations(mInputs.rightVelocityRotationsPerSec);
     }
 
     @Override
     public void periodic() {
-        SmartDashboard.putNumber("Left Flywheel Velocity (RPM)", mTalonShooterLeft.getVelocity().getValueAsDouble() * 60);
-        SmartDashboard.putNumber("Right Flywheel Velocity (RPM)", mTalonShooterRight.getVelocity().getValueAsDouble() * 60);
+        mLoopProfile.start();
+        mIO.updateInputs(mInputs);
+        Logger.processInputs("AlgaeRoller", mInputs);
+
+        mLeftVelocityEntry.set(mInputs.leftVelocityRotationsPerSec * 60);
+        mRightVelocityEntry.set(mInputs.rightVelocityRotationsPerSec * 60);
+        mLoopProfile.stop();
     }
 
     public static class DefaultCommand extends Command {
@@ -0,0 +1,25 @@
+package frc.robot.algaeflywheel;
+
+import org.littletonrobotics.junction.AutoLog;
+
+/**
+ * Hardware layer of the algae shooter and its indexer, see {@link frc.robot.elevator.ElevatorIO}.
+ */
+public interface AlgaeRollerIO {
+    @AutoLog
+    public static class AlgaeRollerIOInputs {
+        public double leftVelocityRotationsPerSec = 0.0;
+        public double rightVelocityRotationsPerSec = 0.0;
+    }
+
+    default void updateInputs(AlgaeRollerIOInputs inputs) {}
+
+    default void setFlywheelVoltage(double voltage) {}
+
+    /**
+     * @param velocity target for both flywheels in rotations per second
+     */
+    default void setFlywheelVelocity(double velocity) {}
+
+    default void setIndexerVoltage(double voltage) {}
+}
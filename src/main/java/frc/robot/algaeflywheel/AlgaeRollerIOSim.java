@@ -0,0 +1,61 @@
+package frc.robot.algaeflywheel;
+
+import com.ctre.phoenix6.configs.Slot0Configs;
+import com.ctre.phoenix6.sim.TalonFXSimState;
+
+import edu.wpi.first.math.system.plant.DCMotor;
+import edu.wpi.first.math.system.plant.LinearSystemId;
+import edu.wpi.first.math.util.Units;
+import edu.wpi.first.wpilibj.simulation.FlywheelSim;
+import frc.crevolib.util.MechanismSimRunner;
+import frc.robot.algaeflywheel.AlgaeRoller.Settings;
+
+/**
+ * Algae shooter flywheels and indexer for the desktop sim, WPILib flywheel models
+ * behind the real (simulated) Talons.
+ */
+public class AlgaeRollerIOSim extends AlgaeRollerIOTalonFX implements MechanismSimRunner.Mechanism {
+    // The velocity gains only live on the real Talons, the sim ones start out blank
+    private static final double kVelocityKV = Units.rotationsToRadians(1.0) / DCMotor.getKrakenX60(1).KvRadPerSecPerVolt;
+    private static final double kVelocityKP = 0.1;
+
+    private final DCMotor mMotor = DCMotor.getKrakenX60(1);
+    private final FlywheelSim mLeftSim = new FlywheelSim(
+            LinearSystemId.createFlywheelSystem(mMotor, Settings.kSimFlywheelMOI, Settings.kSimGearing), mMotor);
+    private final FlywheelSim mRightSim = new FlywheelSim(
+            LinearSystemId.createFlywheelSystem(mMotor, Settings.kSimFlywheelMOI, Settings.kSimGearing), mMotor);
+    private final FlywheelSim mIndexerSim = new FlywheelSim(
+            LinearSystemId.createFlywheelSystem(mMotor, Settings.kSimIndexerMOI, 1.0), mMotor);
+    private final TalonFXSimState mLeftSimState = mTalonShooterLeft.getSimState();
+    private final TalonFXSimState mRightSimState = mTalonShooterRight.getSimState();
+    private final TalonFXSimState mIndexerSimState = mTalonIndexer.getSimState();
+
+    public AlgaeRollerIOSim() {
+        var velocityGains = new Slot0Configs().withKV(kVelocityKV).withKP(kVelocityKP);
+        mTalonShooterLeft.getConfigurator().apply(velocityGains);
+        mTalonShooterRight.getConfigurator().apply(velocityGains);
+        MechanismSimRunner.getInstance().register(this);
+    }
+
+    @Override
+    public void simulate(double dtSeconds, double batteryVolts) {
+        simulate(mLeftSim, mLeftSimState, Settings.kSimGearing, dtSeconds, batteryVolts);
+        simulate(mRightSim, mRightSimState, Settings.kSimGearing, dtSeconds, batteryVolts);
+        simulate(mIndexerSim, mIndexerSimState, 1.0, dtSeconds, batteryVolts);
+    }
+
+    @Override
+    public double getSupplyCurrentAmps() {
+        return mLeftSimState.getSupplyCurrent() + mRightSimState.getSupplyCurrent() + mIndexerSimState.getSupplyCurrent();
+    }
+
+    private static void simulate(FlywheelSim sim, TalonFXSimState simState, double gearing, double dtSeconds, double batteryVolts) {
+        simState.setSupplyVoltage(batteryVolts);
+        sim.setInputVoltage(simState.getMotorVoltage());
+        sim.update(dtSeconds);
+
+        double rotorVelocity = sim.getAngularVelocityRPM() / 60.0 * gearing;
+        simState.addRotorPosition(rotorVelocity * dtSeconds);
+        simState.setRotorVelocity(rotorVelocity);
+    }
+}
@@ -0,0 +1,62 @@
+package frc.robot.algaeflywheel;
+
+import com.ctre.phoenix6.StatusSignal;
+import com.ctre.phoenix6.configs.CurrentLimitsConfigs;
+import com.ctre.phoenix6.controls.VelocityVoltage;
+import com.ctre.phoenix6.hardware.TalonFX;
+
+import edu.wpi.first.units.measure.AngularVelocity;
+import frc.crevolib.util.SignalRegistry;
+import frc.robot.algaeflywheel.AlgaeRoller.Settings;
+
+public class AlgaeRollerIOTalonFX implements AlgaeRollerIO {
+    protected final TalonFX mTalonShooterLeft, mTalonShooterRight, mTalonIndexer;
+    // Refreshed once per loop by the SignalRegistry
+    private final StatusSignal<AngularVelocity> mLeftVelocitySignal, mRightVelocitySignal;
+    private final VelocityVoltage mVelocityRequest = new VelocityVoltage(0.0);
+
+    public AlgaeRollerIOTalonFX() {
+        mTalonShooterLeft = new TalonFX(Settings.kLeftID);
+        mTalonShooterRight = new TalonFX(Settings.kRightID);
+        mTalonIndexer = new TalonFX(Settings.kIndexID);
+
+        mTalonShooterLeft.getConfigurator().apply(new CurrentLimitsConfigs().withSupplyCurrentLimit(Settings.kCurrentLimit));
+        mTalonShooterRight.getConfigurator().apply(new CurrentLimitsConfigs().withSupplyCurrentLimit(Settings.kCurrentLimit));
+        mTalonIndexer.getConfigurator().apply(new CurrentLimitsConfigs().withSupplyCurrentLimit(Settings.kCurrentLimit));
+
+        mLeftVelocitySignal = mTalonShooterLeft.getVelocity();
+        mRightVelocitySignal = mTalonShooterRight.getVelocity();
+        SignalRegistry.getInstance().register(mTalonShooterLeft, Settings.kSignalFrequencyHz, mLeftVelocitySignal);
+        SignalRegistry.getInstance().register(mTalonShooterRight, Settings.kSignalFrequencyHz, mRightVelocitySignal);
+        SignalRegistry.getInstance().registerDiagnostics(mTalonShooterLeft, Settings.kDiagnosticFrequencyHz,
+                mTalonShooterLeft.getDeviceTemp(), mTalonShooterLeft.getSupplyCurrent());
+        SignalRegistry.getInstance().registerDiagnostics(mTalonShooterRight, Settings.kDiagnosticFrequencyHz,
+                mTalonShooterRight.getDeviceTemp(), mTalonShooterRight.getSupplyCurrent());
+        SignalRegistry.getInstance().registerDiagnostics(mTalonIndexer, Settings.kDiagnosticFrequencyHz,
+                mTalonIndexer.getDeviceTemp(), mTalonIndexer.getSupplyCurrent());
+    }
+
+    @Override
+    public void updateInputs(AlgaeRollerIOInputs inputs) {
+        inputs.leftVelocityRotationsPerSec = mLeftVelocitySignal.getValueAsDouble();
+        inputs.rightVelocityRotationsPerSec = mRightVelocitySignal.getValueAsDouble();
+    }
+
+    @Override
+    public void setFlywheelVoltage(double voltage) {
+        mTalonShooterLeft.setVoltage(voltage);
+        mTalonShooterRight.setVoltage(voltage);
+    }
+
+    @Override
+    public void setFlywheelVelocity(double velocity) {
+        mVelocityRequest.Velocity = velocity;
+        mTalonShooterLeft.setControl(mVelocityRequest);
+        mTalonShooterRight.setControl(mVelocityRequest);
+    }
+
+    @Override
+    public void setIndexerVoltage(double voltage) {
+        mTalonIndexer.setVoltage(voltage);
+    }
+}
@@ -4,10 +4,11 @@ import java.util.function.Supplier;
 
 import edu.wpi.first.math.geometry.Rotation2d;
 import edu.wpi.first.wpilibj.GenericHID.RumbleType;
-import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
 import edu.wpi.first.wpilibj2.command.Command;
 import frc.robot.algaeflywheel.AlgaeRoller;
 import frc.robot.operator.OperatorXbox;
+import frc.robot.telemetry.Telemetry;
+import frc.robot.telemetry.Telemetry.Level;
 
 public class SetRollerVelAutoShoot extends Command{
     private final AlgaeRoller algaeSystem;
@@ -15,6 +16,9 @@ public class SetRollerVelAutoShoot extends Command{
 
     private final Rotation2d kAllowedError = Rotation2d.fromRotations(5); // 300 RPM
 
+    private final Telemetry.BooleanEntry mLeftReadyEntry = Telemetry.getInstance().addBoolean("Shooter Ready (left)", Level.kCompetition);
+    private final Telemetry.BooleanEntry mRightReadyEntry = Telemetry.getInstance().addBoolean("Shooter Ready (right)", Level.kCompetition);
+
 
     SetRollerVelAutoShoot(Supplier<Rotation2d> velocitySupplier) {
         algaeSystem = AlgaeRoller.getInstance();
@@ -29,15 +33,13 @@ public class SetRollerVelAutoShoot extends Command{
 
         algaeSystem.setFlywheelVelocity(velFlywheel);
 
-        SmartDashboard.putBoolean("Shooter Ready (left)", 
-            (Math.abs(velFlywheel.getRotations()) - (Math.abs(leftVel.getRotations()))) < kAllowedError.getRotations());
-        SmartDashboard.putBoolean("Shooter Ready (right)", 
-            (Math.abs(velFlywheel.getRotations()) - (Math.abs(rightVel.getRotations()))) < kAllowedError.getRotations());
-    
         var leftAtVel = 
             (Math.abs(velFlywheel.getRotations()) - (Math.abs(leftVel.getRotations()))) < kAllowedError.getRotations();
         var rightAtVel = 
             (Math.abs(velFlywheel.getRotations()) - (Math.abs(rightVel.getRotations()))) < kAllowedError.getRotations();
+
+        mLeftReadyEntry.set(leftAtVel);
+        mRightReadyEntry.set(rightAtVel);
         
         if (leftAtVel || rightAtVel) {
             algaeSystem.setIndexerVoltage(12);
@@ -0,0 +1,19 @@
+package frc.robot.algaepivot;
+
+import org.littletonrobotics.junction.AutoLog;
+
+/**
+ * Hardware layer of the algae pivot, see {@link frc.robot.elevator.ElevatorIO}.
+ */
+public interface AlgaePivotIO {
+    @AutoLog
+    public static class AlgaePivotIOInputs {
+        // CANcoder, pivot rotations
+        public double positionRotations = 0.0;
+        public double velocityRotationsPerSec = 0.0;
+    }
+
+    default void updateInputs(AlgaePivotIOInputs inputs) {}
+
+    default void setVoltage(double voltage) {}
+}
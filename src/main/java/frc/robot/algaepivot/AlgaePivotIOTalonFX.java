@@ -0,0 +1,58 @@
+package frc.robot.algaepivot;
+
+import com.ctre.phoenix6.StatusSignal;
+import com.ctre.phoenix6.configs.CANcoderConfiguration;
+import com.ctre.phoenix6.configs.CurrentLimitsConfigs;
+import com.ctre.phoenix6.configs.MagnetSensorConfigs;
+import com.ctre.phoenix6.configs.MotorOutputConfigs;
+import com.ctre.phoenix6.configs.TalonFXConfiguration;
+import com.ctre.phoenix6.hardware.CANcoder;
+import com.ctre.phoenix6.hardware.TalonFX;
+import com.ctre.phoenix6.signals.InvertedValue;
+import com.ctre.phoenix6.signals.NeutralModeValue;
+import com.ctre.phoenix6.signals.SensorDirectionValue;
+
+import edu.wpi.first.units.measure.Angle;
+import edu.wpi.first.units.measure.AngularVelocity;
+import frc.crevolib.util.SignalRegistry;
+import frc.robot.algaepivot.AlgaeSubsystem.Settings;
+
+public class AlgaePivotIOTalonFX implements AlgaePivotIO {
+    protected final TalonFX mTalonPivot;
+    protected final CANcoder mCANcoderPivot;
+    // Refreshed once per loop by the SignalRegistry
+    private final StatusSignal<Angle> mAbsolutePositionSignal;
+    private final StatusSignal<AngularVelocity> mVelocitySignal;
+
+    public AlgaePivotIOTalonFX() {
+        mTalonPivot = new TalonFX(Settings.kTalonPivotID);
+        mTalonPivot.getConfigurator().apply(new TalonFXConfiguration().withMotorOutput(new MotorOutputConfigs()
+                .withInverted(InvertedValue.Clockwise_Positive)
+                .withNeutralMode(NeutralModeValue.Brake)
+        ));
+        mTalonPivot.getConfigurator().apply(new CurrentLimitsConfigs().withSupplyCurrentLimit(Settings.kCurrentLimit));
+
+        mCANcoderPivot = new CANcoder(Settings.kCANcoderPivotID);
+        mCANcoderPivot.getConfigurator().apply(new CANcoderConfiguration().withMagnetSensor(new MagnetSensorConfigs().
+                withSensorDirection(SensorDirectionValue.Clockwise_Positive).
+                withMagnetOffset(Settings.kZeroOffset)
+        ));
+
+        mAbsolutePositionSignal = mCANcoderPivot.getAbsolutePosition();
+        mVelocitySignal = mCANcoderPivot.getVelocity();
+        SignalRegistry.getInstance().register(mCANcoderPivot, Settings.kSignalFrequencyHz, mAbsolutePositionSignal, mVelocitySignal);
+        SignalRegistry.getInstance().registerDiagnostics(mTalonPivot, Settings.kDiagnosticFrequencyHz,
+                mTalonPivot.getDeviceTemp(), mTalonPivot.getSupplyCurrent());
+    }
+
+    @Override
+    public void updateInputs(AlgaePivotIOInputs inputs) {
+        inputs.positionRotations = mAbsolutePositionSignal.getValueAsDouble();
+        inputs.velocityRotationsPerSec = mVelocitySignal.getValueAsDouble();
+    }
+
+    @Override
+    public void setVoltage(double voltage) {
+        mTalonPivot.setVoltage(voltage);
+    }
+}
@@ -3,19 +3,30 @@ package frc.robot.algaepivot;
 import edu.wpi.first.math.interpolation.InterpolatingTreeMap;
 import edu.wpi.first.math.interpolation.Interpolator;
 import edu.wpi.first.math.interpolation.InverseInterpolator;
-import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
 import edu.wpi.first.wpilibj2.command.SubsystemBase;
+import frc.crevolib.util.LoopProfiler;
+import frc.robot.telemetry.Telemetry;
+import frc.robot.telemetry.Telemetry.Level;
 
 public class AlgaeShooterInterpolation extends SubsystemBase{
     // Create an InterpolatingTreeMap to store data points with double keys
     private static InterpolatingTreeMap<Double, Double> dataAngle = new InterpolatingTreeMap<>(InverseInterpolator.forDouble(), Interpolator.forDouble());
+
+    static {
+        // Configures the TreeMap, static so the table can be used without the subsystem
+        configureInterpolatingAngleTreeMap();
+    }
+
     private static AlgaeShooterInterpolation mInstance;
+    private final LoopProfiler.Section mLoopProfile = LoopProfiler.getInstance().addSection("AlgaeShooterInterpolation.periodic()");
+
     private double algaeShooterPivotAngle;
     private double distance;
+
+    private final Telemetry.DoubleEntry mAngleEntry = Telemetry.getInstance().addDouble("[Interpolated Angle]", Level.kDebug);
+    private final Telemetry.DoubleEntry mDistanceEntry = Telemetry.getInstance().addDouble("[Interpolated Passed Dist.]", Level.kDebug);
     // private static InterpolatingDoubleTreeMap data = new InterpolatingDoubleTreeMap();
     public AlgaeShooterInterpolation() {
-        // Configures the TreeMap
-        configureInterpolatingAngleTreeMap();
     }
 
     public static AlgaeShooterInterpolation getInstance() {
@@ -26,7 +37,7 @@ public class AlgaeShooterInterpolation extends SubsystemBase{
     }
 
     // Method to set up data values for Angles in the TreeMap
-    private void configureInterpolatingAngleTreeMap() {
+    private static void configureInterpolatingAngleTreeMap() {
         // Add data points to the TreeMap
         dataAngle.put(0.0, 0.0);
         dataAngle.put(1.5, 0.0);
@@ -40,15 +51,25 @@ public class AlgaeShooterInterpolation extends SubsystemBase{
         this.distance = distance;
 
         /* Get the interpolated entry from the TreeMap for the specified distance */
-        algaeShooterPivotAngle = dataAngle.get(distance);
+        algaeShooterPivotAngle = interpolateAngle(distance);
 
         // Return the interpolated data point
         return algaeShooterPivotAngle;
     }
 
+    /**
+     * Looks up the shooter angle for a distance without touching the subsystem (or its
+     * telemetry), so it can be called from benchmarks.
+     */
+    public static double interpolateAngle(double distance) {
+        return dataAngle.get(distance);
+    }
+
     @Override
     public void periodic() {
-        SmartDashboard.putNumber("[Interpolated Angle]", algaeShooterPivotAngle);
-        SmartDashboard.putNumber("[Interpolated Passed Dist.]", distance);
+        mLoopProfile.start();
+        mAngleEntry.set(algaeShooterPivotAngle);
+        mDistanceEntry.set(distance);
+        mLoopProfile.stop();
     }
 }
@@ -1,22 +1,19 @@
 package frc.robot.algaepivot;
 
-import com.ctre.phoenix6.configs.CANcoderConfiguration;
-import com.ctre.phoenix6.configs.CurrentLimitsConfigs;
-import com.ctre.phoenix6.configs.MagnetSensorConfigs;
-import com.ctre.phoenix6.configs.MotorOutputConfigs;
-import com.ctre.phoenix6.configs.TalonFXConfiguration;
-import com.ctre.phoenix6.hardware.CANcoder;
-import com.ctre.phoenix6.hardware.TalonFX;
-import com.ctre.phoenix6.signals.InvertedValue;
-import com.ctre.phoenix6.signals.NeutralModeValue;
-import com.ctre.phoenix6.signals.SensorDirectionValue;
+import org.littletonrobotics.junction.Logger;
+
 import edu.wpi.first.math.controller.ArmFeedforward;
 import edu.wpi.first.math.controller.ProfiledPIDController;
 import edu.wpi.first.math.geometry.Rotation2d;
 import edu.wpi.first.math.trajectory.TrapezoidProfile;
-import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
+import edu.wpi.first.math.util.Units;
 import edu.wpi.first.wpilibj2.command.Command;
 import edu.wpi.first.wpilibj2.command.SubsystemBase;
+import frc.crevolib.util.LoopProfiler;
+import frc.robot.Robot;
+import frc.robot.superstructure.Superstructure;
+import frc.robot.telemetry.Telemetry;
+import frc.robot.telemetry.Telemetry.Level;
 
 import java.util.function.Supplier;
 
@@ -47,6 +44,17 @@ public class AlgaeSubsystem extends SubsystemBase {
         // TODO: Enable lower min-pos to bring down CoG when elevator is up. We should be able to tuck the shooter into the elevator.
         static final Rotation2d kMinPos = Rotation2d.fromRotations(0.0439453125);
         static final Rotation2d kMaxPos = Rotation2d.fromRotations(0.369384765625);
+
+        // Status signal rates, everything else is turned off by the SignalRegistry
+        static final double kSignalFrequencyHz = 100.0;
+        static final double kDiagnosticFrequencyHz = 4.0;
+
+        // Physics model for the desktop sim
+        static final double kSimGearing = 50.0;
+        static final double kSimArmLength = 0.3; // m
+        static final double kSimArmMass = 3.0; // kg
+        static final Rotation2d kSimMinPos = Rotation2d.fromRotations(0.0);
+        static final Rotation2d kSimMaxPos = Rotation2d.fromRotations(0.4);
     }
 
     public enum State {
@@ -65,26 +73,24 @@ public class AlgaeSubsystem extends SubsystemBase {
         public final Rotation2d pos;
     }
 
-    private final TalonFX mTalonPivot;
-    private final CANcoder mCANcoderPivot;
+    private final AlgaePivotIO mIO;
+    private final AlgaePivotIOInputsAutoLogged mInputs = new AlgaePivotIOInputsAutoLogged();
     private final ArmFeedforward mFFController;
     private final ProfiledPIDController mPPIDController;
 
-    public static State kLastState;
+    // Telemetry
+    private final Telemetry.DoubleEntry mPositionEntry = Telemetry.getInstance().addDouble("Algae Pivot Pos (rotations)", Level.kCompetition);
+    private final Telemetry.DoubleEntry mTargetPositionEntry = Telemetry.getInstance().addDouble("Algae Pivot Target Pos (rotations)", Level.kDebug);
+    private final Telemetry.DoubleEntry mVelocityEntry = Telemetry.getInstance().addDouble("Algae Pivot Vel (rotations / sec)", Level.kDebug);
+    private final Telemetry.DoubleEntry mTargetVelocityEntry = Telemetry.getInstance().addDouble("Algae Pivot Target Vel (rotations / sec)", Level.kDebug);
+    private final Telemetry.DoubleEntry mVoltageEntry = Telemetry.getInstance().addDouble("Algae Pivot Applied Voltage", Level.kDebug);
 
     private AlgaeSubsystem() {
-        mTalonPivot = new TalonFX(Settings.kTalonPivotID);
-        mTalonPivot.getConfigurator().apply(new TalonFXConfiguration().withMotorOutput(new MotorOutputConfigs()
-                .withInverted(InvertedValue.Clockwise_Positive)
-                .withNeutralMode(NeutralModeValue.Brake)
-        ));
-        mTalonPivot.getConfigurator().apply(new CurrentLimitsConfigs().withSupplyCurrentLimit(Settings.kCurrentLimit));
-
-        mCANcoderPivot = new CANcoder(Settings.kCANcoderPivotID);
-        mCANcoderPivot.getConfigurator().apply(new CANcoderConfiguration().withMagnetSensor(new MagnetSensorConfigs().
-                withSensorDirection(SensorDirectionValue.Clockwise_Positive).
-                withMagnetOffset(Settings.kZeroOffset)
-        ));
+        mIO = switch (Robot.kMode) {
+            case kReal -> new AlgaePivotIOTalonFX();
+            case kSim -> new AlgaePivotIOSim();
+            case kReplay -> new AlgaePivotIO() {};
+        };
 
         mFFController = new ArmFeedforward(Settings.kS, Settings.kG, Settings.kV, Settings.kA);
         mPPIDController = new ProfiledPIDController(Settings.kP, Settings.kI, Settings.kD, new TrapezoidProfile.Constraints(
@@ -92,14 +98,13 @@ public class AlgaeSubsystem extends SubsystemBase {
                 Settings.kMaxAcceleration.getRadians()
         ));
         
-        if (kLastState == null) {
-            kLastState = State.kStow;
-        }
-        mPPIDController.setGoal(kLastState.pos.getRadians());
+        mPPIDController.setGoal(Superstructure.getInstance().getAlgaeState().pos.getRadians());
     }
 
 
     private static AlgaeSubsystem mInstance;
+    private final LoopProfiler.Section mLoopProfile = LoopProfiler.getInstance().addSection("AlgaeSubsystem.periodic()");
+
     public static AlgaeSubsystem getInstance() {
         if (mInstance == null) {
             mInstance = new AlgaeSubsystem();
@@ -108,7 +113,7 @@ public class AlgaeSubsystem extends SubsystemBase {
     }
 
     public void setTargetState(State targetState) {
-        kLastState = targetState;
+        Superstructure.getInstance().setAlgaeState(targetState);
         setTargetPosition(targetState.pos);
     }
 
@@ -118,33 +123,35 @@ public class AlgaeSubsystem extends SubsystemBase {
     }
 
     public Rotation2d getWristPosition() {
-        var pos = mCANcoderPivot.getAbsolutePosition().getValueAsDouble();
+        var pos = mInputs.positionRotations;
         return Rotation2d.fromRotations(pos);
     }
 
     public Rotation2d getWristVelocity() {
-        var vel = mCANcoderPivot.getVelocity().getValueAsDouble();
+        var vel = mInputs.velocityRotationsPerSec;
         return Rotation2d.fromRotations(vel);
     }
 
     @Override
     public void periodic() {
-        double voltage;
-        if (kLastState != null) {
-            voltage = mPPIDController.calculate(getWristPosition().getRadians());
-            // voltage += mFFController.calculate(getWristPosition().getRadians(), mPPIDController.getSetpoint().velocity);
-        } else {
-            voltage = 0.0;
-        }
+        mLoopProfile.start();
+        mIO.updateInputs(mInputs);
+        Logger.processInputs("AlgaePivot", mInputs);
+
+        double position = getWristPosition().getRadians();
+        double voltage = mPPIDController.calculate(position);
+        // voltage += mFFController.calculate(getWristPosition().getRadians(), mPPIDController.getSetpoint().velocity);
 
-        mTalonPivot.setVoltage(voltage);
+        mIO.setVoltage(voltage);
 
         // Telemetry
-        SmartDashboard.putNumber("Algae Pivot Pos (rotations)", getWristPosition().getRotations());
-        SmartDashboard.putNumber("Algae Pivot Target Pos (rotations)", Rotation2d.fromRadians(mPPIDController.getSetpoint().position).getRotations());
-        SmartDashboard.putNumber("Algae Pivot Vel (rotations / sec)", getWristVelocity().getRotations());
-        SmartDashboard.putNumber("Algae Pivot Target Vel (rotations / sec)", Rotation2d.fromRadians(mPPIDController.getSetpoint().velocity).getRotations());
-        SmartDashboard.putNumber("Algae Pivot Applied Voltage", voltage);
+        mPositionEntry.set(Units.radiansToRotations(position));
+        mTargetPositionEntry.set(Units.radiansToRotations(mPPIDController.getSetpoint().position));
+        mVelocityEntry.set(getWristVelocity().getRotations());
+        mTargetVelocityEntry.set(Units.radiansToRotations(mPPIDController.getSetpoint().velocity));
+        mVoltageEntry.set(voltage);
+        Logger.recordOutput("AlgaePivot/Voltage", voltage);
+        mLoopProfile.stop();
     }
 
     public static class DefaultCommand extends Command {
@@ -155,7 +162,7 @@ public class AlgaeSubsystem extends SubsystemBase {
 
         @Override
         public void execute() {
-            if (kLastState == State.kTuck) {
+            if (Superstructure.getInstance().has(Superstructure.kAlgaeTuck)) {
                 AlgaeSubsystem.getInstance().setTargetState(State.kTuck);
             } else {
                 AlgaeSubsystem.getInstance().setTargetState(State.kStow);
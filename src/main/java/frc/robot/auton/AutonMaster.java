@@ -61,11 +61,8 @@ public class AutonMaster {
         try {
             var config = RobotConfig.fromGUISettings();
             AutoBuilder.configure(
-                () -> {
-                    Pose2d poseEstPose = PoseEstimatorSubsystem.getInstance().getCurrentPose();
-                    return poseEstPose != Pose2d.kZero ? poseEstPose : CommandSwerveDrivetrain.getInstance().getPose();
-                },   // Supplier of current robot pose
-                drivetrain::resetPose,         // Consumer for seeding pose against auto
+                PoseEstimatorSubsystem.getInstance()::getCurrentPose,   // Supplier of current robot pose
+                PoseEstimatorSubsystem.getInstance()::setCurrentPose,   // Consumer for seeding pose against auto
                 drivetrain::getRobotRelvativeSpeeds, // Supplier of current robot speeds
                 // Consumer of ChassisSpeeds and feedforwards to drive the robot
                 (speeds, feedforwards) -> drivetrain.setControl(
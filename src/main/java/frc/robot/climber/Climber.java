@@ -1,5 +1,7 @@
 package frc.robot.climber;
 
+import org.littletonrobotics.junction.Logger;
+
 import com.ctre.phoenix6.configs.CurrentLimitsConfigs;
 import com.ctre.phoenix6.configs.MotorOutputConfigs;
 import com.ctre.phoenix6.configs.TalonFXConfiguration;
@@ -7,22 +9,20 @@ import com.ctre.phoenix6.hardware.CANcoder;
 import com.ctre.phoenix6.hardware.TalonFX;
 import com.ctre.phoenix6.signals.InvertedValue;
 import com.ctre.phoenix6.signals.NeutralModeValue;
-import com.revrobotics.RelativeEncoder;
-import com.revrobotics.spark.SparkBase.PersistMode;
-import com.revrobotics.spark.SparkBase.ResetMode;
-import com.revrobotics.spark.SparkMax;
-import com.revrobotics.spark.SparkLowLevel.MotorType;
-import com.revrobotics.spark.config.SparkMaxConfig;
 
 import edu.wpi.first.math.controller.ArmFeedforward;
 import edu.wpi.first.math.controller.ProfiledPIDController;
 import edu.wpi.first.math.geometry.Rotation2d;
 import edu.wpi.first.math.trajectory.TrapezoidProfile;
 import edu.wpi.first.math.trajectory.TrapezoidProfile.Constraints;
-import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
 import edu.wpi.first.wpilibj2.command.Command;
 import edu.wpi.first.wpilibj2.command.SubsystemBase;
+import frc.crevolib.util.LoopProfiler;
+import frc.robot.Robot;
+import frc.robot.telemetry.Telemetry;
+import frc.robot.telemetry.Telemetry.Level;
 import frc.robot.rushinator.RushinatorPivot;
+import frc.robot.superstructure.Superstructure;
 
 public class Climber extends SubsystemBase{
     public static class Settings {
@@ -52,6 +52,10 @@ public class Climber extends SubsystemBase{
 
         static final double kCurrentLimit = 40.0;
 
+        // Physics model for the desktop sim
+        static final double kSimGearing = 100.0;
+        static final double kSimMOI = 0.05; // kg * m^2
+
     }
 
     public enum State {
@@ -68,29 +72,31 @@ public class Climber extends SubsystemBase{
     }
 
     public static Climber mInstance;
+    private final LoopProfiler.Section mLoopProfile = LoopProfiler.getInstance().addSection("Climber.periodic()");
 
     // private TalonFX ClimberPivot;
     private final ProfiledPIDController mPPIDController;
     private Constraints mConstraints;
     private final ArmFeedforward mAFFController;
 
-    private SparkMax mClimberPivotMotor;
-    private SparkMaxConfig mClimberPivotMotorConfig;
-    private RelativeEncoder mClimberPivotMotorEncoder;
+    private final ClimberIO mIO;
+    private final ClimberIOInputsAutoLogged mInputs = new ClimberIOInputsAutoLogged();
 
+    // Telemetry
+    private final Telemetry.DoubleEntry mPositionEntry = Telemetry.getInstance().addDouble("Climber Pivot Angle (Rotations)", Level.kCompetition);
+    private final Telemetry.DoubleEntry mVelocityEntry = Telemetry.getInstance().addDouble("Climber Pivot Angular Velocity (Rotations / sec)", Level.kDebug);
+    private final Telemetry.DoubleEntry mTargetPositionEntry = Telemetry.getInstance().addDouble("Climber Target Pos", Level.kDebug);
+    private final Telemetry.DoubleEntry mTargetVelocityEntry = Telemetry.getInstance().addDouble("Target Vel", Level.kDebug);
+    private final Telemetry.DoubleEntry mOutputEntry = Telemetry.getInstance().addDouble("mPPIDC + mFFC Output", Level.kDebug);
 
-    public static State kLastState;
 
-    public Climber() {
-        mClimberPivotMotor = new SparkMax(Settings.kClimberPivotId, MotorType.kBrushless);
 
-        mClimberPivotMotorConfig = new SparkMaxConfig();
-        mClimberPivotMotorConfig.inverted(Settings.kClimberPivotInverted);
-        mClimberPivotMotorConfig.smartCurrentLimit(Settings.kStallCurrentLimit);
-        mClimberPivotMotor.configure(mClimberPivotMotorConfig, ResetMode.kResetSafeParameters, PersistMode.kPersistParameters);
-
-        mClimberPivotMotorEncoder = mClimberPivotMotor.getEncoder();
-        
+    public Climber() {
+        mIO = switch (Robot.kMode) {
+            case kReal -> new ClimberIOSparkMax();
+            case kSim -> new ClimberIOSim();
+            case kReplay -> new ClimberIO() {};
+        };
 
         // ClimberPivot = new TalonFX(Settings.kClimberPivotId);
 
@@ -120,10 +126,7 @@ public class Climber extends SubsystemBase{
 
         // ClimberPivot.getConfigurator().apply(new CurrentLimitsConfigs().withSupplyCurrentLimit(Settings.kCurrentLimit));
         
-        if (kLastState == null) {
-            kLastState = State.kStow;
-        }
-        mPPIDController.setGoal(kLastState.pos.getRotations());
+        mPPIDController.setGoal(Superstructure.getInstance().getClimberState().pos.getRotations());
 
     }
 
@@ -134,17 +137,22 @@ public class Climber extends SubsystemBase{
         return mInstance;
     }
 
+    public void setTargetState(State targetState) {
+        Superstructure.getInstance().setClimberState(targetState);
+        setTargetPos(targetState.pos);
+    }
+
     public void setTargetPos(Rotation2d pos) {
         mPPIDController.setGoal(pos.getRotations());
     }
 
     public Rotation2d getPos() {
-        return Rotation2d.fromRotations(mClimberPivotMotorEncoder.getPosition());
+        return Rotation2d.fromRotations(mInputs.positionRotations);
     }
 
     public Rotation2d getAngularVelocity() {
         // return Rotation2d.fromRotations(ClimberPivot.getVelocity().getValueAsDouble());
-        return Rotation2d.fromRotations(mClimberPivotMotorEncoder.getVelocity()); //TODO: i dont know what the unit conversions are
+        return Rotation2d.fromRotations(mInputs.velocityRPM); //TODO: i dont know what the unit conversions are
     }
 
     public static class DefaultCommand extends Command {
@@ -155,27 +163,34 @@ public class Climber extends SubsystemBase{
 
         @Override
         public void execute() {
-            Climber.getInstance().setTargetPos(State.kStow.pos);
+            Climber.getInstance().setTargetState(State.kStow);
         }
 
     }
 
     @Override
     public void periodic() {
-        SmartDashboard.putNumber("Climber Pivot Angle (Rotations)", getPos().getRotations());
-        SmartDashboard.putNumber("Climber Pivot Angular Velocity (Rotations / sec)", getAngularVelocity().getRotations());
+        mLoopProfile.start();
+        mIO.updateInputs(mInputs);
+        Logger.processInputs("Climber", mInputs);
+
+        double position = getPos().getRotations();
+        mPositionEntry.set(position);
+        mVelocityEntry.set(getAngularVelocity().getRotations());
 
-        SmartDashboard.putNumber("Climber Target Pos", mPPIDController.getSetpoint().position);
-        SmartDashboard.putNumber("Target Vel", mPPIDController.getSetpoint().velocity);
+        mTargetPositionEntry.set(mPPIDController.getSetpoint().position);
+        mTargetVelocityEntry.set(mPPIDController.getSetpoint().velocity);
 
         // Method to run pivots
-        double speed = mPPIDController.calculate(getPos().getRotations());
-        speed += mAFFController.calculate(getPos().getRotations(), mPPIDController.getSetpoint().velocity);
+        double speed = mPPIDController.calculate(position);
+        speed += mAFFController.calculate(position, mPPIDController.getSetpoint().velocity);
 
-        SmartDashboard.putNumber("mPPIDC + mFFC Output", speed);
+        mOutputEntry.set(speed);
+        Logger.recordOutput("Climber/Voltage", speed);
         
-        mClimberPivotMotor.setVoltage(speed);
+        mIO.setVoltage(speed);
 
         // ClimberPivot.setVoltage(speed);
+        mLoopProfile.stop();
     }
 }
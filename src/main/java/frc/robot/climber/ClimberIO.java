@@ -0,0 +1,20 @@
+package frc.robot.climber;
+
+import org.littletonrobotics.junction.AutoLog;
+
+/**
+ * Hardware layer of the climber, see {@link frc.robot.elevator.ElevatorIO}.
+ */
+public interface ClimberIO {
+    @AutoLog
+    public static class ClimberIOInputs {
+        // SparkMax relative encoder, motor rotations and RPM
+        public double positionRotations = 0.0;
+        public double velocityRPM = 0.0;
+        public double appliedVolts = 0.0;
+    }
+
+    default void updateInputs(ClimberIOInputs inputs) {}
+
+    default void setVoltage(double voltage) {}
+}
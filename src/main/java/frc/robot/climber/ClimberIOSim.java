@@ -0,0 +1,39 @@
+package frc.robot.climber;
+
+import com.revrobotics.sim.SparkMaxSim;
+
+import edu.wpi.first.math.system.plant.DCMotor;
+import edu.wpi.first.math.system.plant.LinearSystemId;
+import edu.wpi.first.wpilibj.simulation.DCMotorSim;
+import frc.crevolib.util.MechanismSimRunner;
+import frc.robot.climber.Climber.Settings;
+
+/**
+ * Climber for the desktop sim, a WPILib motor model behind the real (simulated)
+ * Spark. Unloaded, the robot's weight only shows up once it's hanging.
+ */
+public class ClimberIOSim extends ClimberIOSparkMax implements MechanismSimRunner.Mechanism {
+    private final DCMotor mMotor = DCMotor.getNEO(1);
+    private final DCMotorSim mSim = new DCMotorSim(
+            LinearSystemId.createDCMotorSystem(mMotor, Settings.kSimMOI, Settings.kSimGearing), mMotor);
+    private final SparkMaxSim mSparkSim = new SparkMaxSim(mClimberPivotMotor, mMotor);
+
+    public ClimberIOSim() {
+        MechanismSimRunner.getInstance().register(this);
+    }
+
+    @Override
+    public void simulate(double dtSeconds, double batteryVolts) {
+        mSim.setInputVoltage(mSparkSim.getAppliedOutput() * batteryVolts);
+        mSim.update(dtSeconds);
+
+        // The encoder is on the motor, the model tracks the output shaft
+        mSparkSim.iterate(mSim.getAngularVelocityRPM() * Settings.kSimGearing, batteryVolts, dtSeconds);
+    }
+
+    @Override
+    public double getSupplyCurrentAmps() {
+        // Supply current is about the motor current scaled by the duty cycle
+        return mSparkSim.getMotorCurrent() * Math.abs(mSparkSim.getAppliedOutput());
+    }
+}
@@ -0,0 +1,38 @@
+package frc.robot.climber;
+
+import com.revrobotics.RelativeEncoder;
+import com.revrobotics.spark.SparkBase.PersistMode;
+import com.revrobotics.spark.SparkBase.ResetMode;
+import com.revrobotics.spark.SparkMax;
+import com.revrobotics.spark.SparkLowLevel.MotorType;
+import com.revrobotics.spark.config.SparkMaxConfig;
+
+import frc.robot.climber.Climber.Settings;
+
+public class ClimberIOSparkMax implements ClimberIO {
+    protected final SparkMax mClimberPivotMotor;
+    private final RelativeEncoder mClimberPivotMotorEncoder;
+
+    public ClimberIOSparkMax() {
+        mClimberPivotMotor = new SparkMax(Settings.kClimberPivotId, MotorType.kBrushless);
+
+        var config = new SparkMaxConfig();
+        config.inverted(Settings.kClimberPivotInverted);
+        config.smartCurrentLimit(Settings.kStallCurrentLimit);
+        mClimberPivotMotor.configure(config, ResetMode.kResetSafeParameters, PersistMode.kPersistParameters);
+
+        mClimberPivotMotorEncoder = mClimberPivotMotor.getEncoder();
+    }
+
+    @Override
+    public void updateInputs(ClimberIOInputs inputs) {
+        inputs.positionRotations = mClimberPivotMotorEncoder.getPosition();
+        inputs.velocityRPM = mClimberPivotMotorEncoder.getVelocity();
+        inputs.appliedVolts = mClimberPivotMotor.getAppliedOutput() * mClimberPivotMotor.getBusVoltage();
+    }
+
+    @Override
+    public void setVoltage(double voltage) {
+        mClimberPivotMotor.setVoltage(voltage);
+    }
+}
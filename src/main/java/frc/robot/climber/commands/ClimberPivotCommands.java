@@ -8,7 +8,7 @@ import frc.robot.climber.Climber;
 
 public class ClimberPivotCommands {
     public static Command setClimberAngle(Climber.State state) {
-        return new SetClimberAngle(state.pos);
+        return new SetClimberAngle(state);
     }
 
     public static Command setClimberAngle(Supplier<Rotation2d> targetSupplier) {
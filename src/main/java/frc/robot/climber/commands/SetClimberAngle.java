@@ -9,6 +9,12 @@ import frc.robot.climber.Climber;
 public class SetClimberAngle extends Command{
     Climber mClimber;
     Supplier<Rotation2d> targetSupplier;
+    Climber.State targetState;
+
+    public SetClimberAngle(Climber.State stateIn) {
+        this(stateIn.pos);
+        targetState = stateIn;
+    }
 
     public SetClimberAngle(Rotation2d angleIn) {
         mClimber = Climber.getInstance();   
@@ -21,7 +27,11 @@ public class SetClimberAngle extends Command{
 
     @Override
     public void initialize() {
-        mClimber.setTargetPos(targetSupplier.get());
+        if (targetState != null) {
+            mClimber.setTargetState(targetState);
+        } else {
+            mClimber.setTargetPos(targetSupplier.get());
+        }
     }
 
 
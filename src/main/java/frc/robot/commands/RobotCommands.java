@@ -1,5 +1,7 @@
 package frc.robot.commands;
 
+import java.util.EnumMap;
+
 import edu.wpi.first.wpilibj.GenericHID.RumbleType;
 import edu.wpi.first.wpilibj2.command.*;
 import frc.robot.algaepivot.AlgaeSubsystem;
@@ -13,58 +15,71 @@ import frc.robot.rushinator.RushinatorWrist.State;
 import frc.robot.rushinator.commands.SetArmState;
 import frc.robot.rushinator.commands.SetRollersVoltage;
 import frc.robot.rushinator.commands.SetWristState;
+import frc.robot.superstructure.commands.SetSuperstructureState;
+import frc.robot.superstructure.Superstructure;
 
 public class RobotCommands {
+    private enum CoralLevel {
+        kL1,
+        kL2,
+        kL3,
+        kL4
+    }
+
+    private static Command mScoreCoral;
+
+    /**
+     * Scores on whatever level the robot is primed for. The level is picked when the
+     * command is scheduled, from the elevator state and whether the operator is holding
+     * the L2 button, and the branches are only built once. Each branch is proxied so
+     * only the mechanisms of the branch that runs are interrupted. Bind the returned
+     * command directly, it can't be put in a group more than once.
+     */
     public static Command scoreCoral() {
-        if (ElevatorSubsystem.kLastState == ElevatorSubsystem.State.kCoralL4) {
-            return new ParallelCommandGroup(
+        if (mScoreCoral == null) {
+            EnumMap<CoralLevel, Command> branches = new EnumMap<>(CoralLevel.class);
+            branches.put(CoralLevel.kL4, new ParallelCommandGroup(
                 new ConditionalCommand(
                     RobotCommands.coralPrimeShoot(RushinatorPivot.State.kScore, RushinatorWrist.State.kScoreRightWrist), 
                     RobotCommands.coralPrimeShoot(RushinatorPivot.State.kScore, RushinatorWrist.State.kScoreLeftWrist), 
-                    () -> RushinatorWrist.kLastState == RushinatorWrist.State.kTravelRight || 
-                    RushinatorWrist.kLastState == RushinatorWrist.State.kScoreRightWrist || 
-                    RushinatorWrist.kLastState == RushinatorWrist.State.kGroundMid || 
-                    RushinatorWrist.kLastState == RushinatorWrist.State.kHPMid
+                    () -> Superstructure.getInstance().has(Superstructure.kWristRight)
                 )
-            );
-        
-        } else if (ElevatorSubsystem.kLastState == ElevatorSubsystem.State.kCoralL3 || ElevatorSubsystem.kLastState == ElevatorSubsystem.State.kCoralScoreL3) {
-            return new ParallelCommandGroup(
+            ));
+            branches.put(CoralLevel.kL3, new ParallelCommandGroup(
                 new ConditionalCommand(
                     RobotCommands.coralPrimeShoot(RushinatorPivot.State.kScore, RushinatorWrist.State.kScoreRightWrist), 
                     RobotCommands.coralPrimeShoot(RushinatorPivot.State.kScore, RushinatorWrist.State.kScoreLeftWrist), 
-                    () -> RushinatorWrist.kLastState == RushinatorWrist.State.kTravelRight || 
-                    RushinatorWrist.kLastState == RushinatorWrist.State.kScoreRightWrist || 
-                    RushinatorWrist.kLastState == RushinatorWrist.State.kGroundMid || 
-                    RushinatorWrist.kLastState == RushinatorWrist.State.kHPMid
+                    () -> Superstructure.getInstance().has(Superstructure.kWristRight)
                 ),
                 new SetElevatorState(ElevatorSubsystem.State.kCoralScoreL3)
-            );
-        } else if (OperatorXbox.getInstance().controller.x().getAsBoolean() == true) {
-            return new ParallelCommandGroup(
+            ));
+            branches.put(CoralLevel.kL2, new ParallelCommandGroup(
                 new ConditionalCommand(
                     RobotCommands.coralPrimeShoot(RushinatorPivot.State.kScoreL2, RushinatorWrist.State.kScoreL2RightWrist), 
                     RobotCommands.coralPrimeShoot(RushinatorPivot.State.kScoreL2, RushinatorWrist.State.kScoreL2LeftWrist), 
-                    () -> RushinatorWrist.kLastState == RushinatorWrist.State.kTravelRight || 
-                    RushinatorWrist.kLastState == RushinatorWrist.State.kScoreRightWrist || 
-                    RushinatorWrist.kLastState == RushinatorWrist.State.kGroundMid || 
-                    RushinatorWrist.kLastState == RushinatorWrist.State.kHPMid
+                    () -> Superstructure.getInstance().has(Superstructure.kWristRight)
                 ),
                 new SetElevatorState(ElevatorSubsystem.State.kCoralScoreL2)
-            );
-        } else {
-            return new ParallelCommandGroup(
-                new ConditionalCommand(
-                    RobotCommands.coralPrimeShoot(RushinatorPivot.State.kScoreL1, RushinatorWrist.State.kScoreL1Mid), 
-                    RobotCommands.coralPrimeShoot(RushinatorPivot.State.kScoreL1, RushinatorWrist.State.kScoreL1Mid), 
-                    () -> RushinatorWrist.kLastState == RushinatorWrist.State.kTravelRight || 
-                    RushinatorWrist.kLastState == RushinatorWrist.State.kScoreRightWrist || 
-                    RushinatorWrist.kLastState == RushinatorWrist.State.kGroundMid || 
-                    RushinatorWrist.kLastState == RushinatorWrist.State.kHPMid
-                ),
+            ));
+            branches.put(CoralLevel.kL1, new ParallelCommandGroup(
+                RobotCommands.coralPrimeShoot(RushinatorPivot.State.kScoreL1, RushinatorWrist.State.kScoreL1Mid),
                 new SetRollersVoltage(-1.1)
-            );
+            ));
+            branches.replaceAll((level, branch) -> branch.asProxy());
+            mScoreCoral = new SelectCommand<>(branches, RobotCommands::getCoralLevel);
         }
+        return mScoreCoral;
+    }
+
+    private static CoralLevel getCoralLevel() {
+        if (Superstructure.getInstance().getElevatorState() == ElevatorSubsystem.State.kCoralL4) {
+            return CoralLevel.kL4;
+        } else if (Superstructure.getInstance().has(Superstructure.kElevatorL3)) {
+            return CoralLevel.kL3;
+        } else if (OperatorXbox.getInstance().controller.getHID().getXButton()) {
+            return CoralLevel.kL2;
+        }
+        return CoralLevel.kL1;
     }
 
     public static Command coralPrime(RushinatorPivot.State armState, ElevatorSubsystem.State eleState) {
@@ -107,91 +122,41 @@ public class RobotCommands {
 
     /* Auto Scorring L3 */
     public static Command scoreCoralAutoL3RightWrist(){
+        // Timeouts are the old fixed waits, plus the score dwell going in. The joints normally
+        // settle well before them
         return new SequentialCommandGroup(
-            new ParallelRaceGroup(
-                new SetElevatorState(ElevatorSubsystem.State.kCoralScoreL3),
-                new SetArmState(RushinatorPivot.State.kScoreL3),
-                new SetWristState(RushinatorWrist.State.kScoreL3RightWrist),
-                new WaitCommand(0.4)
-            ),
-            new ParallelRaceGroup(
-                new SetElevatorState(ElevatorSubsystem.State.kZero),
-                new SequentialCommandGroup(
-                    new WaitCommand(0.15),
-                    new ParallelCommandGroup(
-                        new SetArmState(RushinatorPivot.State.kStowTravel),
-                        new SetWristState(RushinatorWrist.State.kTravelRight)
-                    )
-                ),
-                new WaitCommand(0.7)
-            )
+            new SetSuperstructureState(ElevatorSubsystem.State.kCoralScoreL3, RushinatorPivot.State.kScoreL3, RushinatorWrist.State.kScoreL3RightWrist)
+                .withTimeout(0.6),
+            new SetSuperstructureState(ElevatorSubsystem.State.kZero, RushinatorPivot.State.kStowTravel, RushinatorWrist.State.kTravelRight)
+                .withTimeout(0.7)
         );
     }
 
     public static Command scoreCoralAutoL3LeftWrist(){
         return new SequentialCommandGroup(
-            new ParallelRaceGroup(
-                new SetElevatorState(ElevatorSubsystem.State.kCoralScoreL3),
-                new SetArmState(RushinatorPivot.State.kScoreL3),
-                new SetWristState(RushinatorWrist.State.kScoreL3LeftWrist),
-                new WaitCommand(0.4)
-            ),
-            new ParallelRaceGroup(
-                new SetElevatorState(ElevatorSubsystem.State.kZero),
-                new SequentialCommandGroup(
-                    new WaitCommand(0.15),
-                    new ParallelCommandGroup(
-                        new SetArmState(RushinatorPivot.State.kStowTravel),
-                        new SetWristState(RushinatorWrist.State.kTravelLeft)
-                    )
-                ),
-                new WaitCommand(0.7)
-            )
+            new SetSuperstructureState(ElevatorSubsystem.State.kCoralScoreL3, RushinatorPivot.State.kScoreL3, RushinatorWrist.State.kScoreL3LeftWrist)
+                .withTimeout(0.6),
+            new SetSuperstructureState(ElevatorSubsystem.State.kZero, RushinatorPivot.State.kStowTravel, RushinatorWrist.State.kTravelLeft)
+                .withTimeout(0.7)
         );
     }
 
     /* Auto Scoring L4 */
     public static Command scoreCoralAutoL4RightWrist(){
         return new SequentialCommandGroup(
-            new ParallelRaceGroup(
-                new SetElevatorState(ElevatorSubsystem.State.kCoralScoreL4),
-                new SetArmState(RushinatorPivot.State.kScoreL4),
-                new SetWristState(RushinatorWrist.State.kScoreL4RightWrist),
-                new WaitCommand(0.4)
-            ),
-            new ParallelRaceGroup(
-                new SetElevatorState(ElevatorSubsystem.State.kZero),
-                new SequentialCommandGroup(
-                    new WaitCommand(0.15),
-                    new ParallelCommandGroup(
-                        new SetArmState(RushinatorPivot.State.kStowTravel),
-                        new SetWristState(RushinatorWrist.State.kTravelRight)
-                    )
-                ),
-                new WaitCommand(0.7)
-            )
+            new SetSuperstructureState(ElevatorSubsystem.State.kCoralScoreL4, RushinatorPivot.State.kScoreL4, RushinatorWrist.State.kScoreL4RightWrist)
+                .withTimeout(0.6),
+            new SetSuperstructureState(ElevatorSubsystem.State.kZero, RushinatorPivot.State.kStowTravel, RushinatorWrist.State.kTravelRight)
+                .withTimeout(0.7)
         );
     }
 
     public static Command scoreCoralAutoL4LeftWrist(){
         return new SequentialCommandGroup(
-            new ParallelRaceGroup(
-                new SetElevatorState(ElevatorSubsystem.State.kCoralScoreL4),
-                new SetArmState(RushinatorPivot.State.kScoreL4),
-                new SetWristState(RushinatorWrist.State.kScoreL4LeftWrist),
-                new WaitCommand(0.4)
-            ),
-            new ParallelRaceGroup(
-                new SetElevatorState(ElevatorSubsystem.State.kZero),
-                new SequentialCommandGroup(
-                    new WaitCommand(0.15),
-                    new ParallelCommandGroup(
-                        new SetArmState(RushinatorPivot.State.kStowTravel),
-                        new SetWristState(RushinatorWrist.State.kTravelLeft)
-                    )
-                ),
-                new WaitCommand(0.7)
-            )
+            new SetSuperstructureState(ElevatorSubsystem.State.kCoralScoreL4, RushinatorPivot.State.kScoreL4, RushinatorWrist.State.kScoreL4LeftWrist)
+                .withTimeout(0.6),
+            new SetSuperstructureState(ElevatorSubsystem.State.kZero, RushinatorPivot.State.kStowTravel, RushinatorWrist.State.kTravelLeft)
+                .withTimeout(0.7)
         );
     }
 
@@ -208,23 +173,10 @@ public class RobotCommands {
     
     public static Command scoreCoralAutonL4(){
         return new SequentialCommandGroup(
-            new ParallelRaceGroup(
-                new SetElevatorState(ElevatorSubsystem.State.kCoralScoreL4),
-                new SetArmState(RushinatorPivot.State.kScoreL4),
-                new SetWristState(RushinatorWrist.State.kScoreL4RightWrist),
-                new WaitCommand(0.4)
-            ),
-            new ParallelRaceGroup(
-                new SetElevatorState(ElevatorSubsystem.State.kZero),
-                new SequentialCommandGroup(
-                    new WaitCommand(0.15),
-                    new ParallelCommandGroup(
-                        new SetArmState(RushinatorPivot.State.kStowTravel),
-                        new SetWristState(RushinatorWrist.State.kTravelRight)
-                    )
-                ),
-                new WaitCommand(0.7)
-            )
+            new SetSuperstructureState(ElevatorSubsystem.State.kCoralScoreL4, RushinatorPivot.State.kScoreL4, RushinatorWrist.State.kScoreL4RightWrist)
+                .withTimeout(0.6),
+            new SetSuperstructureState(ElevatorSubsystem.State.kZero, RushinatorPivot.State.kStowTravel, RushinatorWrist.State.kTravelRight)
+                .withTimeout(0.7)
         );
     }
 
@@ -234,7 +186,7 @@ public class RobotCommands {
                 new SetElevatorState(ElevatorSubsystem.State.kCoralL3),
                 new SetArmState(RushinatorPivot.State.kStowTravel),
                 new SetWristState(RushinatorWrist.State.kTravelRight),
-                new WaitUntilCommand(() -> ElevatorSubsystem.getInstance().mPPIDController.atGoal())
+                new WaitUntilCommand(() -> ElevatorSubsystem.getInstance().atGoal())
             ),
             new ParallelRaceGroup(
                 new SetElevatorState(ElevatorSubsystem.State.kCoralL3),
@@ -244,13 +196,13 @@ public class RobotCommands {
             ),
             new ParallelRaceGroup(
                 new ElevatorSubsystem.applyJog(ElevatorSubsystem.getInstance().getPosition() - 3.0),
-                new WaitUntilCommand(() -> ElevatorSubsystem.getInstance().mPPIDController.atGoal())
+                new WaitUntilCommand(() -> ElevatorSubsystem.getInstance().atGoal())
             ),
             new ParallelRaceGroup(
                 new SetArmState(RushinatorPivot.State.kStowTravel),
                 new SetWristState(RushinatorWrist.State.kTravelRight),
                 new SetElevatorState(ElevatorSubsystem.State.kZero),
-                new WaitUntilCommand(() -> ElevatorSubsystem.getInstance().mPPIDController.atGoal())
+                new WaitUntilCommand(() -> ElevatorSubsystem.getInstance().atGoal())
             )
         );
     }
@@ -263,7 +215,7 @@ public class RobotCommands {
                 new SetElevatorState(ElevatorSubsystem.State.kZero),
                 new SetArmState(RushinatorPivot.State.kStowTravel),
                 new SetWristState(RushinatorWrist.State.kTravelRight),
-                new WaitUntilCommand(() -> RushinatorPivot.getInstance().mPPIDController.atGoal())
+                new WaitUntilCommand(() -> RushinatorPivot.getInstance().atGoal())
             ),
             new ParallelRaceGroup(
                 new SetElevatorState(ElevatorSubsystem.State.kZero),
@@ -276,7 +228,7 @@ public class RobotCommands {
                 new SetArmState(RushinatorPivot.State.kStowTravel),
                 new SetWristState(RushinatorWrist.State.kTravelRight),
                 new SetElevatorState(ElevatorSubsystem.State.kZero),
-                new WaitUntilCommand(() -> ElevatorSubsystem.getInstance().mPPIDController.atGoal())
+                new WaitUntilCommand(() -> ElevatorSubsystem.getInstance().atGoal())
             )
         );
     }
@@ -305,27 +257,7 @@ public class RobotCommands {
     }
 
     public static Command toggleWristState() {
-        System.out.println("Last State in Toggle Wrist" + RushinatorWrist.kLastState.name());
-        if(RushinatorWrist.kLastState == State.kScoreLeftWrist) {
-            System.out.println("First If");
-            return new SetWristState(RushinatorWrist.State.kScoreRightWrist);
-        }
-        else if(RushinatorWrist.kLastState == State.kScoreRightWrist) {
-            System.out.println("2nd If");
-            return new SetWristState(RushinatorWrist.State.kScoreLeftWrist);
-        }
-        else if(RushinatorWrist.kLastState == State.kTravelLeft) {
-            System.out.println("3rd If");
-            return new SetWristState(RushinatorWrist.State.kTravelRight);
-        }
-        else if(RushinatorWrist.kLastState == State.kTravelRight) {
-            System.out.println("Fourth If");
-            return new SetWristState(RushinatorWrist.State.kTravelLeft);
-        }
-        else {
-            System.out.println("Else");
-            return new SetWristState(RushinatorWrist.kLastState);
-        }
+        return new SetWristState(Superstructure.getInstance().getWristToggleState());
         // if(RushinatorPivot.kLastState == RushinatorPivot.State.kScore) {
         //     RushinatorWrist.State toggledWristState = (RushinatorWrist.kLastState == State.kScoreLeftWrist) ? State.kScoreRightWrist : State.kScoreLeftWrist;
         //     return new SetWristState(toggledWristState);
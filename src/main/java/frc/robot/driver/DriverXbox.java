@@ -36,9 +36,9 @@ import frc.robot.rushinator.commands.SetRollersVoltage;
 import frc.robot.vision.LineupMaster;
 import frc.robot.vision.PoseEstimatorSubsystem;
 import frc.robot.vision.VisionConfig;
-import frc.robot.vision.VisionConfig.HPStation;
 import frc.robot.vision.commands.AutoAlign;
 import frc.robot.vision.commands.AutoAlignHP;
+import frc.robot.superstructure.Superstructure;
 
 public class DriverXbox extends XboxGamepad {
     private static class Settings {
@@ -48,6 +48,8 @@ public class DriverXbox extends XboxGamepad {
         static final double kTranslationExpVal = 4.0;
         static final double kRotationExpVal = 1.0;
         static final double kDeadzone = 0.01;
+        // Sampled once at startup, the drive default command maps the sticks every loop
+        static final int kCurveSamples = 1025;
     }
 
     private static DriverXbox mInstance;
@@ -67,6 +69,8 @@ public class DriverXbox extends XboxGamepad {
 
         translationStickCurve = new ExpCurve(DriverXbox.Settings.kTranslationExpVal, 0, 1, DriverXbox.Settings.kDeadzone);
         rotationStickCurve = new ExpCurve(DriverXbox.Settings.kRotationExpVal, 0, 1, DriverXbox.Settings.kDeadzone);
+        translationStickCurve.compile(DriverXbox.Settings.kCurveSamples);
+        rotationStickCurve.compile(DriverXbox.Settings.kCurveSamples);
     }
 
     public static DriverXbox getInstance() {
@@ -88,15 +92,7 @@ public class DriverXbox extends XboxGamepad {
         controller.y().and(() -> OperatorXbox.getInstance().controller.a().getAsBoolean()).whileTrue(new ConditionalCommand(
             RobotCommands.coralPrimeShoot(RushinatorPivot.State.kScoreL1, RushinatorWrist.State.kScoreL1Mid), 
             RobotCommands.coralPrimeShoot(RushinatorPivot.State.kScoreL1, RushinatorWrist.State.kScoreL1Mid), 
-            () -> RushinatorWrist.kLastState == RushinatorWrist.State.kTravelRight || 
-            RushinatorWrist.kLastState == RushinatorWrist.State.kScoreRightWrist || 
-            RushinatorWrist.kLastState == RushinatorWrist.State.kScoreL1Mid || 
-            RushinatorWrist.kLastState == RushinatorWrist.State.kGroundMid || 
-            RushinatorWrist.kLastState == RushinatorWrist.State.kScoreL4RightWrist || 
-            RushinatorWrist.kLastState == RushinatorWrist.State.kScoreL3RightWrist || 
-            RushinatorWrist.kLastState == RushinatorWrist.State.kScoreL2RightWrist || 
-            RushinatorWrist.kLastState == RushinatorWrist.State.kTravelL4Right ||
-            RushinatorWrist.kLastState == RushinatorWrist.State.kHPMid)
+            () -> Superstructure.getInstance().has(Superstructure.kWristRight))
         );
         controller.y().and(() -> OperatorXbox.getInstance().controller.a().getAsBoolean()).whileTrue(
             new SetRollersVoltage(-1.2)
@@ -105,15 +101,7 @@ public class DriverXbox extends XboxGamepad {
         controller.y().and(() -> OperatorXbox.getInstance().controller.x().getAsBoolean()).whileTrue(new ConditionalCommand(
             RobotCommands.coralPrimeShoot(RushinatorPivot.State.kScoreL2, RushinatorWrist.State.kScoreL2RightWrist), 
             RobotCommands.coralPrimeShoot(RushinatorPivot.State.kScoreL2, RushinatorWrist.State.kScoreL2LeftWrist), 
-            () -> RushinatorWrist.kLastState == RushinatorWrist.State.kTravelRight || 
-            RushinatorWrist.kLastState == RushinatorWrist.State.kScoreRightWrist || 
-            RushinatorWrist.kLastState == RushinatorWrist.State.kScoreL2RightWrist || 
-            RushinatorWrist.kLastState == RushinatorWrist.State.kScoreL4RightWrist || 
-            RushinatorWrist.kLastState == RushinatorWrist.State.kScoreL3RightWrist || 
-            RushinatorWrist.kLastState == RushinatorWrist.State.kGroundMid || 
-            RushinatorWrist.kLastState == RushinatorWrist.State.kTravelL4Right ||
-            RushinatorWrist.kLastState == RushinatorWrist.State.kScoreL1Mid ||
-            RushinatorWrist.kLastState == RushinatorWrist.State.kHPMid)
+            () -> Superstructure.getInstance().has(Superstructure.kWristRight))
         );
         controller.y().and(() -> OperatorXbox.getInstance().controller.x().getAsBoolean()).whileTrue(
             new SetElevatorState(ElevatorSubsystem.State.kCoralScoreL2)
@@ -128,15 +116,7 @@ public class DriverXbox extends XboxGamepad {
         controller.y().and(() -> OperatorXbox.getInstance().controller.b().getAsBoolean()).whileTrue(new ConditionalCommand(
             RobotCommands.coralPrimeShoot(RushinatorPivot.State.kScoreL3, RushinatorWrist.State.kScoreL3RightWrist), 
             RobotCommands.coralPrimeShoot(RushinatorPivot.State.kScoreL3, RushinatorWrist.State.kScoreL3LeftWrist), 
-            () -> RushinatorWrist.kLastState == RushinatorWrist.State.kTravelRight || 
-            RushinatorWrist.kLastState == RushinatorWrist.State.kScoreRightWrist || 
-            RushinatorWrist.kLastState == RushinatorWrist.State.kScoreL3RightWrist || 
-            RushinatorWrist.kLastState == RushinatorWrist.State.kGroundMid || 
-            RushinatorWrist.kLastState == RushinatorWrist.State.kScoreL4RightWrist || 
-            RushinatorWrist.kLastState == RushinatorWrist.State.kScoreL2RightWrist || 
-            RushinatorWrist.kLastState == RushinatorWrist.State.kTravelL4Right ||
-            RushinatorWrist.kLastState == RushinatorWrist.State.kScoreL1Mid ||
-            RushinatorWrist.kLastState == RushinatorWrist.State.kHPMid)
+            () -> Superstructure.getInstance().has(Superstructure.kWristRight))
         );
         controller.y().and(() -> OperatorXbox.getInstance().controller.b().getAsBoolean()).whileTrue(
             new SetElevatorState(ElevatorSubsystem.State.kCoralScoreL3)
@@ -151,15 +131,7 @@ public class DriverXbox extends XboxGamepad {
         controller.y().and(() -> OperatorXbox.getInstance().controller.y().getAsBoolean()).whileTrue(new ConditionalCommand(
             RobotCommands.coralPrimeShoot(RushinatorPivot.State.kScoreL4, RushinatorWrist.State.kScoreL4RightWrist), 
             RobotCommands.coralPrimeShoot(RushinatorPivot.State.kScoreL4, RushinatorWrist.State.kScoreL4LeftWrist), 
-            () -> RushinatorWrist.kLastState == RushinatorWrist.State.kTravelRight || 
-            RushinatorWrist.kLastState == RushinatorWrist.State.kScoreRightWrist || 
-            RushinatorWrist.kLastState == RushinatorWrist.State.kScoreL4RightWrist || 
-            RushinatorWrist.kLastState == RushinatorWrist.State.kScoreL3RightWrist || 
-            RushinatorWrist.kLastState == RushinatorWrist.State.kScoreL2RightWrist || 
-            RushinatorWrist.kLastState == RushinatorWrist.State.kTravelL4Right ||
-            RushinatorWrist.kLastState == RushinatorWrist.State.kGroundMid || 
-            RushinatorWrist.kLastState == RushinatorWrist.State.kScoreL1Mid ||
-            RushinatorWrist.kLastState == RushinatorWrist.State.kHPMid)
+            () -> Superstructure.getInstance().has(Superstructure.kWristRight))
         );
         controller.y().and(() -> OperatorXbox.getInstance().controller.y().getAsBoolean()).whileTrue(
             new SetElevatorState(ElevatorSubsystem.State.kCoralScoreL4)
@@ -243,45 +215,21 @@ public class DriverXbox extends XboxGamepad {
         controller.povLeft().whileTrue(new ConditionalCommand(
             RobotCommands.coralPrimeAutoScore(RushinatorPivot.State.kStowTravel, RushinatorWrist.State.kTravelRight, ElevatorSubsystem.State.kCoralL4), 
             RobotCommands.coralPrimeAutoScore(RushinatorPivot.State.kStowTravel, RushinatorWrist.State.kTravelLeft, ElevatorSubsystem.State.kCoralL4), 
-            () -> RushinatorWrist.kLastState == RushinatorWrist.State.kTravelRight || 
-            RushinatorWrist.kLastState == RushinatorWrist.State.kScoreRightWrist || 
-            RushinatorWrist.kLastState == RushinatorWrist.State.kScoreL4RightWrist || 
-            RushinatorWrist.kLastState == RushinatorWrist.State.kScoreL3RightWrist || 
-            RushinatorWrist.kLastState == RushinatorWrist.State.kScoreL2RightWrist || 
-            RushinatorWrist.kLastState == RushinatorWrist.State.kTravelL4Right ||
-            RushinatorWrist.kLastState == RushinatorWrist.State.kGroundMid || 
-            RushinatorWrist.kLastState == RushinatorWrist.State.kScoreL1Mid ||
-            RushinatorWrist.kLastState == RushinatorWrist.State.kHPMid)
+            () -> Superstructure.getInstance().has(Superstructure.kWristRight))
         );
 
         controller.povRight().whileTrue(mLineupMaster.directDriveToNearestRightBranch());
         controller.povRight().whileTrue(new ConditionalCommand(
             RobotCommands.coralPrimeAutoScore(RushinatorPivot.State.kStowTravel, RushinatorWrist.State.kTravelRight, ElevatorSubsystem.State.kCoralL4), 
             RobotCommands.coralPrimeAutoScore(RushinatorPivot.State.kStowTravel, RushinatorWrist.State.kTravelLeft, ElevatorSubsystem.State.kCoralL4), 
-            () -> RushinatorWrist.kLastState == RushinatorWrist.State.kTravelRight || 
-            RushinatorWrist.kLastState == RushinatorWrist.State.kScoreRightWrist || 
-            RushinatorWrist.kLastState == RushinatorWrist.State.kScoreL4RightWrist || 
-            RushinatorWrist.kLastState == RushinatorWrist.State.kScoreL3RightWrist || 
-            RushinatorWrist.kLastState == RushinatorWrist.State.kScoreL2RightWrist || 
-            RushinatorWrist.kLastState == RushinatorWrist.State.kTravelL4Right ||
-            RushinatorWrist.kLastState == RushinatorWrist.State.kGroundMid || 
-            RushinatorWrist.kLastState == RushinatorWrist.State.kScoreL1Mid ||
-            RushinatorWrist.kLastState == RushinatorWrist.State.kHPMid)
+            () -> Superstructure.getInstance().has(Superstructure.kWristRight))
         );
 
         /* L4 Scoring */
         controller.a().onTrue(new ConditionalCommand(
             RobotCommands.scoreCoralAutoL4RightWrist(), 
             RobotCommands.scoreCoralAutoL4LeftWrist(), 
-            () -> RushinatorWrist.kLastState == RushinatorWrist.State.kTravelRight || 
-            RushinatorWrist.kLastState == RushinatorWrist.State.kScoreRightWrist || 
-            RushinatorWrist.kLastState == RushinatorWrist.State.kScoreL4RightWrist || 
-            RushinatorWrist.kLastState == RushinatorWrist.State.kScoreL3RightWrist || 
-            RushinatorWrist.kLastState == RushinatorWrist.State.kScoreL2RightWrist || 
-            RushinatorWrist.kLastState == RushinatorWrist.State.kTravelL4Right ||
-            RushinatorWrist.kLastState == RushinatorWrist.State.kGroundMid || 
-            RushinatorWrist.kLastState == RushinatorWrist.State.kScoreL1Mid ||
-            RushinatorWrist.kLastState == RushinatorWrist.State.kHPMid)
+            () -> Superstructure.getInstance().has(Superstructure.kWristRight))
         );
 
         /* L3 Auto Aligning */
@@ -289,49 +237,26 @@ public class DriverXbox extends XboxGamepad {
         controller.povLeft().and(OperatorXbox.getInstance().leftTriggerOnly()).whileTrue(new ConditionalCommand(
             RobotCommands.coralPrimeAutoScore(RushinatorPivot.State.kStowTravel, RushinatorWrist.State.kTravelRight, ElevatorSubsystem.State.kCoralL3), 
             RobotCommands.coralPrimeAutoScore(RushinatorPivot.State.kStowTravel, RushinatorWrist.State.kTravelLeft, ElevatorSubsystem.State.kCoralL3), 
-            () -> RushinatorWrist.kLastState == RushinatorWrist.State.kTravelRight || 
-            RushinatorWrist.kLastState == RushinatorWrist.State.kScoreRightWrist || 
-            RushinatorWrist.kLastState == RushinatorWrist.State.kScoreL4RightWrist || 
-            RushinatorWrist.kLastState == RushinatorWrist.State.kScoreL3RightWrist || 
-            RushinatorWrist.kLastState == RushinatorWrist.State.kScoreL2RightWrist || 
-            RushinatorWrist.kLastState == RushinatorWrist.State.kTravelL4Right ||
-            RushinatorWrist.kLastState == RushinatorWrist.State.kGroundMid || 
-            RushinatorWrist.kLastState == RushinatorWrist.State.kScoreL1Mid ||
-            RushinatorWrist.kLastState == RushinatorWrist.State.kHPMid)
+            () -> Superstructure.getInstance().has(Superstructure.kWristRight))
         );
 
         controller.povRight().and(OperatorXbox.getInstance().leftTriggerOnly()).whileTrue(mLineupMaster.directDriveToNearestRightBranch());
         controller.povRight().and(OperatorXbox.getInstance().leftTriggerOnly()).whileTrue(new ConditionalCommand(
             RobotCommands.coralPrimeAutoScore(RushinatorPivot.State.kStowTravel, RushinatorWrist.State.kTravelRight, ElevatorSubsystem.State.kCoralL3), 
             RobotCommands.coralPrimeAutoScore(RushinatorPivot.State.kStowTravel, RushinatorWrist.State.kTravelLeft, ElevatorSubsystem.State.kCoralL3), 
-            () -> RushinatorWrist.kLastState == RushinatorWrist.State.kTravelRight || 
-            RushinatorWrist.kLastState == RushinatorWrist.State.kScoreRightWrist || 
-            RushinatorWrist.kLastState == RushinatorWrist.State.kScoreL4RightWrist || 
-            RushinatorWrist.kLastState == RushinatorWrist.State.kScoreL3RightWrist || 
-            RushinatorWrist.kLastState == RushinatorWrist.State.kScoreL2RightWrist || 
-            RushinatorWrist.kLastState == RushinatorWrist.State.kTravelL4Right ||
-            RushinatorWrist.kLastState == RushinatorWrist.State.kGroundMid || 
-            RushinatorWrist.kLastState == RushinatorWrist.State.kScoreL1Mid ||
-            RushinatorWrist.kLastState == RushinatorWrist.State.kHPMid)
+            () -> Superstructure.getInstance().has(Superstructure.kWristRight))
         );
 
         /* L3 Scoring */
         controller.a().and(OperatorXbox.getInstance().leftTriggerOnly()).onTrue(new ConditionalCommand(
             RobotCommands.scoreCoralAutoL3RightWrist(), 
             RobotCommands.scoreCoralAutoL3LeftWrist(), 
-            () -> RushinatorWrist.kLastState == RushinatorWrist.State.kTravelRight || 
-            RushinatorWrist.kLastState == RushinatorWrist.State.kScoreRightWrist || 
-            RushinatorWrist.kLastState == RushinatorWrist.State.kScoreL4RightWrist || 
-            RushinatorWrist.kLastState == RushinatorWrist.State.kScoreL3RightWrist || 
-            RushinatorWrist.kLastState == RushinatorWrist.State.kScoreL2RightWrist || 
-            RushinatorWrist.kLastState == RushinatorWrist.State.kTravelL4Right ||
-            RushinatorWrist.kLastState == RushinatorWrist.State.kGroundMid || 
-            RushinatorWrist.kLastState == RushinatorWrist.State.kScoreL1Mid ||
-            RushinatorWrist.kLastState == RushinatorWrist.State.kHPMid)
+            () -> Superstructure.getInstance().has(Superstructure.kWristRight))
         );
 
-        controller.povUp().onTrue(new AutoAlignHP(() -> HPStation.BLU_RIGHT_STATION.AprilTag));
-        controller.povDown().onTrue(new AutoAlignHP(() -> HPStation.BLU_LEFT_STATION.AprilTag));
+        // Either way goes to whichever station is closest, on both alliances
+        controller.povUp().onTrue(new AutoAlignHP(() -> LineupMaster.getClosestHPStation(() -> PoseEstimatorSubsystem.getInstance().getCurrentPose()).AprilTag));
+        controller.povDown().onTrue(new AutoAlignHP(() -> LineupMaster.getClosestHPStation(() -> PoseEstimatorSubsystem.getInstance().getCurrentPose()).AprilTag));
 
         //Align to Reef
         // controller.povLeft().whileTrue(new DriveToPoseCommand(
@@ -475,6 +400,15 @@ public class DriverXbox extends XboxGamepad {
         return new Translation2d(yComponent, xComponent);
     }
 
+    /* Same as getDriveTranslation().getX() without building a Translation2d */
+    public double getDriveTranslationX() {
+        return translationStickCurve.calculate(controller.getLeftY());
+    }
+
+    public double getDriveTranslationY() {
+        return translationStickCurve.calculate(controller.getLeftX());
+    }
+
     public void setDriveRotation(double requestedAngularVel) {
         reqAngularVel = requestedAngularVel;
     }
@@ -42,6 +42,8 @@ import edu.wpi.first.wpilibj2.command.Command;
 import edu.wpi.first.wpilibj2.command.SelectCommand;
 import edu.wpi.first.wpilibj2.command.Subsystem;
 import edu.wpi.first.wpilibj2.command.sysid.SysIdRoutine;
+import frc.crevolib.util.LoopProfiler;
+import frc.crevolib.util.SignalRegistry;
 import frc.crevolib.math.Conversions;
 import frc.robot.RobotContainer;
 import frc.robot.drivetrain.TunerConstants.TunerSwerveDrivetrain;
@@ -55,10 +57,14 @@ import frc.robot.vision.VisionConfig.ReefFace;
  */
 public class CommandSwerveDrivetrain extends TunerSwerveDrivetrain implements Subsystem {
     private static final double kSimLoopPeriod = 0.005; // 5 ms
+    // Odometry signals get their rate from the swerve API, these are the rest of what's kept on the CANivore
+    private static final double kSteerEncoderFrequencyHz = 100.0; // fused into the steer motors
+    private static final double kDiagnosticFrequencyHz = 4.0;
     private Notifier m_simNotifier = null;
     private double m_lastSimTime;
 
     public static CommandSwerveDrivetrain mInstance;
+    private final LoopProfiler.Section mLoopProfile = LoopProfiler.getInstance().addSection("CommandSwerveDrivetrain.periodic()");
 
     public Pigeon2 mGyro = new Pigeon2(TunerConstants.kPigeonId, "Canivore");
 
@@ -170,6 +176,7 @@ public class CommandSwerveDrivetrain extends TunerSwerveDrivetrain implements Su
         if (Utils.isSimulation()) {
             startSimThread();
         }
+        registerSignals();
     }
 
     //Create Object in class
@@ -202,6 +209,7 @@ public class CommandSwerveDrivetrain extends TunerSwerveDrivetrain implements Su
         if (Utils.isSimulation()) {
             startSimThread();
         }
+        registerSignals();
     }
 
     /**
@@ -234,6 +242,26 @@ public class CommandSwerveDrivetrain extends TunerSwerveDrivetrain implements Su
         if (Utils.isSimulation()) {
             startSimThread();
         }
+        registerSignals();
+    }
+
+    /**
+     * Gives the signals the swerve API doesn't manage a rate so the SignalRegistry can
+     * turn everything else off on the CANivore.
+     */
+    private void registerSignals() {
+        for (var module : getModules()) {
+            var driveMotor = module.getDriveMotor();
+            var steerMotor = module.getSteerMotor();
+            var encoder = module.getEncoder();
+            SignalRegistry.getInstance().registerDiagnostics(encoder, kSteerEncoderFrequencyHz,
+                encoder.getPosition(), encoder.getVelocity());
+            SignalRegistry.getInstance().registerDiagnostics(driveMotor, kDiagnosticFrequencyHz,
+                driveMotor.getDeviceTemp(), driveMotor.getSupplyCurrent());
+            SignalRegistry.getInstance().registerDiagnostics(steerMotor, kDiagnosticFrequencyHz,
+                steerMotor.getDeviceTemp(), steerMotor.getSupplyCurrent());
+        }
+        SignalRegistry.getInstance().registerDiagnostics(getPigeon2(), kDiagnosticFrequencyHz);
     }
 
     /**
@@ -271,6 +299,7 @@ public class CommandSwerveDrivetrain extends TunerSwerveDrivetrain implements Su
 
     @Override
     public void periodic() {
+        mLoopProfile.start();
         /*
          * Periodically try to apply the operator perspective.
          * If we haven't applied the operator perspective before, then we should apply it regardless of DS state.
@@ -302,6 +331,7 @@ public class CommandSwerveDrivetrain extends TunerSwerveDrivetrain implements Su
         // field2d.setRobotPose(getState().Pose);
         // SmartDashboard.putNumber("POSE x", getPose().getX());
 
+        mLoopProfile.stop();
     }
     
 
@@ -0,0 +1,34 @@
+package frc.robot.elevator;
+
+import org.littletonrobotics.junction.AutoLog;
+
+/**
+ * Hardware layer of the elevator. The subsystem only talks to the mechanism through
+ * this, so on the robot it's backed by the Talons, in the desktop sim by the same
+ * Talons with a physics model behind them, and in replay by nothing at all (the
+ * inputs come back out of the log).
+ */
+public interface ElevatorIO {
+    @AutoLog
+    public static class ElevatorIOInputs {
+        // Leader (right) motor, rotor rotations
+        public double positionRotations = 0.0;
+        public double velocityRotationsPerSec = 0.0;
+        // Only read with onboard control
+        public double appliedVolts = 0.0;
+        public double referenceSlope = 0.0;
+    }
+
+    /** Reads the latest values into the inputs, called once at the top of periodic() */
+    default void updateInputs(ElevatorIOInputs inputs) {}
+
+    default void setVoltage(double voltage) {}
+
+    /**
+     * Runs Motion Magic on the leader with the follower along for the ride.
+     *
+     * @param position target in rotor rotations
+     * @param slot gain slot, picks the gravity compensation
+     */
+    default void setMotionMagic(double position, int slot) {}
+}
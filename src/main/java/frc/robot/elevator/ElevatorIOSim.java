@@ -0,0 +1,60 @@
+package frc.robot.elevator;
+
+import com.ctre.phoenix6.sim.ChassisReference;
+import com.ctre.phoenix6.sim.TalonFXSimState;
+
+import edu.wpi.first.math.system.plant.DCMotor;
+import edu.wpi.first.wpilibj.simulation.ElevatorSim;
+import frc.crevolib.util.MechanismSimRunner;
+import frc.robot.elevator.ElevatorSubsystem.Settings;
+
+/**
+ * Elevator for the desktop sim. The Talons are the real (simulated) devices, so Motion
+ * Magic and the follower work the same as on the robot, and a WPILib physics model of
+ * the carriage feeds their rotors.
+ */
+public class ElevatorIOSim extends ElevatorIOTalonFX implements MechanismSimRunner.Mechanism {
+    private static final double kRotationsPerMeter = Settings.kSimGearing / (2.0 * Math.PI * Settings.kSimDrumRadius);
+
+    private final ElevatorSim mSim = new ElevatorSim(
+            DCMotor.getKrakenX60(2),
+            Settings.kSimGearing,
+            Settings.kSimCarriageMass,
+            Settings.kSimDrumRadius,
+            0.0,
+            Settings.kSimMaxHeight,
+            true,
+            0.0
+    );
+    private final TalonFXSimState mLeftSimState = mTalonLeft.getSimState();
+    private final TalonFXSimState mRightSimState = mTalonRight.getSimState();
+
+    public ElevatorIOSim() {
+        // The motors face each other, up is clockwise for the right one
+        mLeftSimState.Orientation = ChassisReference.CounterClockwise_Positive;
+        mRightSimState.Orientation = ChassisReference.Clockwise_Positive;
+        MechanismSimRunner.getInstance().register(this);
+    }
+
+    @Override
+    public void simulate(double dtSeconds, double batteryVolts) {
+        mLeftSimState.setSupplyVoltage(batteryVolts);
+        mRightSimState.setSupplyVoltage(batteryVolts);
+
+        // Both motors are on the same gearbox, the model only takes one voltage
+        mSim.setInputVoltage((mLeftSimState.getMotorVoltage() + mRightSimState.getMotorVoltage()) / 2.0);
+        mSim.update(dtSeconds);
+
+        double rotorPosition = mSim.getPositionMeters() * kRotationsPerMeter;
+        double rotorVelocity = mSim.getVelocityMetersPerSecond() * kRotationsPerMeter;
+        mLeftSimState.setRawRotorPosition(rotorPosition);
+        mLeftSimState.setRotorVelocity(rotorVelocity);
+        mRightSimState.setRawRotorPosition(rotorPosition);
+        mRightSimState.setRotorVelocity(rotorVelocity);
+    }
+
+    @Override
+    public double getSupplyCurrentAmps() {
+        return mLeftSimState.getSupplyCurrent() + mRightSimState.getSupplyCurrent();
+    }
+}
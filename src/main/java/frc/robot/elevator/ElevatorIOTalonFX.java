@@ -0,0 +1,110 @@
+package frc.robot.elevator;
+
+import com.ctre.phoenix6.StatusSignal;
+import com.ctre.phoenix6.configs.CurrentLimitsConfigs;
+import com.ctre.phoenix6.configs.MotionMagicConfigs;
+import com.ctre.phoenix6.configs.MotorOutputConfigs;
+import com.ctre.phoenix6.configs.Slot0Configs;
+import com.ctre.phoenix6.configs.Slot1Configs;
+import com.ctre.phoenix6.controls.Follower;
+import com.ctre.phoenix6.controls.MotionMagicVoltage;
+import com.ctre.phoenix6.hardware.TalonFX;
+import com.ctre.phoenix6.signals.GravityTypeValue;
+import com.ctre.phoenix6.signals.InvertedValue;
+import com.ctre.phoenix6.signals.NeutralModeValue;
+
+import edu.wpi.first.units.measure.Angle;
+import edu.wpi.first.units.measure.AngularVelocity;
+import edu.wpi.first.units.measure.Voltage;
+import frc.crevolib.util.SignalRegistry;
+import frc.robot.elevator.ElevatorSubsystem.Settings;
+
+public class ElevatorIOTalonFX implements ElevatorIO {
+    protected final TalonFX mTalonLeft, mTalonRight;
+    // Refreshed once per loop by the SignalRegistry
+    private final StatusSignal<Angle> mPositionSignal;
+    private final StatusSignal<AngularVelocity> mVelocitySignal;
+    // Only refreshed with onboard control
+    private final StatusSignal<Double> mReferenceSlopeSignal;
+    private final StatusSignal<Voltage> mMotorVoltageSignal;
+    private final MotionMagicVoltage mMotionMagicRequest = new MotionMagicVoltage(0.0);
+
+    public ElevatorIOTalonFX() {
+        mTalonLeft = new TalonFX(Settings.kTalonLeftID);
+        mTalonRight = new TalonFX(Settings.kTalonRightID);
+
+        mTalonLeft.getConfigurator().apply(new MotorOutputConfigs()
+                .withInverted(InvertedValue.CounterClockwise_Positive)
+                .withNeutralMode(NeutralModeValue.Brake)
+        );
+        mTalonLeft.getConfigurator().apply(new CurrentLimitsConfigs().withSupplyCurrentLimit(Settings.kCurrentLimit));
+
+        mTalonRight.getConfigurator().apply(new MotorOutputConfigs()
+                .withInverted(InvertedValue.Clockwise_Positive)
+                .withNeutralMode(NeutralModeValue.Brake)
+        );
+        mTalonRight.getConfigurator().apply(new CurrentLimitsConfigs().withSupplyCurrentLimit(Settings.kCurrentLimit));
+        mTalonRight.setPosition(0);
+
+        if (Settings.kUseOnboardControl) {
+            mTalonRight.getConfigurator().apply(new Slot0Configs()
+                    .withGravityType(GravityTypeValue.Elevator_Static)
+                    .withKG(Settings.kGLow).withKS(Settings.kS).withKV(Settings.kV).withKA(Settings.kA)
+                    .withKP(Settings.kP).withKI(Settings.kI).withKD(Settings.kD)
+            );
+            mTalonRight.getConfigurator().apply(new Slot1Configs()
+                    .withGravityType(GravityTypeValue.Elevator_Static)
+                    .withKG(Settings.kGHigh).withKS(Settings.kS).withKV(Settings.kV).withKA(Settings.kA)
+                    .withKP(Settings.kP).withKI(Settings.kI).withKD(Settings.kD)
+            );
+            mTalonRight.getConfigurator().apply(new MotionMagicConfigs()
+                    .withMotionMagicCruiseVelocity(Settings.kMaxVelocity)
+                    .withMotionMagicAcceleration(Settings.kMaxAcceleration)
+            );
+            // The motors face each other, the left one always opposes the right
+            mTalonLeft.setControl(new Follower(Settings.kTalonRightID, true));
+        }
+
+        mPositionSignal = mTalonRight.getPosition();
+        mVelocitySignal = mTalonRight.getVelocity();
+        mReferenceSlopeSignal = mTalonRight.getClosedLoopReferenceSlope();
+        mMotorVoltageSignal = mTalonRight.getMotorVoltage();
+        SignalRegistry.getInstance().register(mTalonRight, Settings.kSignalFrequencyHz, mPositionSignal, mVelocitySignal);
+        if (Settings.kUseOnboardControl) {
+            SignalRegistry.getInstance().register(mTalonRight, Settings.kSignalFrequencyHz, mReferenceSlopeSignal, mMotorVoltageSignal);
+            // The follower drives off the leader's output signals, they can't be optimized out
+            SignalRegistry.getInstance().registerDiagnostics(mTalonRight, Settings.kSignalFrequencyHz,
+                    mTalonRight.getDutyCycle(), mTalonRight.getTorqueCurrent());
+        }
+        SignalRegistry.getInstance().registerDiagnostics(mTalonRight, Settings.kDiagnosticFrequencyHz,
+                mTalonRight.getDeviceTemp(), mTalonRight.getSupplyCurrent());
+        SignalRegistry.getInstance().registerDiagnostics(mTalonLeft, Settings.kDiagnosticFrequencyHz,
+                mTalonLeft.getDeviceTemp(), mTalonLeft.getSupplyCurrent());
+    }
+
+    @Override
+    public void updateInputs(ElevatorIOInputs inputs) {
+        inputs.positionRotations = mPositionSignal.getValueAsDouble();
+        inputs.velocityRotationsPerSec = mVelocitySignal.getValueAsDouble();
+        if (Settings.kUseOnboardControl) {
+            inputs.appliedVolts = mMotorVoltageSignal.getValueAsDouble();
+            inputs.referenceSlope = mReferenceSlopeSignal.getValueAsDouble();
+        }
+    }
+
+    @Override
+    public void setVoltage(double voltage) {
+        // With onboard control the left motor is a follower, writing to it would break that
+        if (!Settings.kUseOnboardControl) {
+            mTalonLeft.setVoltage(voltage);
+        }
+        mTalonRight.setVoltage(voltage);
+    }
+
+    @Override
+    public void setMotionMagic(double position, int slot) {
+        mMotionMagicRequest.Position = position;
+        mMotionMagicRequest.Slot = slot;
+        mTalonRight.setControl(mMotionMagicRequest);
+    }
+}
@@ -1,19 +1,21 @@
 package frc.robot.elevator;
 
-import com.ctre.phoenix6.configs.CurrentLimitsConfigs;
-import com.ctre.phoenix6.configs.MotorOutputConfigs;
-import com.ctre.phoenix6.hardware.TalonFX;
+import org.littletonrobotics.junction.Logger;
+
 import com.ctre.phoenix6.signals.InvertedValue;
-import com.ctre.phoenix6.signals.NeutralModeValue;
 
 import edu.wpi.first.math.controller.ElevatorFeedforward;
 import edu.wpi.first.math.controller.ProfiledPIDController;
 import edu.wpi.first.math.geometry.Rotation2d;
 import edu.wpi.first.math.trajectory.TrapezoidProfile;
 import edu.wpi.first.wpilibj.DigitalInput;
-import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
 import edu.wpi.first.wpilibj2.command.Command;
 import edu.wpi.first.wpilibj2.command.SubsystemBase;
+import frc.crevolib.util.LoopProfiler;
+import frc.robot.Robot;
+import frc.robot.superstructure.Superstructure;
+import frc.robot.telemetry.Telemetry;
+import frc.robot.telemetry.Telemetry.Level;
 
 import java.util.function.Supplier;
 
@@ -50,17 +52,46 @@ public class ElevatorSubsystem extends SubsystemBase {
         static final double kMaxAcceleration = 250.0;
 
         static final double kCrossoverPoint = 17.2939453125;
+
+        // Run the profile, PID and gravity compensation on the Talon with Motion Magic
+        // instead of on the rio. Same gains and constraints, the units line up since
+        // position is in rotor rotations either way.
+        static final boolean kUseOnboardControl = false;
+        static final int kLowSlot = 0;  // below the crossover, kGLow
+        static final int kHighSlot = 1; // above the crossover, kGHigh
+        static final double kPositionTolerance = 0.05; // rotations, same as the ProfiledPIDController default
+
+        // Status signal rates, everything else is turned off by the SignalRegistry
+        static final double kSignalFrequencyHz = 100.0;
+        static final double kDiagnosticFrequencyHz = 4.0;
+
+        // Physics model for the desktop sim, about 4 cm of travel per rotor rotation
+        static final double kSimGearing = 5.0;
+        static final double kSimDrumRadius = 0.0318; // m
+        static final double kSimCarriageMass = 5.0; // kg
+        static final double kSimMaxHeight = 1.6; // m
     }
 
     private static ElevatorSubsystem mInstance;
+    private final LoopProfiler.Section mLoopProfile = LoopProfiler.getInstance().addSection("ElevatorSubsystem.periodic()");
 
-    private TalonFX mTalonLeft, mTalonRight;
+    private final ElevatorIO mIO;
+    private final ElevatorIOInputsAutoLogged mInputs = new ElevatorIOInputsAutoLogged();
+    private double mMotionMagicTarget = 0.0;
     private final ElevatorFeedforward mFFLowController, mFFHighController;
     public final ProfiledPIDController mPPIDController;
     private DigitalInput mLowerLimitSwitch;
 
     private Supplier<Double> mVelocitySupplier;
 
+    // Telemetry
+    private final Telemetry.DoubleEntry mPositionEntry = Telemetry.getInstance().addDouble("Elevator Position", Level.kCompetition);
+    private final Telemetry.DoubleEntry mVelocityEntry = Telemetry.getInstance().addDouble("Elevator Velocity", Level.kDebug);
+    private final Telemetry.DoubleEntry mTargetPositionEntry = Telemetry.getInstance().addDouble("Elevator Target Position", Level.kDebug);
+    private final Telemetry.StringEntry mLastStateEntry = Telemetry.getInstance().addString("KLastState Elevator", Level.kCompetition);
+    private final Telemetry.DoubleEntry mTargetVelocityEntry = Telemetry.getInstance().addDouble("Elevator Target Velocity", Level.kDebug);
+    private final Telemetry.DoubleEntry mVoltageEntry = Telemetry.getInstance().addDouble("Elevator Applied Voltage", Level.kDebug);
+    private final Telemetry.StringEntry mModeEntry = Telemetry.getInstance().addString("Elevator Mode", Level.kDebug, 10);
 
     public enum State {
         kCoralL1(0.0),
@@ -85,24 +116,12 @@ public class ElevatorSubsystem extends SubsystemBase {
         public final double pos;
     }
 
-    public static State kLastState;
-
     private ElevatorSubsystem() {
-        mTalonLeft = new TalonFX(Settings.kTalonLeftID);
-        mTalonRight = new TalonFX(Settings.kTalonRightID);
-
-        mTalonLeft.getConfigurator().apply(new MotorOutputConfigs()
-                .withInverted(InvertedValue.CounterClockwise_Positive)
-                .withNeutralMode(NeutralModeValue.Brake)
-        );
-        mTalonLeft.getConfigurator().apply(new CurrentLimitsConfigs().withSupplyCurrentLimit(Settings.kCurrentLimit));
-
-        mTalonRight.getConfigurator().apply(new MotorOutputConfigs()
-                .withInverted(InvertedValue.Clockwise_Positive)
-                .withNeutralMode(NeutralModeValue.Brake)
-        );
-        mTalonRight.getConfigurator().apply(new CurrentLimitsConfigs().withSupplyCurrentLimit(Settings.kCurrentLimit));
-        mTalonRight.setPosition(0);
+        mIO = switch (Robot.kMode) {
+            case kReal -> new ElevatorIOTalonFX();
+            case kSim -> new ElevatorIOSim();
+            case kReplay -> new ElevatorIO() {};
+        };
 
         // mLowerLimitSwitch = new DigitalInput(Settings.kLowerLimitSwitch);
 
@@ -113,34 +132,40 @@ public class ElevatorSubsystem extends SubsystemBase {
                 Settings.kMaxAcceleration
         ));
 
-        if(kLastState == null) {
-            kLastState = State.kZero;
-        }
-
         mVelocitySupplier = null;
     }
 
     public void setVoltage(double voltage) {
-        mTalonLeft.setVoltage(voltage);
-        mTalonRight.setVoltage(voltage);
+        mIO.setVoltage(voltage);
     }
 
     public void setTargetState(State targetState) {
-        kLastState = targetState;
+        Superstructure.getInstance().setElevatorState(targetState);
         setTargetPosition(targetState.pos);
     }
 
     public void setTargetPosition(double pos) {
         // NOTE: Use radians for target goal to align with re:calc constant units
         mPPIDController.setGoal(pos);
+        mMotionMagicTarget = pos;
+    }
+
+    /**
+     * @return true once the elevator has finished its profile and is at the target position
+     */
+    public boolean atGoal() {
+        if (Settings.kUseOnboardControl) {
+            return Math.abs(getPosition() - mMotionMagicTarget) < Settings.kPositionTolerance;
+        }
+        return mPPIDController.atGoal();
     }
 
     public double getPosition() {
-        return mTalonRight.getPosition().getValueAsDouble();
+        return mInputs.positionRotations;
     }
 
     public double getVelocity() {
-        return mTalonRight.getVelocity().getValueAsDouble();
+        return mInputs.velocityRotationsPerSec;
     }
 
     public void setVelocitySupplier(Supplier<Double> velocitySupplier) {
@@ -162,6 +187,13 @@ public class ElevatorSubsystem extends SubsystemBase {
         return mInstance;
     }
 
+    private double getSetpointVelocity() {
+        if (Settings.kUseOnboardControl) {
+            return mInputs.referenceSlope;
+        }
+        return mPPIDController.getSetpoint().velocity;
+    }
+
     private double getFeedforwardOutput(double targetVelocity) {
         if (getPosition() < Settings.kCrossoverPoint) {
             return mFFLowController.calculate(targetVelocity);
@@ -171,6 +203,10 @@ public class ElevatorSubsystem extends SubsystemBase {
 
     @Override
     public void periodic() {
+        mLoopProfile.start();
+        mIO.updateInputs(mInputs);
+        Logger.processInputs("Elevator", mInputs);
+
         // if (mVelocitySupplier == null) {
         //     voltage = mPPIDController.calculate(getPosition());
         //     targetVelocity = mPPIDController.getSetpoint().velocity;
@@ -185,21 +221,29 @@ public class ElevatorSubsystem extends SubsystemBase {
         // }
 
         double voltage = 0.0;
-        voltage = mPPIDController.calculate(getPosition());
-        voltage += getFeedforwardOutput(mPPIDController.getSetpoint().velocity);
-        setVoltage(voltage);
+        if (Settings.kUseOnboardControl) {
+            // The Talon runs the loop at 1 kHz, all that's left here is picking the gravity slot
+            mIO.setMotionMagic(mMotionMagicTarget, getPosition() < Settings.kCrossoverPoint ? Settings.kLowSlot : Settings.kHighSlot);
+            voltage = mInputs.appliedVolts;
+        } else {
+            voltage = mPPIDController.calculate(getPosition());
+            voltage += getFeedforwardOutput(mPPIDController.getSetpoint().velocity);
+            setVoltage(voltage);
+        }
 
         // Telemetry
-        SmartDashboard.putNumber("Elevator Position", getPosition());
-        SmartDashboard.putNumber("Elevator Velocity", getVelocity());
+        mPositionEntry.set(getPosition());
+        mVelocityEntry.set(getVelocity());
         if (mVelocitySupplier != null) {
-            SmartDashboard.putNumber("Elevator Target Position", mPPIDController.getSetpoint().position);
+            mTargetPositionEntry.set(mPPIDController.getSetpoint().position);
         }
 
-        SmartDashboard.putString("KLastState Elevator", kLastState.name());
-        SmartDashboard.putNumber("Elevator Target Velocity", mPPIDController.getSetpoint().velocity);
-        SmartDashboard.putNumber("Elevator Applied Voltage", voltage);
-        SmartDashboard.putString("Elevator Mode", (mVelocitySupplier == null) ? "PPID" : "Manual");
+        mLastStateEntry.set(Superstructure.getInstance().getElevatorState().name());
+        mTargetVelocityEntry.set(getSetpointVelocity());
+        mVoltageEntry.set(voltage);
+        Logger.recordOutput("Elevator/Voltage", voltage);
+        mModeEntry.set((mVelocitySupplier != null) ? "Manual" : Settings.kUseOnboardControl ? "Motion Magic" : "PPID");
+        mLoopProfile.stop();
     }
 
     public static class DefaultCommand extends Command {
@@ -1,12 +1,11 @@
 package frc.robot.indexer;
-import com.ctre.phoenix6.StatusSignal;
-import com.ctre.phoenix6.configs.MotorOutputConfigs;
-import com.ctre.phoenix6.hardware.TalonFX;
-import com.ctre.phoenix6.signals.InvertedValue;
+import org.littletonrobotics.junction.Logger;
 
-import edu.wpi.first.units.measure.Current;
-import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
 import edu.wpi.first.wpilibj2.command.SubsystemBase;
+import frc.crevolib.util.LoopProfiler;
+import frc.robot.Robot;
+import frc.robot.telemetry.Telemetry;
+import frc.robot.telemetry.Telemetry.Level;
 
 public class Indexer extends SubsystemBase{
   public static class Settings {
@@ -14,20 +13,31 @@ public class Indexer extends SubsystemBase{
       static final double kMaxVoltage = 12.0;
       static final int kCurrentLimit = 200;
       static final int kCurrentThreshold = 100;
+
+      // Status signal rates, everything else is turned off by the SignalRegistry
+      static final double kSignalFrequencyHz = 50.0;
+      static final double kDiagnosticFrequencyHz = 4.0;
+
+      // Physics model for the desktop sim
+      static final double kSimGearing = 3.0;
+      static final double kSimMOI = 0.001; // kg * m^2
   }
 
   private static Indexer mInstance;
-  private TalonFX mKraken;
-  
-  public Indexer() {
-    mKraken = new TalonFX(Settings.kTalonID);
-    
-    var talonFXConfigurator = mKraken.getConfigurator();
-    var motorConfigs = new MotorOutputConfigs();
+  private final LoopProfiler.Section mLoopProfile = LoopProfiler.getInstance().addSection("Indexer.periodic()");
 
-    motorConfigs.Inverted = InvertedValue.CounterClockwise_Positive;
-    talonFXConfigurator.apply(motorConfigs);
+  private final IndexerIO mIO;
+  private final IndexerIOInputsAutoLogged mInputs = new IndexerIOInputsAutoLogged();
 
+  // Telemetry
+  private final Telemetry.BooleanEntry mHasAlgaeEntry = Telemetry.getInstance().addBoolean("Indexer Has Algae", Level.kCompetition);
+  
+  public Indexer() {
+    mIO = switch (Robot.kMode) {
+      case kReal -> new IndexerIOTalonFX();
+      case kSim -> new IndexerIOSim();
+      case kReplay -> new IndexerIO() {};
+    };
   }
 
   public static Indexer getInstance() {
@@ -38,16 +48,21 @@ public class Indexer extends SubsystemBase{
   }
 
   public void setOutput(double percentOut) {
-      mKraken.setVoltage(percentOut * Settings.kMaxVoltage);
+      mIO.setVoltage(percentOut * Settings.kMaxVoltage);
   }
 
   public Boolean hasAlgae() {
     //needs testing
-    return (mKraken.getStatorCurrent().getValueAsDouble() > Settings.kCurrentThreshold);
+    return (mInputs.statorCurrentAmps > Settings.kCurrentThreshold);
   }
 
  @Override
  public void periodic() {
-  SmartDashboard.putBoolean("Indexer Has Algae", hasAlgae());
+  mLoopProfile.start();
+  mIO.updateInputs(mInputs);
+  Logger.processInputs("Indexer", mInputs);
+
+  mHasAlgaeEntry.set(hasAlgae());
+  mLoopProfile.stop();
  }
 }
@@ -0,0 +1,17 @@
+package frc.robot.indexer;
+
+import org.littletonrobotics.junction.AutoLog;
+
+/**
+ * Hardware layer of the indexer, see {@link frc.robot.elevator.ElevatorIO}.
+ */
+public interface IndexerIO {
+  @AutoLog
+  public static class IndexerIOInputs {
+    public double statorCurrentAmps = 0.0;
+  }
+
+  default void updateInputs(IndexerIOInputs inputs) {}
+
+  default void setVoltage(double voltage) {}
+}
@@ -0,0 +1,40 @@
+package frc.robot.indexer;
+
+import com.ctre.phoenix6.sim.TalonFXSimState;
+
+import edu.wpi.first.math.system.plant.DCMotor;
+import edu.wpi.first.math.system.plant.LinearSystemId;
+import edu.wpi.first.wpilibj.simulation.DCMotorSim;
+import frc.crevolib.util.MechanismSimRunner;
+import frc.robot.indexer.Indexer.Settings;
+
+/**
+ * Indexer for the desktop sim, a WPILib motor model behind the real (simulated)
+ * Talon. There's never any algae to stall on, so hasAlgae() only trips on the
+ * spin-up current.
+ */
+public class IndexerIOSim extends IndexerIOTalonFX implements MechanismSimRunner.Mechanism {
+  private final DCMotor mMotor = DCMotor.getKrakenX60(1);
+  private final DCMotorSim mSim = new DCMotorSim(
+      LinearSystemId.createDCMotorSystem(mMotor, Settings.kSimMOI, Settings.kSimGearing), mMotor);
+  private final TalonFXSimState mSimState = mKraken.getSimState();
+
+  public IndexerIOSim() {
+    MechanismSimRunner.getInstance().register(this);
+  }
+
+  @Override
+  public void simulate(double dtSeconds, double batteryVolts) {
+    mSimState.setSupplyVoltage(batteryVolts);
+    mSim.setInputVoltage(mSimState.getMotorVoltage());
+    mSim.update(dtSeconds);
+
+    mSimState.setRawRotorPosition(mSim.getAngularPositionRotations() * Settings.kSimGearing);
+    mSimState.setRotorVelocity(mSim.getAngularVelocityRPM() / 60.0 * Settings.kSimGearing);
+  }
+
+  @Override
+  public double getSupplyCurrentAmps() {
+    return mSimState.getSupplyCurrent();
+  }
+}
@@ -0,0 +1,41 @@
+package frc.robot.indexer;
+
+import com.ctre.phoenix6.StatusSignal;
+import com.ctre.phoenix6.configs.MotorOutputConfigs;
+import com.ctre.phoenix6.hardware.TalonFX;
+import com.ctre.phoenix6.signals.InvertedValue;
+
+import edu.wpi.first.units.measure.Current;
+import frc.crevolib.util.SignalRegistry;
+import frc.robot.indexer.Indexer.Settings;
+
+public class IndexerIOTalonFX implements IndexerIO {
+  protected final TalonFX mKraken;
+  // Refreshed once per loop by the SignalRegistry
+  private final StatusSignal<Current> mStatorCurrentSignal;
+
+  public IndexerIOTalonFX() {
+    mKraken = new TalonFX(Settings.kTalonID);
+
+    var talonFXConfigurator = mKraken.getConfigurator();
+    var motorConfigs = new MotorOutputConfigs();
+
+    motorConfigs.Inverted = InvertedValue.CounterClockwise_Positive;
+    talonFXConfigurator.apply(motorConfigs);
+
+    mStatorCurrentSignal = mKraken.getStatorCurrent();
+    SignalRegistry.getInstance().register(mKraken, Settings.kSignalFrequencyHz, mStatorCurrentSignal);
+    SignalRegistry.getInstance().registerDiagnostics(mKraken, Settings.kDiagnosticFrequencyHz,
+        mKraken.getDeviceTemp(), mKraken.getSupplyCurrent());
+  }
+
+  @Override
+  public void updateInputs(IndexerIOInputs inputs) {
+    inputs.statorCurrentAmps = mStatorCurrentSignal.getValueAsDouble();
+  }
+
+  @Override
+  public void setVoltage(double voltage) {
+    mKraken.setVoltage(voltage);
+  }
+}
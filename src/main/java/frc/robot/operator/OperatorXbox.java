@@ -33,6 +33,7 @@ import frc.robot.rushinator.RushinatorWrist;
 import frc.robot.rushinator.commands.SetArmState;
 import frc.robot.rushinator.commands.SetRollersVoltage;
 import frc.robot.rushinator.commands.SetWristState;
+import frc.robot.superstructure.Superstructure;
 
 public class OperatorXbox extends XboxGamepad {
     private static class Settings {
@@ -97,14 +98,14 @@ public class OperatorXbox extends XboxGamepad {
         controller.povLeft().onTrue(new ConditionalCommand(
             new SetWristState(RushinatorWrist.State.kTravelLeft), 
             new SetWristState(RushinatorWrist.State.kTravelL4Left), 
-            () -> RushinatorWrist.kLastState == RushinatorWrist.State.kTravelRight
+            () -> Superstructure.getInstance().getWristState() == RushinatorWrist.State.kTravelRight
             )
         );
 
         controller.povRight().onTrue(new ConditionalCommand(
             new SetWristState(RushinatorWrist.State.kTravelRight), 
             new SetWristState(RushinatorWrist.State.kTravelL4Right), 
-            () -> RushinatorWrist.kLastState == RushinatorWrist.State.kTravelRight
+            () -> Superstructure.getInstance().getWristState() == RushinatorWrist.State.kTravelRight
             )
         );
 
@@ -115,14 +116,7 @@ public class OperatorXbox extends XboxGamepad {
         controller.a().onTrue(new ConditionalCommand(
             new SetWristState(RushinatorWrist.State.kScoreL1Mid), 
             new SetWristState(RushinatorWrist.State.kScoreL1Mid), 
-            () -> RushinatorWrist.kLastState == RushinatorWrist.State.kTravelRight || 
-            RushinatorWrist.kLastState == RushinatorWrist.State.kGroundMid ||
-            RushinatorWrist.kLastState == RushinatorWrist.State.kHPMid || 
-            RushinatorWrist.kLastState == RushinatorWrist.State.kScoreL4RightWrist || 
-            RushinatorWrist.kLastState == RushinatorWrist.State.kScoreL3RightWrist || 
-            RushinatorWrist.kLastState == RushinatorWrist.State.kScoreL2RightWrist || 
-            RushinatorWrist.kLastState == RushinatorWrist.State.kTravelL4Right ||
-            RushinatorWrist.kLastState == RushinatorWrist.State.kScoreL1Mid 
+            () -> Superstructure.getInstance().has(Superstructure.kWristRight) 
             )
         );
 
@@ -133,14 +127,7 @@ public class OperatorXbox extends XboxGamepad {
         controller.x().onTrue(new ConditionalCommand(
             new SetWristState(RushinatorWrist.State.kTravelRight), 
             new SetWristState(RushinatorWrist.State.kTravelLeft), 
-            () -> RushinatorWrist.kLastState == RushinatorWrist.State.kTravelRight ||
-            RushinatorWrist.kLastState == RushinatorWrist.State.kGroundMid ||
-            RushinatorWrist.kLastState == RushinatorWrist.State.kHPMid || 
-            RushinatorWrist.kLastState == RushinatorWrist.State.kScoreL4RightWrist || 
-            RushinatorWrist.kLastState == RushinatorWrist.State.kScoreL3RightWrist ||
-            RushinatorWrist.kLastState == RushinatorWrist.State.kTravelL4Right || 
-            RushinatorWrist.kLastState == RushinatorWrist.State.kScoreL2RightWrist || 
-            RushinatorWrist.kLastState == RushinatorWrist.State.kScoreL1Mid 
+            () -> Superstructure.getInstance().has(Superstructure.kWristRight) 
             )
         );
 
@@ -151,14 +138,7 @@ public class OperatorXbox extends XboxGamepad {
         controller.b().onTrue(new ConditionalCommand(
             new SetWristState(RushinatorWrist.State.kTravelRight), 
             new SetWristState(RushinatorWrist.State.kTravelLeft), 
-            () -> RushinatorWrist.kLastState == RushinatorWrist.State.kTravelRight ||
-            RushinatorWrist.kLastState == RushinatorWrist.State.kGroundMid ||
-            RushinatorWrist.kLastState == RushinatorWrist.State.kHPMid || 
-            RushinatorWrist.kLastState == RushinatorWrist.State.kTravelL4Right ||
-            RushinatorWrist.kLastState == RushinatorWrist.State.kScoreL4RightWrist || 
-            RushinatorWrist.kLastState == RushinatorWrist.State.kScoreL3RightWrist || 
-            RushinatorWrist.kLastState == RushinatorWrist.State.kScoreL2RightWrist || 
-            RushinatorWrist.kLastState == RushinatorWrist.State.kScoreL1Mid
+            () -> Superstructure.getInstance().has(Superstructure.kWristRight)
             )
         );
 
@@ -169,14 +149,7 @@ public class OperatorXbox extends XboxGamepad {
         controller.y().onTrue(new ConditionalCommand(
             new SetWristState(RushinatorWrist.State.kTravelL4Right), 
             new SetWristState(RushinatorWrist.State.kTravelL4Left), 
-            () -> RushinatorWrist.kLastState == RushinatorWrist.State.kTravelRight ||
-            RushinatorWrist.kLastState == RushinatorWrist.State.kTravelL4Right ||
-            RushinatorWrist.kLastState == RushinatorWrist.State.kScoreL4RightWrist || 
-            RushinatorWrist.kLastState == RushinatorWrist.State.kScoreL3RightWrist || 
-            RushinatorWrist.kLastState == RushinatorWrist.State.kScoreL2RightWrist || 
-            RushinatorWrist.kLastState == RushinatorWrist.State.kScoreL1Mid ||
-            RushinatorWrist.kLastState == RushinatorWrist.State.kGroundMid ||
-            RushinatorWrist.kLastState == RushinatorWrist.State.kHPMid
+            () -> Superstructure.getInstance().has(Superstructure.kWristRight)
             )
         );
 
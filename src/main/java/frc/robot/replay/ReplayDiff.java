@@ -0,0 +1,225 @@
+package frc.robot.replay;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.littletonrobotics.junction.LogFileUtil;
+
+import edu.wpi.first.util.datalog.DataLogReader;
+import edu.wpi.first.util.datalog.DataLogRecord;
+
+/**
+ * Compares a replayed log against the log it was replayed from, run with
+ * ./gradlew replayDiff -PreplayLog=path/to/log.wpilog after replaying that log.
+ *
+ * Every mechanism voltage and fused pose the robot recorded (RealOutputs/...) is
+ * matched by timestamp to what the replay recorded for the same key
+ * (ReplayOutputs/...), and the worst difference per key is reported. Also summarizes
+ * the per-loop cost the replay logged through {@link ReplayStats}. Exits non-zero if any
+ * output is off by more than the tolerance or the loop cost is over budget, so it can
+ * gate a build.
+ *
+ * The mechanisms and the pose estimator are replayed from their logged inputs. The
+ * drivetrain itself still runs on its sim in replay, nothing should read it directly.
+ * That means vision fusion is only replayed in the pose estimator's kRioLoop mode,
+ * which records PoseEstimator/FusedPose. In kDrivetrainOdometry mode the drivetrain
+ * fuses vision and PoseEstimator/Pose is just its logged odometry pose played back,
+ * so it isn't compared.
+ */
+public final class ReplayDiff {
+    public static class Settings {
+        static final String kRealPrefix = "RealOutputs/";
+        static final String kReplayPrefix = "ReplayOutputs/";
+        static final double kTolerance = 1e-6;
+        static final String kLoopCPUKey = "Replay/LoopCPUMs";
+        static final String kLoopAllocatedKey = "Replay/LoopAllocatedBytes";
+        // Outputs compared between the logs, everything else (AdvantageKit's own
+        // LoggedRobot/ and Logger/ timing, GC/, Replay/) measures the run itself
+        static final String[] kComparedSuffixes = {"/Voltage"};
+        static final String[] kComparedPrefixes = {"PoseEstimator/FusedPose/"};
+    }
+
+    /** Outcome of comparing a replay against its original log. */
+    public static class Result {
+        /** Keys compared, sorted. */
+        public final List<String> comparedKeys = new ArrayList<>();
+        /** Compared keys that are missing from the replay or off by more than the tolerance. */
+        public final List<String> mismatchedKeys = new ArrayList<>();
+        /** 95th percentile of the replay's CPU time per loop, NaN if it wasn't logged. */
+        public double p95LoopMs = Double.NaN;
+        public boolean overBudget = false;
+
+        public boolean passed() {
+            return !comparedKeys.isEmpty() && mismatchedKeys.isEmpty() && !overBudget;
+        }
+    }
+
+    private ReplayDiff() {}
+
+    /**
+     * @param args original log path, then optionally a p95 CPU budget in ms/loop
+     */
+    public static void main(String... args) throws IOException {
+        if (args.length < 1 || args[0].isEmpty()) {
+            System.err.println("Usage: ReplayDiff <original.wpilog> [max p95 ms/loop], or -PreplayLog=<original.wpilog> from gradle");
+            System.exit(2);
+        }
+        String originalPath = args[0];
+        String replayPath = LogFileUtil.addPathSuffix(originalPath, "_sim");
+        double maxP95Ms = args.length > 1 ? Double.parseDouble(args[1]) : Double.POSITIVE_INFINITY;
+
+        var result = compare(originalPath, replayPath, maxP95Ms);
+        System.out.println(result.passed() ? "[ReplayDiff] PASSED" : "[ReplayDiff] FAILED");
+        System.exit(result.passed() ? 0 : 1);
+    }
+
+    /**
+     * Compares every allowlisted output of the original log against the replay and
+     * checks the replay's loop cost, printing a line per key.
+     *
+     * @param maxP95Ms budget for the 95th percentile of CPU time per loop
+     */
+    public static Result compare(String originalPath, String replayPath, double maxP95Ms) throws IOException {
+        var original = read(originalPath, Settings.kRealPrefix);
+        var replay = read(replayPath, Settings.kReplayPrefix);
+        var result = new Result();
+
+        System.out.println("[ReplayDiff] " + originalPath + " vs " + replayPath);
+        for (var entry : new TreeMap<>(original).entrySet()) {
+            String key = entry.getKey();
+            if (!isCompared(key)) {
+                continue;
+            }
+            result.comparedKeys.add(key);
+            var replayed = replay.get(key);
+            if (replayed == null) {
+                System.out.println(String.format("  %-40s missing from replay", key));
+                result.mismatchedKeys.add(key);
+                continue;
+            }
+
+            double worst = 0.0;
+            long worstTimestamp = 0;
+            int compared = 0;
+            for (var sample : entry.getValue().entrySet()) {
+                var value = replayed.get(sample.getKey());
+                if (value == null) {
+                    continue;
+                }
+                compared++;
+                double error = Math.abs(value - sample.getValue());
+                if (error > worst) {
+                    worst = error;
+                    worstTimestamp = sample.getKey();
+                }
+            }
+            boolean matches = compared > 0 && worst <= Settings.kTolerance;
+            if (!matches) {
+                result.mismatchedKeys.add(key);
+            }
+            System.out.println(String.format("  %-40s %s, %d samples, max error %.6g at %.3f s",
+                    key, matches ? "OK  " : "DIFF", compared, worst, worstTimestamp * 1e-6));
+        }
+
+        var cpu = replay.get(Settings.kLoopCPUKey);
+        if (cpu != null && !cpu.isEmpty()) {
+            double[] sorted = sorted(cpu);
+            result.p95LoopMs = ReplayStats.percentile(sorted, 0.95);
+            result.overBudget = result.p95LoopMs > maxP95Ms;
+            System.out.println(String.format("[ReplayDiff] CPU ms/loop: p50 %.3f, p95 %.3f, max %.3f (budget %.3f)",
+                    ReplayStats.percentile(sorted, 0.50), result.p95LoopMs, sorted[sorted.length - 1], maxP95Ms));
+        }
+        var allocated = replay.get(Settings.kLoopAllocatedKey);
+        if (allocated != null && !allocated.isEmpty()) {
+            double[] sorted = sorted(allocated);
+            System.out.println(String.format("[ReplayDiff] bytes allocated/loop: p50 %.0f, p95 %.0f, max %.0f",
+                    ReplayStats.percentile(sorted, 0.50), ReplayStats.percentile(sorted, 0.95), sorted[sorted.length - 1]));
+        }
+        return result;
+    }
+
+    private static boolean isCompared(String key) {
+        for (String suffix : Settings.kComparedSuffixes) {
+            if (key.endsWith(suffix)) {
+                return true;
+            }
+        }
+        for (String prefix : Settings.kComparedPrefixes) {
+            if (key.startsWith(prefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return every numeric entry under the prefix (prefix stripped), keyed by timestamp in us
+     */
+    private static Map<String, Map<Long, Double>> read(String path, String prefix) throws IOException {
+        var reader = new DataLogReader(path);
+        if (!reader.isValid()) {
+            throw new IOException("Not a wpilog: " + path);
+        }
+
+        var entries = new HashMap<Integer, DataLogRecord.StartRecordData>();
+        var values = new HashMap<String, Map<Long, Double>>();
+        for (var record : reader) {
+            if (record.isStart()) {
+                var start = record.getStartData();
+                if (start.name.startsWith(prefix)) {
+                    entries.put(start.entry, start);
+                }
+                continue;
+            }
+            if (record.isControl()) {
+                continue;
+            }
+            var start = entries.get(record.getEntry());
+            if (start == null) {
+                continue;
+            }
+            String key = start.name.substring(prefix.length());
+            double value;
+            switch (start.type) {
+                case "double" -> value = record.getDouble();
+                case "float" -> value = record.getFloat();
+                case "int64" -> value = record.getInteger();
+                case "boolean" -> value = record.getBoolean() ? 1.0 : 0.0;
+                case "struct:Pose2d" -> {
+                    // x, y, then the rotation in radians, compared as three numbers
+                    var buffer = ByteBuffer.wrap(record.getRaw()).order(ByteOrder.LITTLE_ENDIAN);
+                    put(values, key + "/X", record.getTimestamp(), buffer.getDouble());
+                    put(values, key + "/Y", record.getTimestamp(), buffer.getDouble());
+                    put(values, key + "/Rotation", record.getTimestamp(), buffer.getDouble());
+                    continue;
+                }
+                default -> {
+                    continue;
+                }
+            }
+            put(values, key, record.getTimestamp(), value);
+        }
+        return values;
+    }
+
+    private static void put(Map<String, Map<Long, Double>> values, String key, long timestamp, double value) {
+        values.computeIfAbsent(key, k -> new HashMap<>()).put(timestamp, value);
+    }
+
+    private static double[] sorted(Map<Long, Double> samples) {
+        var list = new ArrayList<>(samples.values());
+        double[] sorted = new double[list.size()];
+        for (int i = 0; i < sorted.length; i++) {
+            sorted[i] = list.get(i);
+        }
+        Arrays.sort(sorted);
+        return sorted;
+    }
+}
@@ -0,0 +1,107 @@
+package frc.robot.replay;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Arrays;
+
+import org.littletonrobotics.junction.Logger;
+
+import frc.crevolib.util.LoopProfiler;
+
+/**
+ * Per-loop cost of the robot code while replaying a log.
+ *
+ * Replay runs the loop back to back with no timing, so wall time means nothing, but the
+ * CPU time and the bytes allocated by the main thread are the same work the rio does
+ * every 20 ms. The allocations are LoopProfiler's count, only the CPU time is read
+ * here. Both are logged every loop under Replay/ (so they end up in the _sim log
+ * next to the outputs) and summarized on stdout when the replay finishes.
+ */
+public class ReplayStats {
+    private static ReplayStats mInstance;
+
+    public static class Settings {
+        static final int kInitialCapacity = 16384; // a bit over a full match of 20 ms loops
+    }
+
+    private final ThreadMXBean mThreadBean;
+    private final boolean mCpuTimeSupported;
+
+    private double[] mCpuMs = new double[Settings.kInitialCapacity];
+    private double[] mAllocatedBytes = new double[Settings.kInitialCapacity];
+    private int mCount = 0;
+
+    private long mStartCpuNanos;
+    private long mFirstLoopNanos = 0;
+    private long mLastLoopNanos = 0;
+
+    private ReplayStats() {
+        mThreadBean = ManagementFactory.getThreadMXBean();
+        mCpuTimeSupported = mThreadBean.isCurrentThreadCpuTimeSupported();
+        if (mCpuTimeSupported) {
+            mThreadBean.setThreadCpuTimeEnabled(true);
+        }
+    }
+
+    public static ReplayStats getInstance() {
+        if (mInstance == null) {
+            mInstance = new ReplayStats();
+        }
+        return mInstance;
+    }
+
+    /** Call at the top of robotPeriodic(). */
+    public void startLoop() {
+        if (mFirstLoopNanos == 0) {
+            mFirstLoopNanos = System.nanoTime();
+        }
+        mStartCpuNanos = mCpuTimeSupported ? mThreadBean.getCurrentThreadCpuTime() : System.nanoTime();
+    }
+
+    /** Call at the end of robotPeriodic(), after LoopProfiler.endLoop(). */
+    public void endLoop() {
+        long cpuNanos = (mCpuTimeSupported ? mThreadBean.getCurrentThreadCpuTime() : System.nanoTime()) - mStartCpuNanos;
+        long allocatedBytes = LoopProfiler.getInstance().getLoopAllocatedBytes();
+        mLastLoopNanos = System.nanoTime();
+
+        if (mCount == mCpuMs.length) {
+            mCpuMs = Arrays.copyOf(mCpuMs, mCount * 2);
+            mAllocatedBytes = Arrays.copyOf(mAllocatedBytes, mCount * 2);
+        }
+        mCpuMs[mCount] = cpuNanos * 1e-6;
+        mAllocatedBytes[mCount] = allocatedBytes;
+        mCount++;
+
+        Logger.recordOutput("Replay/LoopCPUMs", cpuNanos * 1e-6);
+        Logger.recordOutput("Replay/LoopAllocatedBytes", allocatedBytes);
+    }
+
+    /** Prints the distribution of loop costs, hooked to JVM shutdown so it runs when the log runs out. */
+    public void printSummary() {
+        if (mCount == 0) {
+            return;
+        }
+        System.out.println(String.format("[ReplayStats] %d loops in %.2f s (%.1fx real time)",
+                mCount, (mLastLoopNanos - mFirstLoopNanos) * 1e-9,
+                mCount * 0.02 / Math.max((mLastLoopNanos - mFirstLoopNanos) * 1e-9, 1e-9)));
+        System.out.println("[ReplayStats] " + describe(mCpuMs, "%.3f", mCpuTimeSupported ? "CPU ms/loop" : "wall ms/loop"));
+        if (LoopProfiler.getInstance().isTrackingAllocations()) {
+            System.out.println("[ReplayStats] " + describe(mAllocatedBytes, "%.0f", "bytes allocated/loop"));
+        }
+    }
+
+    private String describe(double[] samples, String format, String label) {
+        double[] sorted = Arrays.copyOf(samples, mCount);
+        Arrays.sort(sorted);
+        double total = 0.0;
+        for (double sample : sorted) {
+            total += sample;
+        }
+        return String.format("%s: mean " + format + ", p50 " + format + ", p95 " + format + ", p99 " + format + ", max " + format,
+                label, total / mCount, percentile(sorted, 0.50), percentile(sorted, 0.95), percentile(sorted, 0.99), sorted[mCount - 1]);
+    }
+
+    static double percentile(double[] sorted, double fraction) {
+        return sorted[(int) (fraction * (sorted.length - 1))];
+    }
+}
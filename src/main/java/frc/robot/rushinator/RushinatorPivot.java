@@ -1,24 +1,21 @@
 package frc.robot.rushinator;
 
-import com.ctre.phoenix6.configs.CANcoderConfiguration;
-import com.ctre.phoenix6.configs.CurrentLimitsConfigs;
-import com.ctre.phoenix6.configs.MagnetSensorConfigs;
-import com.ctre.phoenix6.configs.MotorOutputConfigs;
-import com.ctre.phoenix6.configs.TalonFXConfiguration;
-import com.ctre.phoenix6.hardware.CANcoder;
-import com.ctre.phoenix6.hardware.TalonFX;
-import com.ctre.phoenix6.signals.InvertedValue;
-import com.ctre.phoenix6.signals.NeutralModeValue;
-import com.ctre.phoenix6.signals.SensorDirectionValue;
+import org.littletonrobotics.junction.Logger;
+
+import com.ctre.phoenix6.signals.FeedbackSensorSourceValue;
 
 import edu.wpi.first.math.controller.ArmFeedforward;
 import edu.wpi.first.math.controller.ProfiledPIDController;
 import edu.wpi.first.math.geometry.Rotation2d;
 import edu.wpi.first.math.trajectory.TrapezoidProfile;
-import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
 import edu.wpi.first.wpilibj2.command.Command;
 import edu.wpi.first.wpilibj2.command.SubsystemBase;
+import frc.crevolib.util.LoopProfiler;
+import frc.robot.Robot;
 import frc.robot.algaepivot.AlgaeSubsystem;
+import frc.robot.superstructure.Superstructure;
+import frc.robot.telemetry.Telemetry;
+import frc.robot.telemetry.Telemetry.Level;
 
 public class RushinatorPivot extends SubsystemBase {
     public static class Settings {
@@ -43,6 +40,26 @@ public class RushinatorPivot extends SubsystemBase {
         // TODO: Enable lower min-pos to bring down CoG when elevator is up. We should be able to tuck the shooter into the elevator.
         static final Rotation2d kMinPos = Rotation2d.fromRotations(-0.02128);
         static final Rotation2d kMaxPos = Rotation2d.fromRotations(0.3218);
+
+        // Fuse the CANcoder into the Talon and run Motion Magic Expo on it instead of the
+        // PID + feedforward on the rio. Closed loop units are arm rotations either way.
+        static final boolean kUseOnboardControl = false;
+        static final FeedbackSensorSourceValue kFeedbackSource = FeedbackSensorSourceValue.FusedCANcoder; // RemoteCANcoder without Pro
+        static final double kRotorToSensorRatio = 96.0;
+        // Expo profile follows the characterized motor, the rio profile was effectively off
+        static final double kExpoKV = kV;
+        static final double kExpoKA = kA;
+        static final double kPositionTolerance = 0.01; // rotations
+
+        // Status signal rates, everything else is turned off by the SignalRegistry
+        static final double kSignalFrequencyHz = 100.0;
+        static final double kDiagnosticFrequencyHz = 4.0;
+
+        // Physics model for the desktop sim, the hard stops sit a bit past the floor and tuck poses
+        static final double kSimArmLength = 0.35; // m
+        static final double kSimArmMass = 2.5; // kg
+        static final Rotation2d kSimMinPos = Rotation2d.fromRotations(-0.15);
+        static final Rotation2d kSimMaxPos = Rotation2d.fromRotations(0.35);
     }
 
     public enum State {
@@ -68,26 +85,31 @@ public class RushinatorPivot extends SubsystemBase {
         public final Rotation2d pos;
     }
 
-    private final TalonFX mTalonPivot;
-    private final CANcoder mCANcoderPivot;
+    private final RushinatorPivotIO mIO;
+    private final RushinatorPivotIOInputsAutoLogged mInputs = new RushinatorPivotIOInputsAutoLogged();
+    private double mMotionMagicTarget;
     private final ArmFeedforward mFFController;
     public final ProfiledPIDController mPPIDController;
 
-    public static State kLastState;
+    // Telemetry
+    private final Telemetry.StringEntry mLastStateEntry = Telemetry.getInstance().addString("KLastState Arm Pivot", Level.kCompetition);
+    private final Telemetry.DoubleEntry mPositionEntry = Telemetry.getInstance().addDouble("Coral Pivot Pos (rotations)", Level.kCompetition);
+    private final Telemetry.DoubleEntry mVelocityEntry = Telemetry.getInstance().addDouble("Coral Pivot Vel (Rotations / sec)", Level.kDebug);
+    private final Telemetry.DoubleEntry mPivotAngleEntry = Telemetry.getInstance().addDouble("Coral Arm Pivot * 96 (Roations)", Level.kDebug, 5);
+    private final Telemetry.DoubleEntry mRelativePositionEntry = Telemetry.getInstance().addDouble("Coral Arm Pivot Relative (Rotations)", Level.kDebug, 5);
+    private final Telemetry.DoubleEntry mPIDOutputEntry = Telemetry.getInstance().addDouble("PID Output (Coral Arm)", Level.kDebug);
+    private final Telemetry.DoubleEntry mFFOutputEntry = Telemetry.getInstance().addDouble("FF Output (Coral Arm)", Level.kDebug);
+    private final Telemetry.DoubleEntry mTargetPositionEntry = Telemetry.getInstance().addDouble("Coral Pivot Target Pos", Level.kDebug);
+    private final Telemetry.DoubleEntry mTargetVelocityEntry = Telemetry.getInstance().addDouble("Coral Pivot Target Vel", Level.kDebug);
+    private final Telemetry.DoubleEntry mVoltageEntry = Telemetry.getInstance().addDouble("Coral Pivot Applied Voltage", Level.kDebug);
 
-    private RushinatorPivot() {
-        mTalonPivot = new TalonFX(Settings.kTalonPivotID);
-        mTalonPivot.getConfigurator().apply(new TalonFXConfiguration().withMotorOutput(new MotorOutputConfigs()
-                .withInverted(InvertedValue.Clockwise_Positive)
-                .withNeutralMode(NeutralModeValue.Brake)
-        ));
-        mTalonPivot.getConfigurator().apply(new CurrentLimitsConfigs().withSupplyCurrentLimit(Settings.kCurrentLimit));
 
-        mCANcoderPivot = new CANcoder(Settings.kCANcoderPivotID);
-        mCANcoderPivot.getConfigurator().apply(new CANcoderConfiguration().withMagnetSensor(new MagnetSensorConfigs().
-                withSensorDirection(SensorDirectionValue.CounterClockwise_Positive).
-                withMagnetOffset(Settings.kZeroOffset)
-        ));
+    private RushinatorPivot() {
+        mIO = switch (Robot.kMode) {
+            case kReal -> new RushinatorPivotIOTalonFX();
+            case kSim -> new RushinatorPivotIOSim();
+            case kReplay -> new RushinatorPivotIO() {};
+        };
 
         mFFController = new ArmFeedforward(Settings.kS, Settings.kG, Settings.kV, Settings.kA);
         mPPIDController = new ProfiledPIDController(Settings.kP, Settings.kI, Settings.kD, new TrapezoidProfile.Constraints(
@@ -96,14 +118,15 @@ public class RushinatorPivot extends SubsystemBase {
         ));
         mPPIDController.setTolerance(0.01);
 
-        if (kLastState == null) {
-            kLastState = State.kStowTravel;
-        }
-        mPPIDController.setGoal(kLastState.pos.getRotations());
+        var initialState = Superstructure.getInstance().getPivotState();
+        mPPIDController.setGoal(initialState.pos.getRotations());
+        mMotionMagicTarget = initialState.pos.getRotations();
     }
 
 
     private static RushinatorPivot mInstance;
+    private final LoopProfiler.Section mLoopProfile = LoopProfiler.getInstance().addSection("RushinatorPivot.periodic()");
+
     public static RushinatorPivot getInstance() {
         if (mInstance == null) {
             mInstance = new RushinatorPivot();
@@ -112,62 +135,94 @@ public class RushinatorPivot extends SubsystemBase {
     }
 
     public void setTargetState(State targetState) {
-        kLastState = targetState;
+        Superstructure.getInstance().setPivotState(targetState);
         setTargetPosition(targetState.pos);
     }
 
     public Rotation2d getPivotAngle() {
-        return Rotation2d.fromRotations(mCANcoderPivot.getAbsolutePosition().getValueAsDouble() * 96);
+        return Rotation2d.fromRotations(mInputs.absolutePositionRotations * 96);
     }
 
 
     public void setTargetPosition(Rotation2d targetPosition) {
         // NOTE: Use radians for target goal to align with re:calc constant units
         mPPIDController.setGoal(targetPosition.getRotations());
+        mMotionMagicTarget = targetPosition.getRotations();
+    }
+
+    /**
+     * @return true once the arm is at the target position
+     */
+    public boolean atGoal() {
+        if (Settings.kUseOnboardControl) {
+            return Math.abs(getArmPosition().getRotations() - mMotionMagicTarget) < Settings.kPositionTolerance;
+        }
+        return mPPIDController.atGoal();
     }
 
     public Rotation2d getArmPosition() {
-        var pos = mCANcoderPivot.getAbsolutePosition().getValueAsDouble();
+        var pos = mInputs.absolutePositionRotations;
         return Rotation2d.fromRotations(pos);
     }
 
     public Rotation2d getArmRelativePos() {
-        return Rotation2d.fromRotations(mTalonPivot.getPosition().getValueAsDouble());
+        return Rotation2d.fromRotations(mInputs.relativePositionRotations);
     }
 
     public Rotation2d getArmVelocity() {
-        var vel = mCANcoderPivot.getVelocity().getValueAsDouble();
+        var vel = mInputs.velocityRotationsPerSec;
         return Rotation2d.fromRotations(vel);
     }
 
     @Override
     public void periodic() {
+        mLoopProfile.start();
+        mIO.updateInputs(mInputs);
+        Logger.processInputs("RushinatorPivot", mInputs);
+
+        double armPosition = getArmPosition().getRotations();
+        double pidOutput = 0.0;
+        double ffOutput = 0.0;
         double voltage;
-        if (kLastState != null) {
-            voltage = mPPIDController.calculate(getArmPosition().getRotations());
-            voltage += mFFController.calculate(getArmPosition().getRotations(), mPPIDController.getSetpoint().velocity);
+        if (Settings.kUseOnboardControl) {
+            mIO.setMotionMagic(mMotionMagicTarget);
+            voltage = mInputs.appliedVolts;
         } else {
-            voltage = 0.0;
-        }
+            pidOutput = mPPIDController.calculate(armPosition);
+            ffOutput = mFFController.calculate(armPosition, mPPIDController.getSetpoint().velocity);
+            voltage = pidOutput + ffOutput;
 
-        mTalonPivot.setVoltage(voltage);
+            mIO.setVoltage(voltage);
+        }
 
         // System.out.println("This Periodic is bieng called");
         // Telemetry
-        SmartDashboard.putString("KLastState Arm Pivot", kLastState.name());
+        mLastStateEntry.set(Superstructure.getInstance().getPivotState().name());
 
-        SmartDashboard.putNumber("Coral Pivot Pos (rotations)", getArmPosition().getRotations());
-        SmartDashboard.putNumber("Coral Pivot Vel (Rotations / sec)", getArmVelocity().getRotations());
+        mPositionEntry.set(armPosition);
+        mVelocityEntry.set(getArmVelocity().getRotations());
 
-        SmartDashboard.putNumber("Coral Arm Pivot * 96 (Roations)", getPivotAngle().getRotations());
-        SmartDashboard.putNumber("Coral Arm Pivot Relative (Rotations)", mTalonPivot.getPosition().getValueAsDouble());
-        SmartDashboard.putNumber("PID Output (Coral Arm)", mPPIDController.calculate(getArmPosition().getRadians()));
-        SmartDashboard.putNumber("FF Output (Coral Arm)", mFFController.calculate(getArmPosition().getRadians(), mPPIDController.getSetpoint().velocity));
+        if (mPivotAngleEntry.shouldUpdate()) {
+            mPivotAngleEntry.set(getPivotAngle().getRotations());
+        }
+        if (mRelativePositionEntry.shouldUpdate()) {
+            mRelativePositionEntry.set(mInputs.relativePositionRotations);
+        }
+        // Log the outputs that were applied instead of re-running the controller, which advanced the profile a second time
+        mPIDOutputEntry.set(pidOutput);
+        mFFOutputEntry.set(ffOutput);
 
-        SmartDashboard.putNumber("Coral Pivot Target Pos", mPPIDController.getSetpoint().position);
-        SmartDashboard.putNumber("Coral Pivot Target Vel", mPPIDController.getSetpoint().velocity);
+        if (Settings.kUseOnboardControl) {
+            mTargetPositionEntry.set(mInputs.referenceRotations);
+            mTargetVelocityEntry.set(mInputs.referenceSlope);
+        } else {
+            mTargetPositionEntry.set(mPPIDController.getSetpoint().position);
+            mTargetVelocityEntry.set(mPPIDController.getSetpoint().velocity);
+        }
 
-        SmartDashboard.putNumber("Coral Pivot Applied Voltage", voltage);
+        mVoltageEntry.set(voltage);
+        Logger.recordOutput("RushinatorPivot/Voltage", voltage);
+        mLoopProfile.stop();
     }
 
     public static class DefaultCommand extends Command {
@@ -178,7 +233,7 @@ public class RushinatorPivot extends SubsystemBase {
 
         @Override
         public void execute() {
-            if (kLastState == State.kTuck) {
+            if (Superstructure.getInstance().has(Superstructure.kArmTuck)) {
                 RushinatorPivot.getInstance().setTargetState(State.kTuck);
             } else {
                 RushinatorPivot.getInstance().setTargetState(State.kStowTravel);
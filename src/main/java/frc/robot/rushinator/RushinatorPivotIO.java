@@ -0,0 +1,30 @@
+package frc.robot.rushinator;
+
+import org.littletonrobotics.junction.AutoLog;
+
+/**
+ * Hardware layer of the coral arm pivot, see {@link frc.robot.elevator.ElevatorIO}.
+ */
+public interface RushinatorPivotIO {
+    @AutoLog
+    public static class RushinatorPivotIOInputs {
+        // CANcoder, arm rotations
+        public double absolutePositionRotations = 0.0;
+        public double velocityRotationsPerSec = 0.0;
+        // Talon, rotor rotations
+        public double relativePositionRotations = 0.0;
+        // Only read with onboard control
+        public double appliedVolts = 0.0;
+        public double referenceRotations = 0.0;
+        public double referenceSlope = 0.0;
+    }
+
+    default void updateInputs(RushinatorPivotIOInputs inputs) {}
+
+    default void setVoltage(double voltage) {}
+
+    /**
+     * @param position target in arm rotations
+     */
+    default void setMotionMagic(double position) {}
+}
@@ -0,0 +1,57 @@
+package frc.robot.rushinator;
+
+import com.ctre.phoenix6.sim.CANcoderSimState;
+import com.ctre.phoenix6.sim.ChassisReference;
+import com.ctre.phoenix6.sim.TalonFXSimState;
+
+import edu.wpi.first.math.system.plant.DCMotor;
+import edu.wpi.first.math.util.Units;
+import edu.wpi.first.wpilibj.simulation.SingleJointedArmSim;
+import frc.crevolib.util.MechanismSimRunner;
+import frc.robot.rushinator.RushinatorPivot.Settings;
+
+/**
+ * Coral arm for the desktop sim, a WPILib arm model (0 rotations is horizontal)
+ * behind the real (simulated) Talon and CANcoder.
+ */
+public class RushinatorPivotIOSim extends RushinatorPivotIOTalonFX implements MechanismSimRunner.Mechanism {
+    private final SingleJointedArmSim mSim = new SingleJointedArmSim(
+            DCMotor.getKrakenX60(1),
+            Settings.kRotorToSensorRatio,
+            SingleJointedArmSim.estimateMOI(Settings.kSimArmLength, Settings.kSimArmMass),
+            Settings.kSimArmLength,
+            Settings.kSimMinPos.getRadians(),
+            Settings.kSimMaxPos.getRadians(),
+            true,
+            RushinatorPivot.State.kStowTravel.pos.getRadians()
+    );
+    private final TalonFXSimState mTalonSimState = mTalonPivot.getSimState();
+    private final CANcoderSimState mCANcoderSimState = mCANcoderPivot.getSimState();
+
+    public RushinatorPivotIOSim() {
+        mTalonSimState.Orientation = ChassisReference.Clockwise_Positive;
+        mCANcoderSimState.Orientation = ChassisReference.CounterClockwise_Positive;
+        MechanismSimRunner.getInstance().register(this);
+    }
+
+    @Override
+    public void simulate(double dtSeconds, double batteryVolts) {
+        mTalonSimState.setSupplyVoltage(batteryVolts);
+        mCANcoderSimState.setSupplyVoltage(batteryVolts);
+
+        mSim.setInputVoltage(mTalonSimState.getMotorVoltage());
+        mSim.update(dtSeconds);
+
+        double position = Units.radiansToRotations(mSim.getAngleRads());
+        double velocity = Units.radiansToRotations(mSim.getVelocityRadPerSec());
+        mCANcoderSimState.setRawPosition(position - Settings.kZeroOffset);
+        mCANcoderSimState.setVelocity(velocity);
+        mTalonSimState.setRawRotorPosition(position * Settings.kRotorToSensorRatio);
+        mTalonSimState.setRotorVelocity(velocity * Settings.kRotorToSensorRatio);
+    }
+
+    @Override
+    public double getSupplyCurrentAmps() {
+        return mTalonSimState.getSupplyCurrent();
+    }
+}
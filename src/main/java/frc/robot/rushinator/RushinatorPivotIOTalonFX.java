@@ -0,0 +1,112 @@
+package frc.robot.rushinator;
+
+import com.ctre.phoenix6.StatusSignal;
+import com.ctre.phoenix6.configs.CANcoderConfiguration;
+import com.ctre.phoenix6.configs.CurrentLimitsConfigs;
+import com.ctre.phoenix6.configs.FeedbackConfigs;
+import com.ctre.phoenix6.configs.MagnetSensorConfigs;
+import com.ctre.phoenix6.configs.MotionMagicConfigs;
+import com.ctre.phoenix6.configs.MotorOutputConfigs;
+import com.ctre.phoenix6.configs.Slot0Configs;
+import com.ctre.phoenix6.configs.TalonFXConfiguration;
+import com.ctre.phoenix6.controls.MotionMagicExpoVoltage;
+import com.ctre.phoenix6.hardware.CANcoder;
+import com.ctre.phoenix6.hardware.TalonFX;
+import com.ctre.phoenix6.signals.GravityTypeValue;
+import com.ctre.phoenix6.signals.InvertedValue;
+import com.ctre.phoenix6.signals.NeutralModeValue;
+import com.ctre.phoenix6.signals.SensorDirectionValue;
+
+import edu.wpi.first.units.measure.Angle;
+import edu.wpi.first.units.measure.AngularVelocity;
+import edu.wpi.first.units.measure.Voltage;
+import frc.crevolib.util.SignalRegistry;
+import frc.robot.rushinator.RushinatorPivot.Settings;
+
+public class RushinatorPivotIOTalonFX implements RushinatorPivotIO {
+    protected final TalonFX mTalonPivot;
+    protected final CANcoder mCANcoderPivot;
+    // Refreshed once per loop by the SignalRegistry
+    private final StatusSignal<Angle> mAbsolutePositionSignal;
+    private final StatusSignal<AngularVelocity> mVelocitySignal;
+    private final StatusSignal<Angle> mRelativePositionSignal;
+    // Only refreshed with onboard control
+    private final StatusSignal<Double> mReferenceSignal;
+    private final StatusSignal<Double> mReferenceSlopeSignal;
+    private final StatusSignal<Voltage> mMotorVoltageSignal;
+    private final MotionMagicExpoVoltage mMotionMagicRequest = new MotionMagicExpoVoltage(0.0);
+
+    public RushinatorPivotIOTalonFX() {
+        mTalonPivot = new TalonFX(Settings.kTalonPivotID);
+        mTalonPivot.getConfigurator().apply(new TalonFXConfiguration().withMotorOutput(new MotorOutputConfigs()
+                .withInverted(InvertedValue.Clockwise_Positive)
+                .withNeutralMode(NeutralModeValue.Brake)
+        ));
+        mTalonPivot.getConfigurator().apply(new CurrentLimitsConfigs().withSupplyCurrentLimit(Settings.kCurrentLimit));
+
+        mCANcoderPivot = new CANcoder(Settings.kCANcoderPivotID);
+        mCANcoderPivot.getConfigurator().apply(new CANcoderConfiguration().withMagnetSensor(new MagnetSensorConfigs().
+                withSensorDirection(SensorDirectionValue.CounterClockwise_Positive).
+                withMagnetOffset(Settings.kZeroOffset)
+        ));
+
+        if (Settings.kUseOnboardControl) {
+            mTalonPivot.getConfigurator().apply(new FeedbackConfigs()
+                    .withFeedbackRemoteSensorID(Settings.kCANcoderPivotID)
+                    .withFeedbackSensorSource(Settings.kFeedbackSource)
+                    .withRotorToSensorRatio(Settings.kRotorToSensorRatio)
+                    .withSensorToMechanismRatio(1.0)
+            );
+            // Arm_Cosine takes the position in rotations, the rio feedforward was being handed rotations as radians
+            mTalonPivot.getConfigurator().apply(new Slot0Configs()
+                    .withGravityType(GravityTypeValue.Arm_Cosine)
+                    .withKG(Settings.kG).withKS(Settings.kS).withKV(Settings.kV).withKA(Settings.kA)
+                    .withKP(Settings.kP).withKI(Settings.kI).withKD(Settings.kD)
+            );
+            mTalonPivot.getConfigurator().apply(new MotionMagicConfigs()
+                    .withMotionMagicCruiseVelocity(0.0) // no cap, Expo limits it through kV
+                    .withMotionMagicExpo_kV(Settings.kExpoKV)
+                    .withMotionMagicExpo_kA(Settings.kExpoKA)
+            );
+        }
+
+        mAbsolutePositionSignal = mCANcoderPivot.getAbsolutePosition();
+        mVelocitySignal = mCANcoderPivot.getVelocity();
+        mRelativePositionSignal = mTalonPivot.getPosition();
+        mReferenceSignal = mTalonPivot.getClosedLoopReference();
+        mReferenceSlopeSignal = mTalonPivot.getClosedLoopReferenceSlope();
+        mMotorVoltageSignal = mTalonPivot.getMotorVoltage();
+        SignalRegistry.getInstance().register(mCANcoderPivot, Settings.kSignalFrequencyHz, mAbsolutePositionSignal, mVelocitySignal);
+        SignalRegistry.getInstance().register(mTalonPivot, Settings.kSignalFrequencyHz, mRelativePositionSignal);
+        if (Settings.kUseOnboardControl) {
+            SignalRegistry.getInstance().register(mTalonPivot, Settings.kSignalFrequencyHz, mReferenceSignal, mReferenceSlopeSignal, mMotorVoltageSignal);
+            // The Talon fuses the CANcoder's position signal, not the absolute one
+            SignalRegistry.getInstance().registerDiagnostics(mCANcoderPivot, Settings.kSignalFrequencyHz, mCANcoderPivot.getPosition());
+        }
+        SignalRegistry.getInstance().registerDiagnostics(mTalonPivot, Settings.kDiagnosticFrequencyHz,
+                mTalonPivot.getDeviceTemp(), mTalonPivot.getSupplyCurrent());
+    }
+
+    @Override
+    public void updateInputs(RushinatorPivotIOInputs inputs) {
+        inputs.absolutePositionRotations = mAbsolutePositionSignal.getValueAsDouble();
+        inputs.velocityRotationsPerSec = mVelocitySignal.getValueAsDouble();
+        inputs.relativePositionRotations = mRelativePositionSignal.getValueAsDouble();
+        if (Settings.kUseOnboardControl) {
+            inputs.appliedVolts = mMotorVoltageSignal.getValueAsDouble();
+            inputs.referenceRotations = mReferenceSignal.getValueAsDouble();
+            inputs.referenceSlope = mReferenceSlopeSignal.getValueAsDouble();
+        }
+    }
+
+    @Override
+    public void setVoltage(double voltage) {
+        mTalonPivot.setVoltage(voltage);
+    }
+
+    @Override
+    public void setMotionMagic(double position) {
+        mMotionMagicRequest.Position = position;
+        mTalonPivot.setControl(mMotionMagicRequest);
+    }
+}
@@ -1,14 +1,15 @@
 package frc.robot.rushinator;
 
-import com.ctre.phoenix6.configs.CurrentLimitsConfigs;
-import com.ctre.phoenix6.controls.VelocityVoltage;
-import com.ctre.phoenix6.hardware.TalonFX;
+import org.littletonrobotics.junction.Logger;
 
 import edu.wpi.first.math.geometry.Rotation2d;
-import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
 import edu.wpi.first.wpilibj2.command.Command;
 import edu.wpi.first.wpilibj2.command.SubsystemBase;
+import frc.crevolib.util.LoopProfiler;
+import frc.robot.Robot;
 import frc.robot.algaeflywheel.AlgaeRoller;
+import frc.robot.telemetry.Telemetry;
+import frc.robot.telemetry.Telemetry.Level;
 
 
 public class RushinatorRollers extends SubsystemBase {
@@ -18,14 +19,31 @@ public class RushinatorRollers extends SubsystemBase {
         static final double kCurrentLimit = 25.0;
         // RPS
         static final Rotation2d kMaxAngluarVelocity = Rotation2d.fromRotations(6000 / 60);
+
+        // Status signal rates, everything else is turned off by the SignalRegistry
+        static final double kSignalFrequencyHz = 50.0;
+        static final double kDiagnosticFrequencyHz = 4.0;
+
+        // Physics model for the desktop sim
+        static final double kSimGearing = 1.0;
+        static final double kSimMOI = 0.0005; // kg * m^2
     }
 
     private static RushinatorRollers mInstance;
-    private final TalonFX mTalonWheel;
+    private final LoopProfiler.Section mLoopProfile = LoopProfiler.getInstance().addSection("RushinatorRollers.periodic()");
+
+    private final RushinatorRollersIO mIO;
+    private final RushinatorRollersIOInputsAutoLogged mInputs = new RushinatorRollersIOInputsAutoLogged();
+
+    // Telemetry
+    private final Telemetry.DoubleEntry mVelocityEntry = Telemetry.getInstance().addDouble("Wheel Velocity (RPM)", Level.kDebug);
 
     private RushinatorRollers() {
-        mTalonWheel = new TalonFX(Settings.kTopID);
-        mTalonWheel.getConfigurator().apply(new CurrentLimitsConfigs().withSupplyCurrentLimit(Settings.kCurrentLimit));
+        mIO = switch (Robot.kMode) {
+            case kReal -> new RushinatorRollersIOTalonFX();
+            case kSim -> new RushinatorRollersIOSim();
+            case kReplay -> new RushinatorRollersIO() {};
+        };
     }
 
     public static RushinatorRollers getInstance() {
@@ -36,22 +54,27 @@ public class RushinatorRollers extends SubsystemBase {
     }
 
     public void setFlywheelVoltage(double voltage) {
-        mTalonWheel.setVoltage(voltage);
+        mIO.setVoltage(voltage);
     }
 
     public void setFlywheelVelocity(Rotation2d velocity) {
-        mTalonWheel.setControl(new VelocityVoltage(velocity.getRotations()));
+        mIO.setVelocity(velocity.getRotations());
     }
 
 
     public Rotation2d getWheelVelocity() {
-        return Rotation2d.fromRotations(mTalonWheel.getVelocity().getValueAsDouble());
+        return Rotation2d.fromRotations(mInputs.velocityRotationsPerSec);
     }
 
     @Override
     public void periodic() {
-        SmartDashboard.putNumber("Wheel Velocity (RPM)", getWheelVelocity().getRotations() * 60.0);
+        mLoopProfile.start();
+        mIO.updateInputs(mInputs);
+        Logger.processInputs("RushinatorRollers", mInputs);
+
+        mVelocityEntry.set(mInputs.velocityRotationsPerSec * 60.0);
         
+        mLoopProfile.stop();
     }
 
     public static class DefaultCommand extends Command {
@@ -0,0 +1,22 @@
+package frc.robot.rushinator;
+
+import org.littletonrobotics.junction.AutoLog;
+
+/**
+ * Hardware layer of the coral rollers, see {@link frc.robot.elevator.ElevatorIO}.
+ */
+public interface RushinatorRollersIO {
+    @AutoLog
+    public static class RushinatorRollersIOInputs {
+        public double velocityRotationsPerSec = 0.0;
+    }
+
+    default void updateInputs(RushinatorRollersIOInputs inputs) {}
+
+    default void setVoltage(double voltage) {}
+
+    /**
+     * @param velocity target in rotations per second
+     */
+    default void setVelocity(double velocity) {}
+}
@@ -0,0 +1,47 @@
+package frc.robot.rushinator;
+
+import com.ctre.phoenix6.configs.Slot0Configs;
+import com.ctre.phoenix6.sim.TalonFXSimState;
+
+import edu.wpi.first.math.system.plant.DCMotor;
+import edu.wpi.first.math.system.plant.LinearSystemId;
+import edu.wpi.first.math.util.Units;
+import edu.wpi.first.wpilibj.simulation.FlywheelSim;
+import frc.crevolib.util.MechanismSimRunner;
+import frc.robot.rushinator.RushinatorRollers.Settings;
+
+/**
+ * Coral rollers for the desktop sim, a WPILib flywheel model behind the real
+ * (simulated) Talon.
+ */
+public class RushinatorRollersIOSim extends RushinatorRollersIOTalonFX implements MechanismSimRunner.Mechanism {
+    // The velocity gains only live on the real Talon, the sim one starts out blank
+    private static final double kVelocityKV = Units.rotationsToRadians(1.0) / DCMotor.getKrakenX60(1).KvRadPerSecPerVolt;
+    private static final double kVelocityKP = 0.1;
+
+    private final DCMotor mMotor = DCMotor.getKrakenX60(1);
+    private final FlywheelSim mSim = new FlywheelSim(
+            LinearSystemId.createFlywheelSystem(mMotor, Settings.kSimMOI, Settings.kSimGearing), mMotor);
+    private final TalonFXSimState mSimState = mTalonWheel.getSimState();
+
+    public RushinatorRollersIOSim() {
+        mTalonWheel.getConfigurator().apply(new Slot0Configs().withKV(kVelocityKV).withKP(kVelocityKP));
+        MechanismSimRunner.getInstance().register(this);
+    }
+
+    @Override
+    public void simulate(double dtSeconds, double batteryVolts) {
+        mSimState.setSupplyVoltage(batteryVolts);
+        mSim.setInputVoltage(mSimState.getMotorVoltage());
+        mSim.update(dtSeconds);
+
+        double rotorVelocity = mSim.getAngularVelocityRPM() / 60.0 * Settings.kSimGearing;
+        mSimState.addRotorPosition(rotorVelocity * dtSeconds);
+        mSimState.setRotorVelocity(rotorVelocity);
+    }
+
+    @Override
+    public double getSupplyCurrentAmps() {
+        return mSimState.getSupplyCurrent();
+    }
+}
@@ -0,0 +1,43 @@
+package frc.robot.rushinator;
+
+import com.ctre.phoenix6.StatusSignal;
+import com.ctre.phoenix6.configs.CurrentLimitsConfigs;
+import com.ctre.phoenix6.controls.VelocityVoltage;
+import com.ctre.phoenix6.hardware.TalonFX;
+
+import edu.wpi.first.units.measure.AngularVelocity;
+import frc.crevolib.util.SignalRegistry;
+import frc.robot.rushinator.RushinatorRollers.Settings;
+
+public class RushinatorRollersIOTalonFX implements RushinatorRollersIO {
+    protected final TalonFX mTalonWheel;
+    // Refreshed once per loop by the SignalRegistry
+    private final StatusSignal<AngularVelocity> mVelocitySignal;
+    private final VelocityVoltage mVelocityRequest = new VelocityVoltage(0.0);
+
+    public RushinatorRollersIOTalonFX() {
+        mTalonWheel = new TalonFX(Settings.kTopID);
+        mTalonWheel.getConfigurator().apply(new CurrentLimitsConfigs().withSupplyCurrentLimit(Settings.kCurrentLimit));
+
+        mVelocitySignal = mTalonWheel.getVelocity();
+        SignalRegistry.getInstance().register(mTalonWheel, Settings.kSignalFrequencyHz, mVelocitySignal);
+        SignalRegistry.getInstance().registerDiagnostics(mTalonWheel, Settings.kDiagnosticFrequencyHz,
+                mTalonWheel.getDeviceTemp(), mTalonWheel.getSupplyCurrent());
+    }
+
+    @Override
+    public void updateInputs(RushinatorRollersIOInputs inputs) {
+        inputs.velocityRotationsPerSec = mVelocitySignal.getValueAsDouble();
+    }
+
+    @Override
+    public void setVoltage(double voltage) {
+        mTalonWheel.setVoltage(voltage);
+    }
+
+    @Override
+    public void setVelocity(double velocity) {
+        mVelocityRequest.Velocity = velocity;
+        mTalonWheel.setControl(mVelocityRequest);
+    }
+}
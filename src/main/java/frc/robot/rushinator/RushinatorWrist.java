@@ -2,16 +2,9 @@ package frc.robot.rushinator;
 
 import static edu.wpi.first.units.Units.Rotation;
 
-import com.ctre.phoenix6.configs.CANcoderConfiguration;
-import com.ctre.phoenix6.configs.CurrentLimitsConfigs;
-import com.ctre.phoenix6.configs.MagnetSensorConfigs;
-import com.ctre.phoenix6.configs.MotorOutputConfigs;
-import com.ctre.phoenix6.configs.TalonFXConfiguration;
-import com.ctre.phoenix6.hardware.CANcoder;
-import com.ctre.phoenix6.hardware.TalonFX;
-import com.ctre.phoenix6.signals.InvertedValue;
-import com.ctre.phoenix6.signals.NeutralModeValue;
-import com.ctre.phoenix6.signals.SensorDirectionValue;
+import org.littletonrobotics.junction.Logger;
+
+import com.ctre.phoenix6.signals.FeedbackSensorSourceValue;
 
 import edu.wpi.first.math.controller.ArmFeedforward;
 import edu.wpi.first.math.controller.PIDController;
@@ -19,9 +12,13 @@ import edu.wpi.first.math.controller.ProfiledPIDController;
 import edu.wpi.first.math.controller.SimpleMotorFeedforward;
 import edu.wpi.first.math.geometry.Rotation2d;
 import edu.wpi.first.math.trajectory.TrapezoidProfile;
-import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
 import edu.wpi.first.wpilibj2.command.Command;
 import edu.wpi.first.wpilibj2.command.SubsystemBase;
+import frc.crevolib.util.LoopProfiler;
+import frc.robot.Robot;
+import frc.robot.telemetry.Telemetry;
+import frc.robot.telemetry.Telemetry.Level;
+import frc.robot.superstructure.Superstructure;
 import frc.robot.rushinator.commands.SetWristState;
 
 public class RushinatorWrist extends SubsystemBase {
@@ -44,6 +41,22 @@ public class RushinatorWrist extends SubsystemBase {
 
         public static final double kZeroOffset = 0.505126953125; // rotations
 
+        // Fuse the CANcoder into the Talon and run Motion Magic Expo on it instead of the
+        // PID + feedforward on the rio. Closed loop units are wrist rotations either way.
+        static final boolean kUseOnboardControl = false;
+        static final FeedbackSensorSourceValue kFeedbackSource = FeedbackSensorSourceValue.FusedCANcoder; // RemoteCANcoder without Pro
+        static final double kRotorToSensorRatio = 92.0; // 23 rotor rotations per quarter turn of the wrist
+        // Expo profile follows the characterized motor, the rio profile was effectively off
+        static final double kExpoKV = kV;
+        static final double kExpoKA = kA;
+        static final double kPositionTolerance = 0.01; // rotations
+
+        // Status signal rates, everything else is turned off by the SignalRegistry
+        static final double kSignalFrequencyHz = 100.0;
+        static final double kDiagnosticFrequencyHz = 4.0;
+
+        // Physics model for the desktop sim
+        static final double kSimMOI = 0.005; // kg * m^2
     }
 // 12.3720703125 Score MId
 /*
@@ -63,74 +76,138 @@ public class RushinatorWrist extends SubsystemBase {
         kTravelRight(Rotation2d.fromRotations(2.5478515625 - 23)),
         kTravelMid(Rotation2d.fromRotations(2.5478515625));
  */
+    public enum Side {
+        kLeft,
+        kRight,
+        kMid
+    }
+
+    public enum Purpose {
+        kScore,
+        kHP,
+        kGround,
+        kLoli,
+        kTravel,
+        kTravelL4,
+        kTravelAutoAlignL4,
+        kClimb
+    }
+
+    /**
+     * Every pose comes in a left/right/mid set. Level is the reef level for the
+     * scoring poses, 0 for everything else (including the generic kScore* poses).
+     */
     public enum State {
-        kScoreLeftWrist(Rotation2d.fromRotations(-0.13427734375 - 0.25)),
-        kScoreRightWrist(Rotation2d.fromRotations(-0.13427734375 + 0.25)),
-        kScoreMid(Rotation2d.fromRotations(-0.13427734375)),
-        kScoreL4LeftWrist(Rotation2d.fromRotations(0.09375 - 0.50)),
-        kScoreL4RightWrist(Rotation2d.fromRotations(0.09375)),
-        kScoreL4Mid(Rotation2d.fromRotations(0.09375 - 0.25)),
-        kScoreL3LeftWrist(Rotation2d.fromRotations(-0.102783203125 - 0.25)),
-        kScoreL3RightWrist(Rotation2d.fromRotations(-0.102783203125 + 0.25)),
-        kScoreL3Mid(Rotation2d.fromRotations(-0.102783203125)),
-        kScoreL2LeftWrist(Rotation2d.fromRotations(-0.056396484375 - 0.25)),
-        kScoreL2RightWrist(Rotation2d.fromRotations(-0.056396484375 + 0.25)),
-        kScoreL2Mid(Rotation2d.fromRotations(-0.056396484375)),
-        kScoreL1LeftWrist(Rotation2d.fromRotations(-0.12109375 - 0.25)),
-        kScoreL1RightWrist(Rotation2d.fromRotations(-0.12109375 + 0.25)),
-        kScoreL1Mid(Rotation2d.fromRotations(-0.12109375)),
-        kHPLeft(Rotation2d.fromRotations(-0.24755859375 - 0.25)),
-        kHPRight(Rotation2d.fromRotations(-0.24755859375 + 0.25)),
-        kHPMid(Rotation2d.fromRotations(-0.24755859375)),
-        kGroundLeft(Rotation2d.fromRotations(0.07275390625 - 0.25)),
-        kGroundRight(Rotation2d.fromRotations(0.07275390625+ 0.25)),
-        kGroundMid(Rotation2d.fromRotations(0.07275390625)),
-        kLoliLeft(Rotation2d.fromRotations(0.027587890625 - 0.25)),
-        kLoliRight(Rotation2d.fromRotations(0.027587890625+ 0.25)),
-        kLoliMid(Rotation2d.fromRotations(0.027587890625)),
-        kTravelLeft(Rotation2d.fromRotations(-0.25 - 0.25)),
-        kTravelRight(Rotation2d.fromRotations(-0.25 + 0.25)),
-        kTravelMid(Rotation2d.fromRotations(-0.25)),
-        kTravelL4Left(Rotation2d.fromRotations(-0.191650390625 - 0.25)),
-        kTravelL4Right(Rotation2d.fromRotations(-0.191650390625 + 0.25)),
-        kTravelL4Mid(Rotation2d.fromRotations(-0.191650390625)),
-        kTravelAutoAlignL4Left(Rotation2d.fromRotations(-0.191650390625 - 0.25)),
-        kTravelAutonAlignL4Right(Rotation2d.fromRotations(-0.191650390625 + 0.25)),
-        kTravelAutonAlignL4Mid(Rotation2d.fromRotations(-0.191650390625)),
-        kClimbLeft(Rotation2d.fromRotations(-0.28759765625 - 0.25)),
-        kClimblRight(Rotation2d.fromRotations(-0.28759765625 + 0.25)),
-        kClimblMid(Rotation2d.fromRotations(-0.28759765625));
-
-        State(Rotation2d pos) {
+        kScoreLeftWrist(Rotation2d.fromRotations(-0.13427734375 - 0.25), Purpose.kScore, Side.kLeft, 0),
+        kScoreRightWrist(Rotation2d.fromRotations(-0.13427734375 + 0.25), Purpose.kScore, Side.kRight, 0),
+        kScoreMid(Rotation2d.fromRotations(-0.13427734375), Purpose.kScore, Side.kMid, 0),
+        kScoreL4LeftWrist(Rotation2d.fromRotations(0.09375 - 0.50), Purpose.kScore, Side.kLeft, 4),
+        kScoreL4RightWrist(Rotation2d.fromRotations(0.09375), Purpose.kScore, Side.kRight, 4),
+        kScoreL4Mid(Rotation2d.fromRotations(0.09375 - 0.25), Purpose.kScore, Side.kMid, 4),
+        kScoreL3LeftWrist(Rotation2d.fromRotations(-0.102783203125 - 0.25), Purpose.kScore, Side.kLeft, 3),
+        kScoreL3RightWrist(Rotation2d.fromRotations(-0.102783203125 + 0.25), Purpose.kScore, Side.kRight, 3),
+        kScoreL3Mid(Rotation2d.fromRotations(-0.102783203125), Purpose.kScore, Side.kMid, 3),
+        kScoreL2LeftWrist(Rotation2d.fromRotations(-0.056396484375 - 0.25), Purpose.kScore, Side.kLeft, 2),
+        kScoreL2RightWrist(Rotation2d.fromRotations(-0.056396484375 + 0.25), Purpose.kScore, Side.kRight, 2),
+        kScoreL2Mid(Rotation2d.fromRotations(-0.056396484375), Purpose.kScore, Side.kMid, 2),
+        kScoreL1LeftWrist(Rotation2d.fromRotations(-0.12109375 - 0.25), Purpose.kScore, Side.kLeft, 1),
+        kScoreL1RightWrist(Rotation2d.fromRotations(-0.12109375 + 0.25), Purpose.kScore, Side.kRight, 1),
+        kScoreL1Mid(Rotation2d.fromRotations(-0.12109375), Purpose.kScore, Side.kMid, 1),
+        kHPLeft(Rotation2d.fromRotations(-0.24755859375 - 0.25), Purpose.kHP, Side.kLeft, 0),
+        kHPRight(Rotation2d.fromRotations(-0.24755859375 + 0.25), Purpose.kHP, Side.kRight, 0),
+        kHPMid(Rotation2d.fromRotations(-0.24755859375), Purpose.kHP, Side.kMid, 0),
+        kGroundLeft(Rotation2d.fromRotations(0.07275390625 - 0.25), Purpose.kGround, Side.kLeft, 0),
+        kGroundRight(Rotation2d.fromRotations(0.07275390625+ 0.25), Purpose.kGround, Side.kRight, 0),
+        kGroundMid(Rotation2d.fromRotations(0.07275390625), Purpose.kGround, Side.kMid, 0),
+        kLoliLeft(Rotation2d.fromRotations(0.027587890625 - 0.25), Purpose.kLoli, Side.kLeft, 0),
+        kLoliRight(Rotation2d.fromRotations(0.027587890625+ 0.25), Purpose.kLoli, Side.kRight, 0),
+        kLoliMid(Rotation2d.fromRotations(0.027587890625), Purpose.kLoli, Side.kMid, 0),
+        kTravelLeft(Rotation2d.fromRotations(-0.25 - 0.25), Purpose.kTravel, Side.kLeft, 0),
+        kTravelRight(Rotation2d.fromRotations(-0.25 + 0.25), Purpose.kTravel, Side.kRight, 0),
+        kTravelMid(Rotation2d.fromRotations(-0.25), Purpose.kTravel, Side.kMid, 0),
+        kTravelL4Left(Rotation2d.fromRotations(-0.191650390625 - 0.25), Purpose.kTravelL4, Side.kLeft, 0),
+        kTravelL4Right(Rotation2d.fromRotations(-0.191650390625 + 0.25), Purpose.kTravelL4, Side.kRight, 0),
+        kTravelL4Mid(Rotation2d.fromRotations(-0.191650390625), Purpose.kTravelL4, Side.kMid, 0),
+        kTravelAutoAlignL4Left(Rotation2d.fromRotations(-0.191650390625 - 0.25), Purpose.kTravelAutoAlignL4, Side.kLeft, 0),
+        kTravelAutonAlignL4Right(Rotation2d.fromRotations(-0.191650390625 + 0.25), Purpose.kTravelAutoAlignL4, Side.kRight, 0),
+        kTravelAutonAlignL4Mid(Rotation2d.fromRotations(-0.191650390625), Purpose.kTravelAutoAlignL4, Side.kMid, 0),
+        kClimbLeft(Rotation2d.fromRotations(-0.28759765625 - 0.25), Purpose.kClimb, Side.kLeft, 0),
+        kClimblRight(Rotation2d.fromRotations(-0.28759765625 + 0.25), Purpose.kClimb, Side.kRight, 0),
+        kClimblMid(Rotation2d.fromRotations(-0.28759765625), Purpose.kClimb, Side.kMid, 0);
+
+        // Generated from the metadata, see mirror()
+        private static final State[] MIRROR = new State[values().length];
+
+        static {
+            for (State state : values()) {
+                MIRROR[state.ordinal()] = state;
+                if (state.side == Side.kMid) {
+                    continue;
+                }
+                for (State other : values()) {
+                    if (other.purpose == state.purpose && other.level == state.level
+                            && other.side != state.side && other.side != Side.kMid) {
+                        MIRROR[state.ordinal()] = other;
+                        break;
+                    }
+                }
+            }
+        }
+
+        State(Rotation2d pos, Purpose purpose, Side side, int level) {
             this.pos = pos;
+            this.purpose = purpose;
+            this.side = side;
+            this.level = level;
         }
         public final Rotation2d pos;
+        public final Purpose purpose;
+        public final Side side;
+        public final int level;
+
+        /**
+         * @return the same pose on the other side of the robot, mid poses mirror to themselves
+         */
+        public State mirror() {
+            return MIRROR[ordinal()];
+        }
+
+        /**
+         * @return the pose for the same purpose and level on the given side, mid poses stay mid
+         */
+        public State onSide(Side side) {
+            return this.side == side || this.side == Side.kMid ? this : mirror();
+        }
     }
 
 
-    private final CANcoder mWristCancoder;
-    public TalonFX mWristTalon;
+    private final RushinatorWristIO mIO;
+    private final RushinatorWristIOInputsAutoLogged mInputs = new RushinatorWristIOInputsAutoLogged();
+    private double mMotionMagicTarget;
     private final ProfiledPIDController mPPIDController;
     private final SimpleMotorFeedforward mFFController;
     private final PIDController mPIDController;
     
     // private final ArmFeedforward mFFController;
+
+    // Telemetry
+    private final Telemetry.DoubleEntry mPIDOutputEntry = Telemetry.getInstance().addDouble("PID Output", Level.kDebug);
+    private final Telemetry.DoubleEntry mFFOutputEntry = Telemetry.getInstance().addDouble("FF Output", Level.kDebug);
+    private final Telemetry.DoubleEntry mOutputVoltageEntry = Telemetry.getInstance().addDouble("Output Voltage", Level.kDebug);
+    private final Telemetry.StringEntry mLastStateEntry = Telemetry.getInstance().addString("KLastState Wrist Pivot", Level.kCompetition);
+    private final Telemetry.DoubleEntry mPositionEntry = Telemetry.getInstance().addDouble("Coral Wrist Current Angle (Rotations)", Level.kCompetition);
+    private final Telemetry.DoubleEntry mRelativePositionEntry = Telemetry.getInstance().addDouble("Coral Wrist Pivot (Rotations Relavtive)", Level.kDebug, 5);
+    private final Telemetry.DoubleEntry mVelocityEntry = Telemetry.getInstance().addDouble("Coral WRist Current Vel", Level.kDebug);
+    private final Telemetry.DoubleEntry mTargetPositionEntry = Telemetry.getInstance().addDouble("Coral Wrist Target Pos", Level.kDebug);
+    private final Telemetry.DoubleEntry mTargetVelocityEntry = Telemetry.getInstance().addDouble("Coral Wrist Target Vel", Level.kDebug);
     
-    public static State kLastState;
     
     public RushinatorWrist() {  
-        mWristTalon = new TalonFX(Settings.kTalonWristID);
-        mWristTalon.getConfigurator().apply(new TalonFXConfiguration().withMotorOutput(new MotorOutputConfigs()
-                .withInverted(InvertedValue.CounterClockwise_Positive)
-                .withNeutralMode(NeutralModeValue.Brake)
-        ));
-        mWristTalon.getConfigurator().apply(new CurrentLimitsConfigs().withSupplyCurrentLimit(Settings.kCurrentLimit));
-
-        mWristCancoder =  new CANcoder(Settings.kCancoderWristID);
-        mWristCancoder.getConfigurator().apply(new CANcoderConfiguration().withMagnetSensor(new MagnetSensorConfigs().
-                withSensorDirection(SensorDirectionValue.Clockwise_Positive).
-                withMagnetOffset(Settings.kZeroOffset)
-        ));
+        mIO = switch (Robot.kMode) {
+            case kReal -> new RushinatorWristIOTalonFX();
+            case kSim -> new RushinatorWristIOSim();
+            case kReplay -> new RushinatorWristIO() {};
+        };
 
         mPPIDController = new ProfiledPIDController(Settings.kP, Settings.kI, Settings.kD, new TrapezoidProfile.Constraints(
                 Settings.kMaxVelocity.getRadians(),
@@ -143,13 +220,14 @@ public class RushinatorWrist extends SubsystemBase {
 
         mFFController = new SimpleMotorFeedforward(Settings.kS, Settings.kV, Settings.kA);
 
-        if (kLastState == null) {
-            kLastState = State.kTravelRight;
-        }
-        mPPIDController.setGoal(kLastState.pos.getRotations());
+        var initialState = Superstructure.getInstance().getWristState();
+        mPPIDController.setGoal(initialState.pos.getRotations());
+        mMotionMagicTarget = initialState.pos.getRotations();
     }
 
     private static RushinatorWrist mInstance;
+    private final LoopProfiler.Section mLoopProfile = LoopProfiler.getInstance().addSection("RushinatorWrist.periodic()");
+
     public static RushinatorWrist getInstance() {
         if (mInstance == null) {
             mInstance = new RushinatorWrist();
@@ -158,63 +236,89 @@ public class RushinatorWrist extends SubsystemBase {
     }
 
     public Rotation2d getWristRelativePos() {
-        return Rotation2d.fromRotations(mWristTalon.getPosition().getValueAsDouble());
+        return Rotation2d.fromRotations(mInputs.relativePositionRotations);
     }
 
     public void setTargetState(State targetState) {
-        kLastState = targetState;
+        Superstructure.getInstance().setWristState(targetState);
         setTargetPosition(targetState.pos);
     }
 
     public void setTargetPosition(Rotation2d targetPosition) {
         mPPIDController.setGoal(targetPosition.getRotations());
         mPIDController.setSetpoint(targetPosition.getRotations());
+        mMotionMagicTarget = targetPosition.getRotations();
     }
 
     public void setVoltage(double voltage) {
-        mWristTalon.setVoltage(voltage);
+        mIO.setVoltage(voltage);
     }
 
     public double getMotorOutputVoltage() {
-        return mWristTalon.getMotorVoltage().getValueAsDouble();
+        return mInputs.appliedVolts;
     }
 
     public boolean atSetpoint() {
+        if (Settings.kUseOnboardControl) {
+            return Math.abs(getCurrentPos().getRotations() - mMotionMagicTarget) < Settings.kPositionTolerance;
+        }
         return mPPIDController.atGoal();
     }
 
     public State getCurrentWristState() {
-        return kLastState;
+        return Superstructure.getInstance().getWristState();
     }
 
     public Rotation2d getCurrentPos() {
-        return Rotation2d.fromRotations(mWristCancoder.getPosition().getValueAsDouble());
+        return Rotation2d.fromRotations(mInputs.positionRotations);
     }
 
     public Rotation2d getCurrentRelativePos() {
-        return Rotation2d.fromRotations(mWristTalon.getPosition().getValueAsDouble());
+        return Rotation2d.fromRotations(mInputs.relativePositionRotations);
     }
 
     @Override
     public void periodic() {
-        double pidOutput = mPPIDController.calculate(getCurrentPos().getRotations());
-        // double pidOutput = mPIDController.calculate(getCurrentPos().getRotations());
-        // double ffOutput = mFFController.calculate(getWristRelativePos().getRotations(), mPPIDController.getSetpoint().velocity);
-        double ffOutput = mFFController.calculate(mPPIDController.getSetpoint().velocity);
-        double totalOutputVoltage = pidOutput + ffOutput;
-        mWristTalon.setVoltage(-totalOutputVoltage);
+        mLoopProfile.start();
+        mIO.updateInputs(mInputs);
+        Logger.processInputs("RushinatorWrist", mInputs);
+
+        double currentPos = getCurrentPos().getRotations();
+        double pidOutput = 0.0;
+        double ffOutput = 0.0;
+        double totalOutputVoltage;
+        if (Settings.kUseOnboardControl) {
+            mIO.setMotionMagic(mMotionMagicTarget);
+            totalOutputVoltage = getMotorOutputVoltage();
+        } else {
+            pidOutput = mPPIDController.calculate(currentPos);
+            // double pidOutput = mPIDController.calculate(getCurrentPos().getRotations());
+            // double ffOutput = mFFController.calculate(getWristRelativePos().getRotations(), mPPIDController.getSetpoint().velocity);
+            ffOutput = mFFController.calculate(mPPIDController.getSetpoint().velocity);
+            totalOutputVoltage = pidOutput + ffOutput;
+            mIO.setVoltage(-totalOutputVoltage);
+        }
         
 
-        SmartDashboard.putNumber("PID Output", pidOutput);
-        SmartDashboard.putNumber("FF Output", ffOutput);
-        SmartDashboard.putNumber("Output Voltage", totalOutputVoltage);
-        SmartDashboard.putString("KLastState Wrist Pivot", kLastState.name());
-        SmartDashboard.putNumber("Coral Wrist Current Angle (Rotations)", getCurrentPos().getRotations());
-        SmartDashboard.putNumber("Coral Wrist Pivot (Rotations Relavtive)", mWristTalon.getPosition().getValueAsDouble());
-        SmartDashboard.putNumber("Coral WRist Current Vel", mWristTalon.getVelocity().getValueAsDouble());
-
-        SmartDashboard.putNumber("Coral Wrist Target Pos", mPPIDController.getSetpoint().position);
-        SmartDashboard.putNumber("Coral Wrist Target Vel", mPPIDController.getSetpoint().velocity);
+        mPIDOutputEntry.set(pidOutput);
+        mFFOutputEntry.set(ffOutput);
+        mOutputVoltageEntry.set(totalOutputVoltage);
+        Logger.recordOutput("RushinatorWrist/Voltage", totalOutputVoltage);
+        mLastStateEntry.set(Superstructure.getInstance().getWristState().name());
+        mPositionEntry.set(currentPos);
+        if (mRelativePositionEntry.shouldUpdate()) {
+            mRelativePositionEntry.set(mInputs.relativePositionRotations);
+        }
+        mVelocityEntry.set(mInputs.relativeVelocityRotationsPerSec);
+
+        if (Settings.kUseOnboardControl) {
+            mTargetPositionEntry.set(mInputs.referenceRotations);
+            mTargetVelocityEntry.set(mInputs.referenceSlope);
+        } else {
+            mTargetPositionEntry.set(mPPIDController.getSetpoint().position);
+            mTargetVelocityEntry.set(mPPIDController.getSetpoint().velocity);
+        }
+        mLoopProfile.stop();
     }
 
     public static class DefaultCommand extends Command {
@@ -237,7 +341,7 @@ public class RushinatorWrist extends SubsystemBase {
             // } else {
             //     new SetWristState(RushinatorWrist.State.kTravelRight);
             // }
-            RushinatorWrist.getInstance().mPPIDController.setGoal(RushinatorWrist.State.kTravelRight.pos.getRotations());
+            subsystem.setTargetPosition(RushinatorWrist.State.kTravelRight.pos);
         }
     }
 }
@@ -0,0 +1,30 @@
+package frc.robot.rushinator;
+
+import org.littletonrobotics.junction.AutoLog;
+
+/**
+ * Hardware layer of the wrist, see {@link frc.robot.elevator.ElevatorIO}.
+ */
+public interface RushinatorWristIO {
+    @AutoLog
+    public static class RushinatorWristIOInputs {
+        // CANcoder, wrist rotations
+        public double positionRotations = 0.0;
+        // Talon, rotor rotations
+        public double relativePositionRotations = 0.0;
+        public double relativeVelocityRotationsPerSec = 0.0;
+        public double appliedVolts = 0.0;
+        // Only read with onboard control
+        public double referenceRotations = 0.0;
+        public double referenceSlope = 0.0;
+    }
+
+    default void updateInputs(RushinatorWristIOInputs inputs) {}
+
+    default void setVoltage(double voltage) {}
+
+    /**
+     * @param position target in wrist rotations
+     */
+    default void setMotionMagic(double position) {}
+}
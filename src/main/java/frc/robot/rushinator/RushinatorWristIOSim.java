@@ -0,0 +1,52 @@
+package frc.robot.rushinator;
+
+import com.ctre.phoenix6.sim.CANcoderSimState;
+import com.ctre.phoenix6.sim.ChassisReference;
+import com.ctre.phoenix6.sim.TalonFXSimState;
+
+import edu.wpi.first.math.system.plant.DCMotor;
+import edu.wpi.first.math.system.plant.LinearSystemId;
+import edu.wpi.first.wpilibj.simulation.DCMotorSim;
+import frc.crevolib.util.MechanismSimRunner;
+import frc.robot.rushinator.RushinatorWrist.Settings;
+
+/**
+ * Wrist for the desktop sim, a WPILib physics model behind the real (simulated) Talon
+ * and CANcoder. The wrist is balanced about its axis so there's no gravity term.
+ */
+public class RushinatorWristIOSim extends RushinatorWristIOTalonFX implements MechanismSimRunner.Mechanism {
+    private final DCMotor mMotor = DCMotor.getKrakenX60(1);
+    private final DCMotorSim mSim = new DCMotorSim(
+            LinearSystemId.createDCMotorSystem(mMotor, Settings.kSimMOI, Settings.kRotorToSensorRatio), mMotor);
+    private final TalonFXSimState mTalonSimState = mWristTalon.getSimState();
+    private final CANcoderSimState mCancoderSimState = mWristCancoder.getSimState();
+
+    public RushinatorWristIOSim() {
+        // Clockwise on the rotor turns the wrist positive, the CANcoder reads it the same way.
+        // The Talon's invert (which changes with kUseOnboardControl) is applied on top of this
+        mTalonSimState.Orientation = ChassisReference.Clockwise_Positive;
+        mCancoderSimState.Orientation = ChassisReference.Clockwise_Positive;
+        MechanismSimRunner.getInstance().register(this);
+    }
+
+    @Override
+    public void simulate(double dtSeconds, double batteryVolts) {
+        mTalonSimState.setSupplyVoltage(batteryVolts);
+        mCancoderSimState.setSupplyVoltage(batteryVolts);
+
+        mSim.setInputVoltage(mTalonSimState.getMotorVoltage());
+        mSim.update(dtSeconds);
+
+        double position = mSim.getAngularPositionRotations();
+        double velocity = mSim.getAngularVelocityRPM() / 60.0;
+        mCancoderSimState.setRawPosition(position - Settings.kZeroOffset);
+        mCancoderSimState.setVelocity(velocity);
+        mTalonSimState.setRawRotorPosition(position * Settings.kRotorToSensorRatio);
+        mTalonSimState.setRotorVelocity(velocity * Settings.kRotorToSensorRatio);
+    }
+
+    @Override
+    public double getSupplyCurrentAmps() {
+        return mTalonSimState.getSupplyCurrent();
+    }
+}
@@ -0,0 +1,110 @@
+package frc.robot.rushinator;
+
+import com.ctre.phoenix6.StatusSignal;
+import com.ctre.phoenix6.configs.CANcoderConfiguration;
+import com.ctre.phoenix6.configs.CurrentLimitsConfigs;
+import com.ctre.phoenix6.configs.FeedbackConfigs;
+import com.ctre.phoenix6.configs.MagnetSensorConfigs;
+import com.ctre.phoenix6.configs.MotionMagicConfigs;
+import com.ctre.phoenix6.configs.MotorOutputConfigs;
+import com.ctre.phoenix6.configs.Slot0Configs;
+import com.ctre.phoenix6.configs.TalonFXConfiguration;
+import com.ctre.phoenix6.controls.MotionMagicExpoVoltage;
+import com.ctre.phoenix6.hardware.CANcoder;
+import com.ctre.phoenix6.hardware.TalonFX;
+import com.ctre.phoenix6.signals.InvertedValue;
+import com.ctre.phoenix6.signals.NeutralModeValue;
+import com.ctre.phoenix6.signals.SensorDirectionValue;
+
+import edu.wpi.first.units.measure.Angle;
+import edu.wpi.first.units.measure.AngularVelocity;
+import edu.wpi.first.units.measure.Voltage;
+import frc.crevolib.util.SignalRegistry;
+import frc.robot.rushinator.RushinatorWrist.Settings;
+
+public class RushinatorWristIOTalonFX implements RushinatorWristIO {
+    protected final TalonFX mWristTalon;
+    protected final CANcoder mWristCancoder;
+    // Refreshed once per loop by the SignalRegistry
+    private final StatusSignal<Angle> mCancoderPositionSignal;
+    private final StatusSignal<Angle> mRelativePositionSignal;
+    private final StatusSignal<AngularVelocity> mRelativeVelocitySignal;
+    private final StatusSignal<Voltage> mMotorVoltageSignal;
+    // Only refreshed with onboard control
+    private final StatusSignal<Double> mReferenceSignal;
+    private final StatusSignal<Double> mReferenceSlopeSignal;
+    private final MotionMagicExpoVoltage mMotionMagicRequest = new MotionMagicExpoVoltage(0.0);
+
+    public RushinatorWristIOTalonFX() {
+        mWristTalon = new TalonFX(Settings.kTalonWristID);
+        mWristTalon.getConfigurator().apply(new TalonFXConfiguration().withMotorOutput(new MotorOutputConfigs()
+                // The rio loop negates its output, onboard the motor has to agree with the CANcoder
+                .withInverted(Settings.kUseOnboardControl ? InvertedValue.Clockwise_Positive : InvertedValue.CounterClockwise_Positive)
+                .withNeutralMode(NeutralModeValue.Brake)
+        ));
+        mWristTalon.getConfigurator().apply(new CurrentLimitsConfigs().withSupplyCurrentLimit(Settings.kCurrentLimit));
+
+        mWristCancoder =  new CANcoder(Settings.kCancoderWristID);
+        mWristCancoder.getConfigurator().apply(new CANcoderConfiguration().withMagnetSensor(new MagnetSensorConfigs().
+                withSensorDirection(SensorDirectionValue.Clockwise_Positive).
+                withMagnetOffset(Settings.kZeroOffset)
+        ));
+
+        if (Settings.kUseOnboardControl) {
+            mWristTalon.getConfigurator().apply(new FeedbackConfigs()
+                    .withFeedbackRemoteSensorID(Settings.kCancoderWristID)
+                    .withFeedbackSensorSource(Settings.kFeedbackSource)
+                    .withRotorToSensorRatio(Settings.kRotorToSensorRatio)
+                    .withSensorToMechanismRatio(1.0)
+            );
+            mWristTalon.getConfigurator().apply(new Slot0Configs()
+                    .withKS(Settings.kS).withKV(Settings.kV).withKA(Settings.kA)
+                    .withKP(Settings.kP).withKI(Settings.kI).withKD(Settings.kD)
+            );
+            mWristTalon.getConfigurator().apply(new MotionMagicConfigs()
+                    .withMotionMagicCruiseVelocity(0.0) // no cap, Expo limits it through kV
+                    .withMotionMagicExpo_kV(Settings.kExpoKV)
+                    .withMotionMagicExpo_kA(Settings.kExpoKA)
+            );
+        }
+
+        mCancoderPositionSignal = mWristCancoder.getPosition();
+        mRelativePositionSignal = mWristTalon.getPosition();
+        mRelativeVelocitySignal = mWristTalon.getVelocity();
+        mMotorVoltageSignal = mWristTalon.getMotorVoltage();
+        mReferenceSignal = mWristTalon.getClosedLoopReference();
+        mReferenceSlopeSignal = mWristTalon.getClosedLoopReferenceSlope();
+        SignalRegistry.getInstance().register(mWristCancoder, Settings.kSignalFrequencyHz, mCancoderPositionSignal);
+        SignalRegistry.getInstance().register(mWristTalon, Settings.kSignalFrequencyHz, mRelativePositionSignal, mRelativeVelocitySignal, mMotorVoltageSignal);
+        if (Settings.kUseOnboardControl) {
+            SignalRegistry.getInstance().register(mWristTalon, Settings.kSignalFrequencyHz, mReferenceSignal, mReferenceSlopeSignal);
+            // The Talon fuses the CANcoder's velocity too
+            SignalRegistry.getInstance().registerDiagnostics(mWristCancoder, Settings.kSignalFrequencyHz, mWristCancoder.getVelocity());
+        }
+        SignalRegistry.getInstance().registerDiagnostics(mWristTalon, Settings.kDiagnosticFrequencyHz,
+                mWristTalon.getDeviceTemp(), mWristTalon.getSupplyCurrent());
+    }
+
+    @Override
+    public void updateInputs(RushinatorWristIOInputs inputs) {
+        inputs.positionRotations = mCancoderPositionSignal.getValueAsDouble();
+        inputs.relativePositionRotations = mRelativePositionSignal.getValueAsDouble();
+        inputs.relativeVelocityRotationsPerSec = mRelativeVelocitySignal.getValueAsDouble();
+        inputs.appliedVolts = mMotorVoltageSignal.getValueAsDouble();
+        if (Settings.kUseOnboardControl) {
+            inputs.referenceRotations = mReferenceSignal.getValueAsDouble();
+            inputs.referenceSlope = mReferenceSlopeSignal.getValueAsDouble();
+        }
+    }
+
+    @Override
+    public void setVoltage(double voltage) {
+        mWristTalon.setVoltage(voltage);
+    }
+
+    @Override
+    public void setMotionMagic(double position) {
+        mMotionMagicRequest.Position = position;
+        mWristTalon.setControl(mMotionMagicRequest);
+    }
+}
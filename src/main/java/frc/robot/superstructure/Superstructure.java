@@ -0,0 +1,210 @@
+package frc.robot.superstructure;
+
+import java.util.EnumSet;
+
+import frc.robot.algaepivot.AlgaeSubsystem;
+import frc.robot.climber.Climber;
+import frc.robot.elevator.ElevatorSubsystem;
+import frc.robot.rushinator.RushinatorPivot;
+import frc.robot.rushinator.RushinatorWrist;
+
+/**
+ * The one place the last commanded state of every mechanism lives.
+ *
+ * Mechanisms report their state here from setTargetState, and everything else
+ * (alignment, default commands, button bindings) asks here instead of keeping its own
+ * copy. Questions like "is the wrist on the right side" or "is the elevator at L4" are
+ * precomputed as attribute bits per state (the wrist's from its side/purpose metadata),
+ * so {@link #has(int)} is a single mask against the bits of the current states. Common
+ * follow-up states (where the wrist travels to, what the toggle flips to) are looked up
+ * in tables indexed by state.
+ */
+public class Superstructure {
+    private static Superstructure mInstance;
+
+    /* Attributes, combine with | to ask for several at once */
+    // Wrist is on (or comes back to) the right side
+    public static final int kWristRight = 1 << 0;
+    public static final int kWristLeft = 1 << 1;
+    public static final int kWristIntake = 1 << 2;
+    public static final int kWristScore = 1 << 3;
+    public static final int kWristTravel = 1 << 4;
+    public static final int kElevatorL2 = 1 << 5;
+    public static final int kElevatorL3 = 1 << 6;
+    public static final int kElevatorL4 = 1 << 7;
+    public static final int kArmScore = 1 << 8;
+    public static final int kArmTuck = 1 << 9;
+    public static final int kAlgaeTuck = 1 << 10;
+
+    private static final RushinatorWrist.State[] WRIST_STATES = RushinatorWrist.State.values();
+    private static final int[] WRIST_ATTRIBUTES = new int[WRIST_STATES.length];
+    private static final int[] ELEVATOR_ATTRIBUTES = new int[ElevatorSubsystem.State.values().length];
+    private static final int[] PIVOT_ATTRIBUTES = new int[RushinatorPivot.State.values().length];
+    private static final int[] ALGAE_ATTRIBUTES = new int[AlgaeSubsystem.State.values().length];
+
+    // The mid intake and L1 poses exit to the right, so they count as right side
+    private static final EnumSet<RushinatorWrist.State> MID_EXITS_RIGHT = EnumSet.of(
+        RushinatorWrist.State.kScoreL1Mid,
+        RushinatorWrist.State.kHPMid,
+        RushinatorWrist.State.kGroundMid);
+
+    // Transition tables, indexed by the current wrist state's ordinal
+    private static final RushinatorWrist.State[] WRIST_TRAVEL = new RushinatorWrist.State[WRIST_STATES.length];
+    private static final RushinatorWrist.State[] WRIST_TOGGLE = new RushinatorWrist.State[WRIST_STATES.length];
+
+    static {
+        for (var state : WRIST_STATES) {
+            int attributes = 0;
+            if (state.side == RushinatorWrist.Side.kRight || MID_EXITS_RIGHT.contains(state)) {
+                attributes |= kWristRight;
+            } else if (state.side == RushinatorWrist.Side.kLeft) {
+                attributes |= kWristLeft;
+            }
+            switch (state.purpose) {
+                case kScore -> attributes |= kWristScore;
+                case kHP, kGround, kLoli -> attributes |= kWristIntake;
+                case kTravel, kTravelL4, kTravelAutoAlignL4 -> attributes |= kWristTravel;
+                default -> {}
+            }
+            WRIST_ATTRIBUTES[state.ordinal()] = attributes;
+        }
+
+        tag(ELEVATOR_ATTRIBUTES, kElevatorL2, EnumSet.of(ElevatorSubsystem.State.kCoralL2, ElevatorSubsystem.State.kCoralScoreL2));
+        tag(ELEVATOR_ATTRIBUTES, kElevatorL3, EnumSet.of(ElevatorSubsystem.State.kCoralL3, ElevatorSubsystem.State.kCoralScoreL3));
+        tag(ELEVATOR_ATTRIBUTES, kElevatorL4, EnumSet.of(
+            ElevatorSubsystem.State.kCoralL4,
+            ElevatorSubsystem.State.kCoralL4AutonScore,
+            ElevatorSubsystem.State.kCoralScoreL4));
+
+        tag(PIVOT_ATTRIBUTES, kArmScore, EnumSet.of(
+            RushinatorPivot.State.kScore,
+            RushinatorPivot.State.kScoreL1,
+            RushinatorPivot.State.kScoreL2,
+            RushinatorPivot.State.kScoreL3,
+            RushinatorPivot.State.kScoreL4,
+            RushinatorPivot.State.kScoreL4Auton));
+        tag(PIVOT_ATTRIBUTES, kArmTuck, EnumSet.of(RushinatorPivot.State.kTuck));
+        tag(ALGAE_ATTRIBUTES, kAlgaeTuck, EnumSet.of(AlgaeSubsystem.State.kTuck));
+
+        for (var state : WRIST_STATES) {
+            WRIST_TRAVEL[state.ordinal()] = (WRIST_ATTRIBUTES[state.ordinal()] & kWristRight) != 0
+                ? RushinatorWrist.State.kTravelRight
+                : RushinatorWrist.State.kTravelLeft;
+            // Only the generic score and travel poses flip, everything else holds
+            boolean flips = state.purpose == RushinatorWrist.Purpose.kTravel
+                || (state.purpose == RushinatorWrist.Purpose.kScore && state.level == 0);
+            WRIST_TOGGLE[state.ordinal()] = flips ? state.mirror() : state;
+        }
+    }
+
+    private ElevatorSubsystem.State mElevatorState = ElevatorSubsystem.State.kZero;
+    private RushinatorPivot.State mPivotState = RushinatorPivot.State.kStowTravel;
+    private RushinatorWrist.State mWristState = RushinatorWrist.State.kTravelRight;
+    private AlgaeSubsystem.State mAlgaeState = AlgaeSubsystem.State.kStow;
+    private Climber.State mClimberState = Climber.State.kStow;
+    private int mAttributes;
+
+    private Superstructure() {
+        updateAttributes();
+    }
+
+    public static Superstructure getInstance() {
+        if (mInstance == null) {
+            mInstance = new Superstructure();
+        }
+        return mInstance;
+    }
+
+    /**
+     * @param attributes one or more attribute bits or'd together
+     * @return true if the current states have every one of the attributes
+     */
+    public boolean has(int attributes) {
+        return (mAttributes & attributes) == attributes;
+    }
+
+    /**
+     * Same as {@link #has(int)} for a pivot state that isn't necessarily the current one,
+     * for planning a move before it's commanded.
+     *
+     * @param attributes one or more pivot attribute bits or'd together
+     */
+    public static boolean pivotHas(RushinatorPivot.State state, int attributes) {
+        return (PIVOT_ATTRIBUTES[state.ordinal()] & attributes) == attributes;
+    }
+
+    /**
+     * @return travel state on the side the wrist is currently on
+     */
+    public RushinatorWrist.State getWristTravelState() {
+        return WRIST_TRAVEL[mWristState.ordinal()];
+    }
+
+    /**
+     * @return state the wrist toggle flips to from the current state, the current
+     *     state itself if it doesn't flip
+     */
+    public RushinatorWrist.State getWristToggleState() {
+        return WRIST_TOGGLE[mWristState.ordinal()];
+    }
+
+    public ElevatorSubsystem.State getElevatorState() {
+        return mElevatorState;
+    }
+
+    public RushinatorPivot.State getPivotState() {
+        return mPivotState;
+    }
+
+    public RushinatorWrist.State getWristState() {
+        return mWristState;
+    }
+
+    public AlgaeSubsystem.State getAlgaeState() {
+        return mAlgaeState;
+    }
+
+    public Climber.State getClimberState() {
+        return mClimberState;
+    }
+
+    /* Called by the mechanisms when they're given a new target */
+
+    public void setElevatorState(ElevatorSubsystem.State state) {
+        mElevatorState = state;
+        updateAttributes();
+    }
+
+    public void setPivotState(RushinatorPivot.State state) {
+        mPivotState = state;
+        updateAttributes();
+    }
+
+    public void setWristState(RushinatorWrist.State state) {
+        mWristState = state;
+        updateAttributes();
+    }
+
+    public void setAlgaeState(AlgaeSubsystem.State state) {
+        mAlgaeState = state;
+        updateAttributes();
+    }
+
+    public void setClimberState(Climber.State state) {
+        // The climber doesn't gate anything yet, so there are no attributes to update
+        mClimberState = state;
+    }
+
+    private void updateAttributes() {
+        mAttributes = WRIST_ATTRIBUTES[mWristState.ordinal()]
+            | ELEVATOR_ATTRIBUTES[mElevatorState.ordinal()]
+            | PIVOT_ATTRIBUTES[mPivotState.ordinal()]
+            | ALGAE_ATTRIBUTES[mAlgaeState.ordinal()];
+    }
+
+    private static <E extends Enum<E>> void tag(int[] table, int attribute, EnumSet<E> states) {
+        for (var state : states) {
+            table[state.ordinal()] |= attribute;
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package frc.robot.superstructure.commands;
+
+import edu.wpi.first.wpilibj.Timer;
+import edu.wpi.first.wpilibj2.command.Command;
+import frc.robot.elevator.ElevatorSubsystem;
+import frc.robot.rushinator.RushinatorPivot;
+import frc.robot.rushinator.RushinatorWrist;
+import frc.robot.superstructure.Superstructure;
+
+/**
+ * Moves the elevator, coral arm and wrist to a target together, starting each joint
+ * as soon as it's safe instead of after a fixed wait.
+ *
+ * Every joint runs its own profile to its target, so once a joint is allowed to move
+ * it gets there as fast as it can. The only thing planned here is when the arm and
+ * wrist are allowed to start:
+ * <ul>
+ *   <li>Leaving a scoring pose on the way down, the coral is still on the branch. The
+ *   arm and wrist wait until the elevator has dropped far enough to pull it off.</li>
+ *   <li>Going into a scoring pose, the arm and wrist stay where they are until the
+ *   elevator is within that same distance of the scoring height.</li>
+ *   <li>Everything else starts all three joints right away.</li>
+ * </ul>
+ *
+ * Finishes once every joint is at its target, and for a scoring pose once they've
+ * held it for a short dwell so the coral settles on the branch before anything pulls
+ * it off. Callers should still add a timeout in case a joint settles just outside its
+ * tolerance.
+ */
+public class SetSuperstructureState extends Command {
+    public static class Settings {
+        // Elevator travel between the coral sitting on the branch and being clear of it.
+        // Same drop scoreCoralAutonL3 jogs before stowing the arm
+        static final double kBranchClearance = 3.0; // rotations
+
+        // Time at a scoring pose before leaving it. The old 0.4 s race held L4 for about
+        // this long after the elevator arrived (2.6 rotations down at 250 rot/s^2 takes ~0.2 s)
+        static final double kScoreDwell = 0.2; // s
+    }
+
+    private enum ArmGate {
+        kNone,
+        kRelease,
+        kApproach
+    }
+
+    private final ElevatorSubsystem mElevator;
+    private final RushinatorPivot mPivot;
+    private final RushinatorWrist mWrist;
+
+    private final ElevatorSubsystem.State mElevatorTarget;
+    private final RushinatorPivot.State mPivotTarget;
+    private final RushinatorWrist.State mWristTarget;
+    private final double mDwell;
+
+    private double mElevatorStart;
+    private ArmGate mArmGate;
+    private boolean mArmStarted;
+    private final Timer mSettledTimer = new Timer();
+
+    public SetSuperstructureState(ElevatorSubsystem.State elevatorTarget, RushinatorPivot.State pivotTarget, RushinatorWrist.State wristTarget) {
+        mElevator = ElevatorSubsystem.getInstance();
+        mPivot = RushinatorPivot.getInstance();
+        mWrist = RushinatorWrist.getInstance();
+
+        mElevatorTarget = elevatorTarget;
+        mPivotTarget = pivotTarget;
+        mWristTarget = wristTarget;
+        mDwell = Superstructure.pivotHas(pivotTarget, Superstructure.kArmScore) ? Settings.kScoreDwell : 0.0;
+        addRequirements(mElevator, mPivot, mWrist);
+    }
+
+    @Override
+    public void initialize() {
+        mElevatorStart = mElevator.getPosition();
+        boolean leavingScore = Superstructure.getInstance().has(Superstructure.kArmScore);
+        boolean enteringScore = !leavingScore && Superstructure.pivotHas(mPivotTarget, Superstructure.kArmScore);
+
+        if (leavingScore && mElevatorTarget.pos < mElevatorStart) {
+            mArmGate = ArmGate.kRelease;
+        } else if (enteringScore && Math.abs(mElevatorTarget.pos - mElevatorStart) > Settings.kBranchClearance) {
+            mArmGate = ArmGate.kApproach;
+        } else {
+            mArmGate = ArmGate.kNone;
+        }
+
+        mElevator.setTargetState(mElevatorTarget);
+        mArmStarted = false;
+        mSettledTimer.stop();
+        mSettledTimer.reset();
+        if (mArmGate == ArmGate.kNone) {
+            startArm();
+        }
+    }
+
+    @Override
+    public void execute() {
+        if (!mArmStarted && (armClear() || mElevator.atGoal())) {
+            startArm();
+        }
+
+        if (mArmStarted && mElevator.atGoal() && mPivot.atGoal() && mWrist.atSetpoint()) {
+            mSettledTimer.start();
+        } else {
+            mSettledTimer.stop();
+            mSettledTimer.reset();
+        }
+    }
+
+    @Override
+    public boolean isFinished() {
+        return mSettledTimer.isRunning() && mSettledTimer.hasElapsed(mDwell);
+    }
+
+    @Override
+    public void end(boolean interrupted) {
+        mSettledTimer.stop();
+    }
+
+    private boolean armClear() {
+        double position = mElevator.getPosition();
+        return switch (mArmGate) {
+            case kRelease -> mElevatorStart - position >= Settings.kBranchClearance;
+            case kApproach -> Math.abs(mElevatorTarget.pos - position) <= Settings.kBranchClearance;
+            case kNone -> true;
+        };
+    }
+
+    private void startArm() {
+        mPivot.setTargetState(mPivotTarget);
+        mWrist.setTargetState(mWristTarget);
+        mArmStarted = true;
+    }
+}
@@ -0,0 +1,194 @@
+package frc.robot.telemetry;
+
+import java.lang.management.ManagementFactory;
+
+import javax.management.Notification;
+import javax.management.NotificationEmitter;
+import javax.management.openmbean.CompositeData;
+
+import org.littletonrobotics.junction.Logger;
+
+import com.sun.management.GarbageCollectionNotificationInfo;
+
+import frc.crevolib.util.LoopProfiler;
+
+/**
+ * Measures what the garbage collector costs the robot loop.
+ *
+ * Every loop the main thread's allocated bytes (as counted by LoopProfiler) and the
+ * loop period are logged under GC/. The JVM sends a notification after every collection,
+ * those come in on a JMX thread and are queued up here until the main loop drains
+ * them. A loop that runs long is remembered for a few loops, and when a pause lands
+ * inside one of those windows the overrun is counted as caused by GC. Compare
+ * GC/GCOverrunCount against GC/OverrunCount to see how much of the overrun problem is
+ * the collector, and LoopProfiler's TopAllocators to see who's generating the garbage.
+ *
+ * With a concurrent collector the "pause" is the whole collection, most of which
+ * doesn't stop the loop. The rio runs the serial collector, where every collection
+ * is stop the world.
+ */
+public class GcMonitor {
+    private static GcMonitor mInstance;
+
+    public static class Settings {
+        public static final boolean kEnabled = true;
+        static final double kLoopPeriodMs = 20.0;
+        // Scheduling jitter on the rio is around a millisecond, anything past this is an overrun
+        static final double kOverrunSlackMs = 2.0;
+        // Notifications usually arrive within a loop or two of the pause, keep overruns around longer than that
+        static final int kOverrunHistory = 16;
+        // Pauses that pile up past this before the loop drains them are only counted
+        static final int kMaxPendingPauses = 32;
+    }
+
+    // JVM start on the System.nanoTime() clock, the GC timestamps are ms since JVM start
+    private final long mJvmStartNanos;
+
+    // Filled by the notification thread and drained by the main loop, guarded by mPendingLock
+    private final Object mPendingLock = new Object();
+    private final long[] mPendingStartNanos = new long[Settings.kMaxPendingPauses];
+    private final long[] mPendingEndNanos = new long[Settings.kMaxPendingPauses];
+    private final String[] mPendingDescriptions = new String[Settings.kMaxPendingPauses];
+    private int mPendingCount = 0;
+    private int mDroppedCount = 0;
+
+    // Recent overruns, oldest gets overwritten
+    private final long[] mOverrunStartNanos = new long[Settings.kOverrunHistory];
+    private final long[] mOverrunEndNanos = new long[Settings.kOverrunHistory];
+    private final boolean[] mOverrunFromGC = new boolean[Settings.kOverrunHistory];
+    private int mOverrunNext = 0;
+
+    private long mLoopStartNanos = 0;
+    private double mLoopPeriodMs = 0.0;
+    private boolean mOverran = false;
+
+    private long mPauseCount = 0;
+    private double mTotalPauseMs = 0.0;
+    private double mMaxPauseMs = 0.0;
+    private long mOverrunCount = 0;
+    private long mGCOverrunCount = 0;
+    private String mLastPause = "";
+
+    private GcMonitor() {
+        mJvmStartNanos = System.nanoTime() - ManagementFactory.getRuntimeMXBean().getUptime() * 1_000_000L;
+
+        for (var collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+            if (collector instanceof NotificationEmitter emitter) {
+                emitter.addNotificationListener(this::onNotification, null, null);
+            }
+        }
+    }
+
+    public static GcMonitor getInstance() {
+        if (mInstance == null) {
+            mInstance = new GcMonitor();
+        }
+        return mInstance;
+    }
+
+    /** Call at the top of robotPeriodic(). */
+    public void startLoop() {
+        if (!Settings.kEnabled) {
+            return;
+        }
+        long now = System.nanoTime();
+        if (mLoopStartNanos != 0) {
+            mLoopPeriodMs = (now - mLoopStartNanos) * 1e-6;
+            mOverran = mLoopPeriodMs > Settings.kLoopPeriodMs + Settings.kOverrunSlackMs;
+            if (mOverran) {
+                mOverrunCount++;
+                mOverrunStartNanos[mOverrunNext] = mLoopStartNanos;
+                mOverrunEndNanos[mOverrunNext] = now;
+                mOverrunFromGC[mOverrunNext] = false;
+                mOverrunNext = (mOverrunNext + 1) % Settings.kOverrunHistory;
+            }
+        }
+        mLoopStartNanos = now;
+    }
+
+    /** Call at the end of robotPeriodic(), after LoopProfiler.endLoop(). */
+    public void endLoop() {
+        if (!Settings.kEnabled) {
+            return;
+        }
+        double loopPauseMs = drainPauses();
+
+        Logger.recordOutput("GC/LoopAllocatedBytes", LoopProfiler.getInstance().getLoopAllocatedBytes());
+        Logger.recordOutput("GC/LoopPeriodMs", mLoopPeriodMs);
+        Logger.recordOutput("GC/Overrun", mOverran);
+        Logger.recordOutput("GC/PauseMs", loopPauseMs);
+        Logger.recordOutput("GC/PauseCount", mPauseCount);
+        Logger.recordOutput("GC/TotalPauseMs", mTotalPauseMs);
+        Logger.recordOutput("GC/MaxPauseMs", mMaxPauseMs);
+        Logger.recordOutput("GC/OverrunCount", mOverrunCount);
+        Logger.recordOutput("GC/GCOverrunCount", mGCOverrunCount);
+        Logger.recordOutput("GC/LastPause", mLastPause);
+        Runtime runtime = Runtime.getRuntime();
+        Logger.recordOutput("GC/HeapUsedMB", (runtime.totalMemory() - runtime.freeMemory()) / 1048576.0);
+    }
+
+    /**
+     * Moves the pauses the notification thread queued up into the totals and matches
+     * them against recent overruns.
+     *
+     * @return total pause time drained this loop, ms
+     */
+    private double drainPauses() {
+        double drainedMs = 0.0;
+        synchronized (mPendingLock) {
+            for (int i = 0; i < mPendingCount; i++) {
+                long start = mPendingStartNanos[i];
+                long end = mPendingEndNanos[i];
+                double pauseMs = (end - start) * 1e-6;
+                drainedMs += pauseMs;
+                mPauseCount++;
+                mTotalPauseMs += pauseMs;
+                mMaxPauseMs = Math.max(mMaxPauseMs, pauseMs);
+
+                boolean causedOverrun = false;
+                for (int j = 0; j < Settings.kOverrunHistory; j++) {
+                    if (start < mOverrunEndNanos[j] && end > mOverrunStartNanos[j]) {
+                        causedOverrun = true;
+                        if (!mOverrunFromGC[j]) {
+                            mOverrunFromGC[j] = true;
+                            mGCOverrunCount++;
+                        }
+                    }
+                }
+                // Only built when there's been a collection
+                mLastPause = String.format("%s, %.1f ms%s", mPendingDescriptions[i], pauseMs,
+                        causedOverrun ? ", loop overrun" : "");
+                mPendingDescriptions[i] = null;
+            }
+            mPendingCount = 0;
+
+            // Counted, but without a time there's nothing to match them against
+            mPauseCount += mDroppedCount;
+            mDroppedCount = 0;
+        }
+        return drainedMs;
+    }
+
+    private void onNotification(Notification notification, Object handback) {
+        if (!GarbageCollectionNotificationInfo.GARBAGE_COLLECTION_NOTIFICATION.equals(notification.getType())) {
+            return;
+        }
+        var info = GarbageCollectionNotificationInfo.from((CompositeData) notification.getUserData());
+        var gcInfo = info.getGcInfo();
+        // Only ms resolution, short pauses show up as 0 ms but still match the loop they hit
+        long start = mJvmStartNanos + gcInfo.getStartTime() * 1_000_000L;
+        long end = start + gcInfo.getDuration() * 1_000_000L;
+        String description = info.getGcName() + " (" + info.getGcCause() + ")";
+
+        synchronized (mPendingLock) {
+            if (mPendingCount == Settings.kMaxPendingPauses) {
+                mDroppedCount++;
+                return;
+            }
+            mPendingStartNanos[mPendingCount] = start;
+            mPendingEndNanos[mPendingCount] = end;
+            mPendingDescriptions[mPendingCount] = description;
+            mPendingCount++;
+        }
+    }
+}
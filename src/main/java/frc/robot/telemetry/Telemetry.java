@@ -0,0 +1,264 @@
+package frc.robot.telemetry;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+
+import edu.wpi.first.networktables.BooleanPublisher;
+import edu.wpi.first.networktables.DoublePublisher;
+import edu.wpi.first.networktables.NetworkTable;
+import edu.wpi.first.networktables.NetworkTableInstance;
+import edu.wpi.first.networktables.StringPublisher;
+import edu.wpi.first.networktables.StructPublisher;
+import edu.wpi.first.util.struct.Struct;
+import edu.wpi.first.wpilibj.DriverStation;
+
+/**
+ * Batches dashboard telemetry so subsystems don't hit NetworkTables every loop.
+ *
+ * Topics are registered once (usually in a constructor) and hand back a typed entry.
+ * Subsystems write into the entry, which just stores the value, and {@link #flush()}
+ * publishes everything once per loop from Robot.robotPeriodic. Each topic can be
+ * published every N loops, and debug topics are skipped entirely in competition mode
+ * or when the FMS is attached.
+ *
+ * Topics live in the SmartDashboard table under the same keys the old
+ * SmartDashboard.putX calls used, so existing dashboard layouts keep working.
+ */
+public class Telemetry {
+    private static Telemetry mInstance;
+
+    public static class Settings {
+        // Set true for events, debug topics are also dropped whenever the FMS is attached
+        public static final boolean kCompetitionMode = false;
+        static final String kTableName = "SmartDashboard";
+    }
+
+    public enum Level {
+        kCompetition, // Always published
+        kDebug        // Only published outside of competition
+    }
+
+    private final NetworkTable mTable = NetworkTableInstance.getDefault().getTable(Settings.kTableName);
+    private final ArrayList<Entry> mEntries = new ArrayList<>();
+    // Only used while registering, flush walks the list
+    private final HashMap<String, Entry> mEntriesByKey = new HashMap<>();
+
+    private boolean mDebugEnabled = !Settings.kCompetitionMode;
+
+    private Telemetry() {}
+
+    public static Telemetry getInstance() {
+        if (mInstance == null) {
+            mInstance = new Telemetry();
+        }
+        return mInstance;
+    }
+
+    public DoubleEntry addDouble(String key, Level level) {
+        return addDouble(key, level, 1);
+    }
+
+    /**
+     * @param periodLoops publish every this many loops
+     */
+    public DoubleEntry addDouble(String key, Level level, int periodLoops) {
+        return register(key, DoubleEntry.class, () -> new DoubleEntry(key, level, periodLoops));
+    }
+
+    public BooleanEntry addBoolean(String key, Level level) {
+        return addBoolean(key, level, 1);
+    }
+
+    public BooleanEntry addBoolean(String key, Level level, int periodLoops) {
+        return register(key, BooleanEntry.class, () -> new BooleanEntry(key, level, periodLoops));
+    }
+
+    public StringEntry addString(String key, Level level) {
+        return addString(key, level, 1);
+    }
+
+    public StringEntry addString(String key, Level level, int periodLoops) {
+        return register(key, StringEntry.class, () -> new StringEntry(key, level, periodLoops));
+    }
+
+    public <T> StructEntry<T> addStruct(String key, Struct<T> struct, Level level) {
+        return addStruct(key, struct, level, 1);
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> StructEntry<T> addStruct(String key, Struct<T> struct, Level level, int periodLoops) {
+        return register(key, StructEntry.class, () -> new StructEntry<>(key, struct, level, periodLoops));
+    }
+
+    /**
+     * Publishes every entry that is due this loop. Call once per loop after the scheduler runs.
+     */
+    public void flush() {
+        mDebugEnabled = !Settings.kCompetitionMode && !DriverStation.isFMSAttached();
+        for (int i = 0; i < mEntries.size(); i++) {
+            var entry = mEntries.get(i);
+            if (!isEnabled(entry.mLevel)) {
+                continue;
+            }
+            if (--entry.mCountdown > 0) {
+                continue;
+            }
+            entry.mCountdown = entry.mPeriodLoops;
+            if (entry.mDirty) {
+                entry.mDirty = false;
+                entry.publish();
+            }
+        }
+    }
+
+    public boolean isDebugEnabled() {
+        return mDebugEnabled;
+    }
+
+    private boolean isEnabled(Level level) {
+        return level == Level.kCompetition || mDebugEnabled;
+    }
+
+    private interface EntryFactory<E extends Entry> {
+        E create();
+    }
+
+    // Multiple instances of a command can share a key, they all get the same entry
+    private <E extends Entry> E register(String key, Class<E> type, EntryFactory<E> factory) {
+        var existing = mEntriesByKey.get(key);
+        if (existing != null) {
+            if (!type.isInstance(existing)) {
+                throw new IllegalArgumentException("Telemetry key \"" + key + "\" is already registered as a different type");
+            }
+            return type.cast(existing);
+        }
+        E entry = factory.create();
+        mEntries.add(entry);
+        mEntriesByKey.put(key, entry);
+        return entry;
+    }
+
+    /**
+     * A single registered topic. The publisher is created on the first publish so
+     * debug topics never show up on the dashboard in competition.
+     */
+    public abstract class Entry {
+        final String mKey;
+        final Level mLevel;
+        final int mPeriodLoops;
+        int mCountdown = 1;
+        boolean mDirty = false;
+
+        Entry(String key, Level level, int periodLoops) {
+            mKey = key;
+            mLevel = level;
+            mPeriodLoops = Math.max(1, periodLoops);
+        }
+
+        /**
+         * @return true if a value set now would be published on the next flush. Use this
+         *     to skip computing values that are expensive to produce.
+         */
+        public boolean shouldUpdate() {
+            return isEnabled(mLevel) && mCountdown <= 1;
+        }
+
+        abstract void publish();
+    }
+
+    public final class DoubleEntry extends Entry {
+        private DoublePublisher mPublisher;
+        private double mValue;
+
+        DoubleEntry(String key, Level level, int periodLoops) {
+            super(key, level, periodLoops);
+        }
+
+        public void set(double value) {
+            mValue = value;
+            mDirty = true;
+        }
+
+        @Override
+        void publish() {
+            if (mPublisher == null) {
+                mPublisher = mTable.getDoubleTopic(mKey).publish();
+            }
+            mPublisher.set(mValue);
+        }
+    }
+
+    public final class BooleanEntry extends Entry {
+        private BooleanPublisher mPublisher;
+        private boolean mValue;
+
+        BooleanEntry(String key, Level level, int periodLoops) {
+            super(key, level, periodLoops);
+        }
+
+        public void set(boolean value) {
+            mValue = value;
+            mDirty = true;
+        }
+
+        @Override
+        void publish() {
+            if (mPublisher == null) {
+                mPublisher = mTable.getBooleanTopic(mKey).publish();
+            }
+            mPublisher.set(mValue);
+        }
+    }
+
+    public final class StringEntry extends Entry {
+        private StringPublisher mPublisher;
+        private String mValue = "";
+
+        StringEntry(String key, Level level, int periodLoops) {
+            super(key, level, periodLoops);
+        }
+
+        /**
+         * Enum names and constants don't allocate, prefer them over built strings.
+         */
+        public void set(String value) {
+            mValue = value;
+            mDirty = true;
+        }
+
+        @Override
+        void publish() {
+            if (mPublisher == null) {
+                mPublisher = mTable.getStringTopic(mKey).publish();
+            }
+            mPublisher.set(mValue);
+        }
+    }
+
+    public final class StructEntry<T> extends Entry {
+        private final Struct<T> mStruct;
+        private StructPublisher<T> mPublisher;
+        private T mValue;
+
+        StructEntry(String key, Struct<T> struct, Level level, int periodLoops) {
+            super(key, level, periodLoops);
+            mStruct = struct;
+        }
+
+        /**
+         * Only the reference is kept until flush, so don't pass an object that gets mutated.
+         */
+        public void set(T value) {
+            mValue = value;
+            mDirty = value != null;
+        }
+
+        @Override
+        void publish() {
+            if (mPublisher == null) {
+                mPublisher = mTable.getStructTopic(mKey, mStruct).publish();
+            }
+            mPublisher.set(mValue);
+        }
+    }
+}
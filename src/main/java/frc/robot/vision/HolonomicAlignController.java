@@ -0,0 +1,203 @@
+package frc.robot.vision;
+
+import static edu.wpi.first.units.Units.MetersPerSecond;
+import static edu.wpi.first.units.Units.MetersPerSecondPerSecond;
+import static edu.wpi.first.units.Units.RadiansPerSecond;
+import static edu.wpi.first.units.Units.RadiansPerSecondPerSecond;
+import static frc.robot.vision.VisionConfig.AlignmentConfig.*;
+
+import edu.wpi.first.math.MathUtil;
+import edu.wpi.first.math.controller.PIDController;
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.kinematics.ChassisSpeeds;
+import edu.wpi.first.math.trajectory.TrapezoidProfile;
+import edu.wpi.first.math.util.Units;
+import edu.wpi.first.wpilibj.TimedRobot;
+
+/**
+ * Drive-to-pose controller shared by the alignment commands.
+ *
+ * Translation is profiled as a single distance-to-goal along the line from the
+ * robot to the goal, so x and y reach the goal together and the drivetrain always
+ * accelerates and brakes within MAX_ALIGN_TRANSLATION_ACCELERATION. Heading gets its
+ * own profile. The output is the profiled velocity as a feedforward plus PID
+ * feedback on the error to the profile setpoint, so the feedback only has to clean
+ * up tracking error instead of doing all the work.
+ *
+ * Call {@link #reset(Pose2d, ChassisSpeeds)} when the command starts, then
+ * {@link #calculate(Pose2d, Pose2d)} every loop. The goal may change between loops,
+ * the profile carries its current setpoint over to the new goal.
+ */
+public class HolonomicAlignController {
+    public static final double TRANSLATION_TOLERANCE_METERS = Units.inchesToMeters(0.25);
+    public static final double THETA_TOLERANCE_RADIANS = Math.toRadians(1.0);
+
+    private static final double LOOP_PERIOD_SECONDS = TimedRobot.kDefaultPeriod;
+
+    private final double maxTranslationVelocity;
+    private final TrapezoidProfile translationProfile;
+    private final TrapezoidProfile thetaProfile;
+    private final PIDController translationFeedback;
+    private final PIDController thetaFeedback;
+
+    // Output is reused every loop, ApplyFieldSpeeds only reads it
+    private final ChassisSpeeds fieldSpeeds = new ChassisSpeeds();
+
+    private final TrapezoidProfile.State translationGoalState = new TrapezoidProfile.State(0.0, 0.0);
+    private final TrapezoidProfile.State translationState = new TrapezoidProfile.State();
+    private final TrapezoidProfile.State thetaGoalState = new TrapezoidProfile.State();
+    private final TrapezoidProfile.State thetaState = new TrapezoidProfile.State();
+
+    // Translation setpoint is kept as a field position so a moving goal doesn't reset the profile
+    private double setpointX;
+    private double setpointY;
+    private double resetVelocityX;
+    private double resetVelocityY;
+    private boolean projectResetVelocity = false;
+
+    private double distanceError = 0.0;
+    private double thetaError = 0.0;
+
+    public HolonomicAlignController() {
+        maxTranslationVelocity = MAX_ALIGN_TRANSLATION_VELOCITY.in(MetersPerSecond);
+        translationProfile = new TrapezoidProfile(new TrapezoidProfile.Constraints(
+            maxTranslationVelocity,
+            MAX_ALIGN_TRANSLATION_ACCELERATION.in(MetersPerSecondPerSecond)));
+        thetaProfile = new TrapezoidProfile(new TrapezoidProfile.Constraints(
+            MAX_ALIGN_ANGULAR_VELOCITY.in(RadiansPerSecond),
+            MAX_ALIGN_ANGULAR_ACCELERATION.in(RadiansPerSecondPerSecond)));
+
+        translationFeedback = new PIDController(XY_kP, XY_kI, XY_kD);
+        thetaFeedback = new PIDController(THETA_kP, THETA_kI, THETA_kD);
+        thetaFeedback.enableContinuousInput(-Math.PI, Math.PI);
+    }
+
+    /**
+     * Starts the profiles from where the robot is and how it's moving, so there's no
+     * jump in commanded velocity when an alignment takes over from the driver or a path.
+     *
+     * @param robotPose current field relative robot pose
+     * @param robotFieldSpeeds current field relative robot speeds
+     */
+    public void reset(Pose2d robotPose, ChassisSpeeds robotFieldSpeeds) {
+        setpointX = robotPose.getX();
+        setpointY = robotPose.getY();
+        resetVelocityX = robotFieldSpeeds.vxMetersPerSecond;
+        resetVelocityY = robotFieldSpeeds.vyMetersPerSecond;
+        // The goal isn't known yet, the velocity is projected onto the goal direction on the first calculate
+        projectResetVelocity = true;
+        translationState.velocity = 0.0;
+
+        thetaState.position = robotPose.getRotation().getRadians();
+        thetaState.velocity = robotFieldSpeeds.omegaRadiansPerSecond;
+
+        translationFeedback.reset();
+        thetaFeedback.reset();
+    }
+
+    /**
+     * Calculates field relative speeds to drive the robot to the goal.
+     *
+     * @param robotPose current field relative robot pose
+     * @param goalPose field relative goal pose
+     * @return field relative speeds, the same instance is returned every call
+     */
+    public ChassisSpeeds calculate(Pose2d robotPose, Pose2d goalPose) {
+        double goalX = goalPose.getX();
+        double goalY = goalPose.getY();
+
+        /* Translation */
+        double robotDx = robotPose.getX() - goalX;
+        double robotDy = robotPose.getY() - goalY;
+        double robotDistance = Math.hypot(robotDx, robotDy);
+
+        double setpointDx = setpointX - goalX;
+        double setpointDy = setpointY - goalY;
+        double setpointDistance = Math.hypot(setpointDx, setpointDy);
+        if (projectResetVelocity) {
+            // Rate of change of distance to the goal, negative when closing in
+            translationState.velocity = setpointDistance > 1e-6
+                ? (resetVelocityX * setpointDx + resetVelocityY * setpointDy) / setpointDistance
+                : 0.0;
+            projectResetVelocity = false;
+        }
+        translationState.position = setpointDistance;
+        var nextTranslation = translationProfile.calculate(LOOP_PERIOD_SECONDS, translationState, translationGoalState);
+        translationState.position = nextTranslation.position;
+        translationState.velocity = nextTranslation.velocity;
+
+        // Speed towards the goal, profiled velocity plus feedback on how far behind the setpoint we are
+        double approachSpeed = -translationState.velocity - translationFeedback.calculate(robotDistance, translationState.position);
+        approachSpeed = MathUtil.clamp(approachSpeed, -maxTranslationVelocity, maxTranslationVelocity);
+        distanceError = robotDistance;
+
+        if (robotDistance > 1e-6) {
+            double unitX = robotDx / robotDistance;
+            double unitY = robotDy / robotDistance;
+            // Next loop's setpoint sits on the line from the goal through the robot
+            setpointX = goalX + unitX * translationState.position;
+            setpointY = goalY + unitY * translationState.position;
+            // No speed deadband like the old applyLimits had, 0.07 m/s at XY_kP stalled the robot
+            // ~1.4 cm out, outside tolerance. Output only stops once we're actually there
+            if (robotDistance < TRANSLATION_TOLERANCE_METERS) {
+                fieldSpeeds.vxMetersPerSecond = 0.0;
+                fieldSpeeds.vyMetersPerSecond = 0.0;
+            } else {
+                fieldSpeeds.vxMetersPerSecond = -unitX * approachSpeed;
+                fieldSpeeds.vyMetersPerSecond = -unitY * approachSpeed;
+            }
+        } else {
+            setpointX = goalX;
+            setpointY = goalY;
+            fieldSpeeds.vxMetersPerSecond = 0.0;
+            fieldSpeeds.vyMetersPerSecond = 0.0;
+        }
+
+        /* Rotation */
+        double robotTheta = robotPose.getRotation().getRadians();
+        // Unwrap the goal and the robot heading around the setpoint so the profile takes the short way
+        thetaGoalState.position = thetaState.position + MathUtil.angleModulus(goalPose.getRotation().getRadians() - thetaState.position);
+        thetaGoalState.velocity = 0.0;
+        var nextTheta = thetaProfile.calculate(LOOP_PERIOD_SECONDS, thetaState, thetaGoalState);
+        thetaState.position = MathUtil.angleModulus(nextTheta.position);
+        thetaState.velocity = nextTheta.velocity;
+
+        thetaError = MathUtil.angleModulus(goalPose.getRotation().getRadians() - robotTheta);
+        if (Math.abs(thetaError) < THETA_TOLERANCE_RADIANS) {
+            fieldSpeeds.omegaRadiansPerSecond = 0.0;
+        } else {
+            fieldSpeeds.omegaRadiansPerSecond = thetaState.velocity + thetaFeedback.calculate(robotTheta, thetaState.position);
+        }
+
+        return fieldSpeeds;
+    }
+
+    /**
+     * @return true if the last calculate put the robot within tolerance of the goal
+     */
+    public boolean atGoal() {
+        return distanceError < TRANSLATION_TOLERANCE_METERS && Math.abs(thetaError) < THETA_TOLERANCE_RADIANS;
+    }
+
+    /** Distance from the robot to the goal as of the last calculate, in meters. */
+    public double getDistanceError() {
+        return distanceError;
+    }
+
+    /** Heading error as of the last calculate, in radians. */
+    public double getThetaError() {
+        return thetaError;
+    }
+
+    public double getSetpointX() {
+        return setpointX;
+    }
+
+    public double getSetpointY() {
+        return setpointY;
+    }
+
+    public double getSetpointTheta() {
+        return thetaState.position;
+    }
+}
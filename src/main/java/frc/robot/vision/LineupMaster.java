@@ -25,6 +25,7 @@ import edu.wpi.first.wpilibj2.command.Command;
 import edu.wpi.first.wpilibj2.command.SelectCommand;
 import frc.crevolib.math.Conversions;
 import frc.robot.drivetrain.CommandSwerveDrivetrain;
+import frc.robot.vision.VisionConfig.HPStation;
 import frc.robot.vision.VisionConfig.ReefFace;
 import frc.robot.vision.commands.AutoAlign;
 // import frc.robot.vision.commands.DriveToPoseCommand;
@@ -58,20 +59,13 @@ public class LineupMaster {
     }
 
     public static ReefFace getClosestReefFace(Supplier<Pose2d> robotPose){
-        double closestDistance = Double.MAX_VALUE; // Distance away from april tag
-        ReefFace closestFace = null;
-
-        for (ReefFace face: filteredReefFaces){
-            double distance = robotPose.get().getTranslation().getDistance(face.AprilTag.getTranslation());
-            if (distance < closestDistance) {
-                closestDistance = distance;
-                closestFace = face;
-            }
-        }
-
-        SmartDashboard.putString("closest reef face", closestFace.name());
+        Pose2d pose = robotPose.get();
+        return ReefSectorIndex.nearestReefFace(pose.getX(), pose.getY());
+    }
 
-        return closestFace;
+    public static HPStation getClosestHPStation(Supplier<Pose2d> robotPose){
+        Pose2d pose = robotPose.get();
+        return ReefSectorIndex.nearestHPStation(pose.getX(), pose.getY());
     }
 
     public Command directDriveToPose(Supplier<Pose2d> targetPose, Supplier<Boolean> isLeftAlign) {
@@ -2,8 +2,7 @@ package frc.robot.vision;
 
 import static frc.robot.vision.VisionConfig.AMBIGUITY_THRESHOLD;
 
-import java.io.IOException;
-import java.util.concurrent.atomic.AtomicReference;
+import java.util.EnumSet;
 
 import org.photonvision.EstimatedRobotPose;
 import org.photonvision.PhotonCamera;
@@ -14,19 +13,35 @@ import edu.wpi.first.apriltag.AprilTagFieldLayout;
 import edu.wpi.first.apriltag.AprilTagFieldLayout.OriginPosition;
 import edu.wpi.first.apriltag.AprilTagFields;
 import edu.wpi.first.math.geometry.Transform3d;
+import edu.wpi.first.networktables.NetworkTableEvent;
+import edu.wpi.first.networktables.NetworkTableInstance;
+import edu.wpi.first.networktables.NetworkTableListenerPoller;
+import edu.wpi.first.util.WPIUtilJNI;
 import edu.wpi.first.wpilibj.DriverStation;
 
 /**
  * Runnable that gets AprilTag data from PhotonVision.
+ *
+ * Each camera gets its own worker thread (see {@link #start()}) that sleeps until
+ * PhotonVision publishes a new frame, runs the pose estimator, and stores every
+ * valid estimate in this camera's {@link VisionMeasurementBuffer} for the robot thread.
  */
 public class PhotonRunnable implements Runnable {
 
+  // How long the worker waits for a new frame before re-checking if it should stop
+  private static final double FRAME_WAIT_TIMEOUT_SECONDS = 0.1;
+
   private final PhotonPoseEstimator photonPoseEstimator;
   private final PhotonCamera photonCamera;
-  private final AtomicReference<EstimatedRobotPose> atomicEstimatedRobotPose = new AtomicReference<EstimatedRobotPose>();
+  private final VisionMeasurementBuffer measurementBuffer = new VisionMeasurementBuffer(VisionConfig.MEASUREMENT_BUFFER_SIZE);
+  private final NetworkTableListenerPoller framePoller;
+
+  private volatile boolean running = false;
+  private Thread workerThread;
 
   public PhotonRunnable(PhotonCamera cameraName, Transform3d robotToCamera) {
     this.photonCamera = cameraName;
+    this.framePoller = new NetworkTableListenerPoller(NetworkTableInstance.getDefault());
     PhotonPoseEstimator photonPoseEstimator = null;
     try {
       var layout = AprilTagFieldLayout.loadField(AprilTagFields.k2025ReefscapeWelded);
@@ -50,6 +65,9 @@ public class PhotonRunnable implements Runnable {
     if (photonPoseEstimator != null && photonCamera != null) {
       var photonResults = photonCamera.getAllUnreadResults();
       for(var result : photonResults) {
+          // When NT got this frame, the worker can wake up once for several of them.
+          // NT time is the FPGA clock on the robot
+          double receiveTimestamp = result.ntReceiveTimestampMicros * 1e-6;
           if (result.hasTargets()
           && (result.targets.size() > 1
               || result.targets.get(0).getPoseAmbiguity() < AMBIGUITY_THRESHOLD)) {
@@ -58,26 +76,77 @@ public class PhotonRunnable implements Runnable {
             // Make sure the measurement is on the field
             if (estimatedPose.getX() > 0.0 && estimatedPose.getX() <= VisionConfig.FIELD_LENGTH_METERS
                 && estimatedPose.getY() > 0.0 && estimatedPose.getY() <= VisionConfig.FIELD_WIDTH_METERS) {
-              atomicEstimatedRobotPose.set(estimatedRobotPose);
+              measurementBuffer.offer(estimatedRobotPose, estimatedRobotPose.timestampSeconds, receiveTimestamp);
             }
           });
         }
       }
-      
+
     }
   }
 
   /**
-   * Gets the latest robot pose. Calling this will only return the pose once. If
-   * it returns a non-null value, it is a
-   * new estimate that hasn't been returned before.
-   * This pose will always be for the BLUE alliance. It must be flipped if the
+   * Gets the buffer of estimates produced by this camera. Every estimate is kept
+   * with its own capture timestamp until the robot thread pops it.
+   * These poses will always be for the BLUE alliance. They must be flipped if the
    * current alliance is RED.
-   * 
-   * @return latest estimated pose
+   *
+   * @return this camera's estimate buffer
+   */
+  public VisionMeasurementBuffer getMeasurementBuffer() {
+    return measurementBuffer;
+  }
+
+  /**
+   * Starts this camera's worker thread. The worker blocks on a NetworkTables
+   * listener for the camera's result topic so it runs as soon as a frame is
+   * published instead of waiting for the next notifier tick.
+   */
+  public synchronized void start() {
+    if (running || photonCamera == null) {
+      return;
+    }
+    framePoller.addListener(
+        new String[] {"/photonvision/" + photonCamera.getName() + "/rawBytes"},
+        EnumSet.of(NetworkTableEvent.Kind.kValueAll));
+
+    running = true;
+    workerThread = new Thread(this::workerLoop, "PhotonRunnable-" + photonCamera.getName());
+    workerThread.setDaemon(true);
+    workerThread.start();
+  }
+
+  /**
+   * Stops the worker thread. Any estimates already buffered are left for the robot thread.
    */
-  public EstimatedRobotPose grabLatestEstimatedPose() {
-    return atomicEstimatedRobotPose.getAndSet(null);
+  public synchronized void stop() {
+    if (!running) {
+      return;
+    }
+    running = false;
+    workerThread.interrupt();
+    framePoller.close();
+  }
+
+  private void workerLoop() {
+    while (running) {
+      try {
+        WPIUtilJNI.waitForObjectTimeout(framePoller.getHandle(), FRAME_WAIT_TIMEOUT_SECONDS);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return;
+      }
+      if (!running) {
+        return;
+      }
+      // Clear the wakeup events, the frames themselves are read through the camera
+      framePoller.readQueue();
+      try {
+        run();
+      } catch (Exception e) {
+        DriverStation.reportError("PhotonRunnable worker for " + photonCamera.getName() + " failed", e.getStackTrace());
+      }
+    }
   }
 
-}
\ No newline at end of file
+}
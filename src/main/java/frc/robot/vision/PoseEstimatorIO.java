@@ -0,0 +1,44 @@
+package frc.robot.vision;
+
+import org.littletonrobotics.junction.AutoLog;
+
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.kinematics.SwerveModulePosition;
+
+/**
+ * Sensor layer of the pose estimator. Everything the estimator fuses comes in
+ * through here, so on the robot and in the desktop sim it's backed by the
+ * drivetrain's odometry and the PhotonVision cameras, and in replay by nothing at
+ * all (the inputs come back out of the log and the estimator reruns on them).
+ */
+public interface PoseEstimatorIO {
+  @AutoLog
+  public static class PoseEstimatorIOInputs {
+    // Newest pose from the drivetrain's odometry thread, this is the fused pose in
+    // kDrivetrainOdometry mode. Timestamp is in the Phoenix current-time timebase
+    public Pose2d odometryPose = Pose2d.kZero;
+    public double odometryTimestamp = 0.0;
+    public int odometrySampleCount = 0;
+    // Raw sensors, only read in kRioLoop mode
+    public Rotation2d gyroRotation = Rotation2d.kZero;
+    public SwerveModulePosition[] modulePositions = new SwerveModulePosition[0];
+
+    // Every vision estimate buffered since the last loop, one entry per estimate.
+    // Poses are always blue origin, timestamps are FPGA seconds
+    public Pose2d[] visionPoses = new Pose2d[0];
+    public double[] visionTimestamps = new double[0];
+    public double[] visionReceiveTimestamps = new double[0];
+    // Index into VisionConfig.CAM_NAMES
+    public int[] visionCameras = new int[0];
+    // What the confidence calculation needs from the targets used
+    public int[] visionTagCounts = new int[0];
+    public double[] visionClosestTagDistances = new double[0];
+    public double[] visionAmbiguities = new double[0];
+    // Estimates each camera's buffer has dropped, by VisionConfig.CAM_NAMES index
+    public long[] visionDroppedCounts = new long[0];
+  }
+
+  /** Reads the latest values into the inputs, called once at the top of periodic() */
+  default void updateInputs(PoseEstimatorIOInputs inputs) {}
+}
@@ -0,0 +1,129 @@
+package frc.robot.vision;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.photonvision.PhotonCamera;
+
+import com.ctre.phoenix6.swerve.SwerveDrivetrain.SwerveDriveState;
+
+import edu.wpi.first.math.geometry.Pose2d;
+import frc.robot.drivetrain.CommandSwerveDrivetrain;
+import frc.robot.vision.VisionConfig.PoseEstimatorMode;
+
+/**
+ * Pose estimator inputs from the Phoenix swerve odometry and the PhotonVision
+ * cameras. Used on the robot and in the desktop sim, where the drivetrain runs on
+ * its own sim thread.
+ */
+public class PoseEstimatorIOPhoton implements PoseEstimatorIO {
+  private final CommandSwerveDrivetrain drivetrain = CommandSwerveDrivetrain.getInstance();
+  private final boolean useDrivetrainOdometry = VisionConfig.POSE_ESTIMATOR_MODE == PoseEstimatorMode.kDrivetrainOdometry;
+
+  // Same order as VisionConfig.CAM_NAMES
+  private final PhotonRunnable[] cameras = new PhotonRunnable[VisionConfig.CAM_NAMES.length];
+  // Estimates taken from each camera this loop
+  private final int[] drainCounts = new int[cameras.length];
+  // Handed to the inputs every loop and filled in place
+  private final long[] droppedCounts = new long[cameras.length];
+
+  // Written by the Phoenix odometry thread on every odometry sample
+  private volatile Pose2d latestOdometryPose;
+  private volatile double latestOdometryTimestamp;
+  private final AtomicInteger odometrySampleCount = new AtomicInteger();
+
+  public PoseEstimatorIOPhoton() {
+    if (useDrivetrainOdometry) {
+      latestOdometryPose = drivetrain.getState().Pose;
+      // Called from the odometry thread after every sample, so we always have the newest pose
+      drivetrain.registerTelemetry(this::onOdometrySample);
+    }
+
+    // Each camera runs on its own worker thread and wakes up on new frames
+    for (int i = 0; i < cameras.length; i++) {
+      cameras[i] = new PhotonRunnable(new PhotonCamera(VisionConfig.CAM_NAMES[i]),
+          VisionConfig.ROBOT_TO_CAM_TRANSFORMS[i]);
+      cameras[i].start();
+    }
+  }
+
+  /**
+   * Telemetry callback from the drivetrain's odometry thread. Runs once per odometry
+   * sample, so keep it cheap.
+   */
+  private void onOdometrySample(SwerveDriveState state) {
+    latestOdometryPose = state.Pose;
+    latestOdometryTimestamp = state.Timestamp;
+    odometrySampleCount.incrementAndGet();
+  }
+
+  @Override
+  public void updateInputs(PoseEstimatorIOInputs inputs) {
+    inputs.visionDroppedCounts = droppedCounts;
+    if (useDrivetrainOdometry) {
+      inputs.odometryPose = latestOdometryPose;
+      inputs.odometryTimestamp = latestOdometryTimestamp;
+      inputs.odometrySampleCount = odometrySampleCount.getAndSet(0);
+    } else {
+      inputs.gyroRotation = drivetrain.getGyroRotation();
+      inputs.modulePositions = drivetrain.getSwerveModulePositions();
+    }
+
+    if (!VisionConfig.USE_VISION) {
+      for (var camera : cameras) {
+        camera.stop();
+        camera.getMeasurementBuffer().clear();
+      }
+      clearVision(inputs);
+      return;
+    }
+
+    // Only drain what's there now, anything the workers add meanwhile waits for the next loop
+    int total = 0;
+    for (int i = 0; i < cameras.length; i++) {
+      drainCounts[i] = cameras[i].getMeasurementBuffer().size();
+      total += drainCounts[i];
+    }
+    resizeVision(inputs, total);
+
+    int index = 0;
+    for (int i = 0; i < cameras.length; i++) {
+      var buffer = cameras[i].getMeasurementBuffer();
+      for (int j = 0; j < drainCounts[i]; j++) {
+        var measurement = buffer.peek();
+        var targetsUsed = measurement.getEstimate().targetsUsed;
+        inputs.visionPoses[index] = measurement.getEstimate().estimatedPose.toPose2d();
+        inputs.visionTimestamps[index] = measurement.getTimestampSeconds();
+        inputs.visionReceiveTimestamps[index] = measurement.getReceiveTimestampSeconds();
+        inputs.visionCameras[index] = i;
+        inputs.visionTagCounts[index] = targetsUsed.size();
+        inputs.visionClosestTagDistances[index] = PoseEstimatorSubsystem.closestTagDistance(targetsUsed);
+        inputs.visionAmbiguities[index] = targetsUsed.isEmpty() ? 0.0 : targetsUsed.get(0).getPoseAmbiguity();
+        buffer.pop();
+        index++;
+      }
+      droppedCounts[i] = buffer.getDroppedCount();
+    }
+  }
+
+  private void clearVision(PoseEstimatorIOInputs inputs) {
+    resizeVision(inputs, 0);
+    for (int i = 0; i < cameras.length; i++) {
+      droppedCounts[i] = cameras[i].getMeasurementBuffer().getDroppedCount();
+    }
+  }
+
+  // Cameras mostly deliver the same number of frames each loop, so the arrays are only
+  // reallocated when that number changes and are filled in place otherwise
+  private void resizeVision(PoseEstimatorIOInputs inputs, int count) {
+    if (inputs.visionPoses.length == count) {
+      return;
+    }
+    inputs.visionPoses = new Pose2d[count];
+    inputs.visionTimestamps = new double[count];
+    inputs.visionReceiveTimestamps = new double[count];
+    inputs.visionCameras = new int[count];
+    inputs.visionTagCounts = new int[count];
+    inputs.visionClosestTagDistances = new double[count];
+    inputs.visionAmbiguities = new double[count];
+  }
+}
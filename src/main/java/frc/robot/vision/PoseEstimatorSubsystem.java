@@ -3,13 +3,14 @@ package frc.robot.vision;
 import static edu.wpi.first.apriltag.AprilTagFieldLayout.OriginPosition.kBlueAllianceWallRightSide;
 import static edu.wpi.first.apriltag.AprilTagFieldLayout.OriginPosition.kRedAllianceWallRightSide;
 
-import java.util.function.Supplier;
+import java.util.List;
 
-import org.photonvision.EstimatedRobotPose;
-import org.photonvision.PhotonCamera;
+import org.littletonrobotics.junction.Logger;
+import org.photonvision.targeting.PhotonTrackedTarget;
 
 import edu.wpi.first.apriltag.AprilTagFieldLayout.OriginPosition;
 import edu.wpi.first.math.Matrix;
+import edu.wpi.first.math.Nat;
 import edu.wpi.first.math.estimator.SwerveDrivePoseEstimator;
 import edu.wpi.first.math.geometry.Pose2d;
 import edu.wpi.first.math.geometry.Rotation2d;
@@ -19,12 +20,17 @@ import edu.wpi.first.math.numbers.N1;
 import edu.wpi.first.math.numbers.N3;
 import edu.wpi.first.math.trajectory.Trajectory;
 import edu.wpi.first.wpilibj.DriverStation.Alliance;
-import edu.wpi.first.wpilibj.Notifier;
+import edu.wpi.first.wpilibj.Timer;
 import edu.wpi.first.wpilibj.shuffleboard.ShuffleboardTab;
 import edu.wpi.first.wpilibj.smartdashboard.Field2d;
 import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
 import edu.wpi.first.wpilibj2.command.SubsystemBase;
+import frc.crevolib.util.LoopProfiler;
+import frc.robot.Robot;
 import frc.robot.drivetrain.CommandSwerveDrivetrain;
+import frc.robot.telemetry.Telemetry;
+import frc.robot.telemetry.Telemetry.Level;
+import frc.robot.vision.VisionConfig.PoseEstimatorMode;
 
 public class PoseEstimatorSubsystem extends SubsystemBase {
 
@@ -40,36 +46,64 @@ public class PoseEstimatorSubsystem extends SubsystemBase {
   // This in turn means the particualr component will have a stronger influence
   // on the final pose estimate.
 
-  private final Supplier<Rotation2d> rotationSupplier;
-  private final Supplier<SwerveModulePosition[]> modulePositionSupplier;
+  private final CommandSwerveDrivetrain drivetrain;
+  private final boolean useDrivetrainOdometry = VisionConfig.POSE_ESTIMATOR_MODE == PoseEstimatorMode.kDrivetrainOdometry;
+  // Only used in kRioLoop mode, otherwise the drivetrain's estimator is the only one
   private final SwerveDrivePoseEstimator poseEstimator;
+  // The estimator starts from zeroed modules, it's reset onto the real ones on the first loop
+  private boolean odometryInitialized = false;
+
+  private final PoseEstimatorIO io;
+  private final PoseEstimatorIOInputsAutoLogged inputs = new PoseEstimatorIOInputsAutoLogged();
   private final Field2d field2d = new Field2d();
-  private final PhotonRunnable rightEstimator = new PhotonRunnable(new PhotonCamera(VisionConfig.CAM_NAMES[1]),
-      VisionConfig.ROBOT_TO_CAM_TRANSFORMS[1]);
-  private final PhotonRunnable leftEstimator = new PhotonRunnable(new PhotonCamera(VisionConfig.CAM_NAMES[0]),
-      VisionConfig.ROBOT_TO_CAM_TRANSFORMS[0]);
 
-  private final Notifier allNotifier = new Notifier(() -> {
-    rightEstimator.run();
-    leftEstimator.run();
-  });
+  // Telemetry
+  private final Telemetry.StructEntry<Pose2d> poseEntry = Telemetry.getInstance().addStruct("Pose", Pose2d.struct, Level.kCompetition);
+  private final Telemetry.StringEntry formattedPoseEntry = Telemetry.getInstance().addString("Pose Formatted", Level.kDebug, 10);
+  private final Telemetry.DoubleEntry odometrySamplesEntry = Telemetry.getInstance().addDouble("Odometry Samples Per Loop", Level.kDebug);
+
+  private static final double BASE_VISION_STD_DEV_X = VisionConfig.VISION_MEASUREMENT_STANDARD_DEVIATIONS.get(0, 0);
+  private static final double BASE_VISION_STD_DEV_Y = VisionConfig.VISION_MEASUREMENT_STANDARD_DEVIATIONS.get(1, 0);
+  private static final double BASE_VISION_STD_DEV_THETA = VisionConfig.VISION_MEASUREMENT_STANDARD_DEVIATIONS.get(2, 0);
+  // Scratch std devs handed to the estimator, only touched from periodic().
+  // Both estimators copy the values out so it can be reused.
+  private final Matrix<N3, N1> visionStdDevs = new Matrix<>(Nat.N3(), Nat.N1());
+  // Same order as VisionConfig.CAM_NAMES
+  private final VisionLatencyTracker[] latencyTrackers = new VisionLatencyTracker[VisionConfig.CAM_NAMES.length];
 
   private OriginPosition originPosition = kBlueAllianceWallRightSide;
 
   private static PoseEstimatorSubsystem mInstance;
+  private final LoopProfiler.Section loopProfile = LoopProfiler.getInstance().addSection("PoseEstimatorSubsystem.periodic()");
+
+  public PoseEstimatorSubsystem() {
+    this.drivetrain = CommandSwerveDrivetrain.getInstance();
 
-  public PoseEstimatorSubsystem(Supplier<Rotation2d> rotationSupplier,
-      Supplier<SwerveModulePosition[]> modulePositionSupplier) {
-    this.rotationSupplier = rotationSupplier;
-    this.modulePositionSupplier = modulePositionSupplier;
+    // The drivetrain runs on its sim thread in kSim, so the same odometry and
+    // cameras work there
+    io = switch (Robot.kMode) {
+      case kReal, kSim -> new PoseEstimatorIOPhoton();
+      case kReplay -> new PoseEstimatorIO() {};
+    };
 
-    poseEstimator = new SwerveDrivePoseEstimator(
-        CommandSwerveDrivetrain.getInstance().getKinematics(),
-        rotationSupplier.get(),
-        modulePositionSupplier.get(),
-        new Pose2d(),
-        VisionConfig.STATE_STANDARD_DEVIATIONS,
-        VisionConfig.VISION_MEASUREMENT_STANDARD_DEVIATIONS);
+    if (useDrivetrainOdometry) {
+      poseEstimator = null;
+    } else {
+      var modulePositions = new SwerveModulePosition[drivetrain.getModules().length];
+      for (int i = 0; i < modulePositions.length; i++) {
+        modulePositions[i] = new SwerveModulePosition();
+      }
+      poseEstimator = new SwerveDrivePoseEstimator(
+          drivetrain.getKinematics(),
+          Rotation2d.kZero,
+          modulePositions,
+          new Pose2d(),
+          VisionConfig.STATE_STANDARD_DEVIATIONS,
+          VisionConfig.VISION_MEASUREMENT_STANDARD_DEVIATIONS);
+    }
+    for (int i = 0; i < latencyTrackers.length; i++) {
+      latencyTrackers[i] = new VisionLatencyTracker(VisionConfig.CAM_NAMES[i]);
+    }
 
     // Start PhotonVision thread
     // rightNotifier.setName("rightRunnable");
@@ -79,9 +113,6 @@ public class PoseEstimatorSubsystem extends SubsystemBase {
     // leftNotifier.setName("leftRunnable");
     // leftNotifier.startPeriodic(0.02);
 
-    allNotifier.setName("runAll");
-    allNotifier.startPeriodic(0.02);
-
     SmartDashboard.putData("Field Pose Estimation", field2d);
     // backNotifier.setName("backRunnable");
     // backNotifier.startPeriodic(0.02);
@@ -90,8 +121,7 @@ public class PoseEstimatorSubsystem extends SubsystemBase {
 
   public static PoseEstimatorSubsystem getInstance() {
     if(mInstance == null) {
-      CommandSwerveDrivetrain mDrivetrain = CommandSwerveDrivetrain.getInstance();
-      mInstance = new PoseEstimatorSubsystem(mDrivetrain::getGyroRotation, mDrivetrain::getSwerveModulePositions);
+      mInstance = new PoseEstimatorSubsystem();
     }
     return mInstance;
   }
@@ -127,32 +157,57 @@ public class PoseEstimatorSubsystem extends SubsystemBase {
       // the estimated pose
       // needs to be transformed to the new coordinate system.
       var newPose = flipAlliance(getCurrentPose());
-      poseEstimator.resetPosition(rotationSupplier.get(), modulePositionSupplier.get(), newPose);
+      setCurrentPose(newPose);
     }
   }
 
   @Override
   public void periodic() {
-    // Update pose estimator with drivetrain sensors
-    poseEstimator.update(rotationSupplier.get(), modulePositionSupplier.get());
+    loopProfile.start();
+    io.updateInputs(inputs);
+    Logger.processInputs("PoseEstimator", inputs);
+
+    // Update pose estimator with drivetrain sensors. In kDrivetrainOdometry mode the
+    // odometry thread already did this for every sample since the last loop.
+    if (!useDrivetrainOdometry && inputs.modulePositions.length == drivetrain.getModules().length) {
+      if (odometryInitialized) {
+        poseEstimator.update(inputs.gyroRotation, inputs.modulePositions);
+      } else {
+        poseEstimator.resetPosition(inputs.gyroRotation, inputs.modulePositions, poseEstimator.getEstimatedPosition());
+        odometryInitialized = true;
+      }
+    }
     if (VisionConfig.USE_VISION) {
-      estimatorChecker(rightEstimator);
-      estimatorChecker(leftEstimator);
-    } else {
-      allNotifier.close();
+      fuseVisionMeasurements();
+      for (int i = 0; i < latencyTrackers.length; i++) {
+        latencyTrackers[i].periodic(i < inputs.visionDroppedCounts.length ? inputs.visionDroppedCounts[i] : 0);
+      }
     }
 
     // estimatorChecker(backEstimator);
 
     // Set the pose on the dashboard
-    var dashboardPose = poseEstimator.getEstimatedPosition();
+    var dashboardPose = getCurrentPose();
     if (originPosition == kRedAllianceWallRightSide) {
       // Flip the pose when red, since the dashboard field photo cannot be rotated
       dashboardPose = flipAlliance(dashboardPose);
     }
     field2d.setRobotPose(dashboardPose);
-    SmartDashboard.putString("Pose Formatted", getFomattedPose());
-    
+    poseEntry.set(getCurrentPose());
+    // String.format allocates, only build it when it's going to be published
+    if (formattedPoseEntry.shouldUpdate()) {
+      formattedPoseEntry.set(getFomattedPose());
+    }
+    odometrySamplesEntry.set(inputs.odometrySampleCount);
+    Logger.recordOutput("PoseEstimator/Pose", getCurrentPose());
+    if (!useDrivetrainOdometry) {
+      // Only fused here in kRioLoop mode, so this is the pose replay actually recomputes.
+      // In kDrivetrainOdometry mode the fusion happened in the drivetrain and comes back
+      // out of the log as odometryPose
+      Logger.recordOutput("PoseEstimator/FusedPose", poseEstimator.getEstimatedPosition());
+    }
+
+    loopProfile.stop();
   }
 
   private String getFomattedPose() {
@@ -163,10 +218,27 @@ public class PoseEstimatorSubsystem extends SubsystemBase {
         pose.getRotation().getDegrees());
   }
 
+  /**
+   * Gets the fused robot pose. This is the one pose everything (auto, alignment,
+   * dashboard) should use.
+   *
+   * @return current pose estimate
+   */
   public Pose2d getCurrentPose() {
+    if (useDrivetrainOdometry) {
+      return inputs.odometryPose;
+    }
     return poseEstimator.getEstimatedPosition();
   }
 
+  /**
+   * @return timestamp of the latest odometry sample in kDrivetrainOdometry mode, in
+   *         the Phoenix current-time timebase
+   */
+  public double getLatestOdometryTimestamp() {
+    return inputs.odometryTimestamp;
+  }
+
   /**
    * Resets the current pose to the specified pose. This should ONLY be called
    * when the robot's position on the field is known, like at the beginning of
@@ -175,7 +247,16 @@ public class PoseEstimatorSubsystem extends SubsystemBase {
    * @param newPose new pose
    */
   public void setCurrentPose(Pose2d newPose) {
-    poseEstimator.resetPosition(rotationSupplier.get(), modulePositionSupplier.get(), newPose);
+    // Keep the drivetrain's pose in agreement in both modes
+    drivetrain.resetPose(newPose);
+    if (useDrivetrainOdometry) {
+      // Until the odometry thread catches up on the next loop
+      inputs.odometryPose = newPose;
+    } else if (odometryInitialized) {
+      poseEstimator.resetPosition(inputs.gyroRotation, inputs.modulePositions, newPose);
+    } else {
+      poseEstimator.resetPose(newPose);
+    }
   }
 
   /**
@@ -211,22 +292,75 @@ public class PoseEstimatorSubsystem extends SubsystemBase {
   // yValues.clear();
   // }
 
-  private Matrix<N3, N1> confidenceCalculator(EstimatedRobotPose estimation) {
-    double smallestDistance = Double.POSITIVE_INFINITY;
-    for (var target : estimation.targetsUsed) {
-      var t3d = target.getBestCameraToTarget();
-      var distance = Math.sqrt(Math.pow(t3d.getX(), 2) + Math.pow(t3d.getY(), 2) + Math.pow(t3d.getZ(), 2));
-      if (distance < smallestDistance)
-        smallestDistance = distance;
+  /**
+   * Fills in the standard deviations for a set of targets. Static so it can be
+   * benchmarked without the subsystem.
+   *
+   * @param targetsUsed targets used for the estimate
+   * @param stdDevs matrix the result is written into and returned
+   */
+  static Matrix<N3, N1> confidenceCalculator(List<PhotonTrackedTarget> targetsUsed, Matrix<N3, N1> stdDevs) {
+    return confidenceCalculator(confidenceMultiplier(targetsUsed), stdDevs);
+  }
+
+  private static Matrix<N3, N1> confidenceCalculator(double confidenceMultiplier, Matrix<N3, N1> stdDevs) {
+    // Same as VISION_MEASUREMENT_STANDARD_DEVIATIONS.times(confidenceMultiplier) without allocating
+    stdDevs.set(0, 0, BASE_VISION_STD_DEV_X * confidenceMultiplier);
+    stdDevs.set(1, 0, BASE_VISION_STD_DEV_Y * confidenceMultiplier);
+    stdDevs.set(2, 0, BASE_VISION_STD_DEV_THETA * confidenceMultiplier);
+    return stdDevs;
+  }
+
+  /**
+   * Scales the vision standard deviations by how far away the closest tag is, how
+   * ambiguous a single tag is, and how many tags were seen. Compares squared
+   * distances and indexes the target list directly so nothing is allocated per frame.
+   *
+   * @param targetsUsed targets used for the estimate
+   * @return multiplier applied to {@link VisionConfig#VISION_MEASUREMENT_STANDARD_DEVIATIONS}
+   */
+  public static double confidenceMultiplier(List<PhotonTrackedTarget> targetsUsed) {
+    int targetCount = targetsUsed.size();
+    return confidenceMultiplier(targetCount, closestTagDistance(targetsUsed),
+        targetCount == 1 ? targetsUsed.get(0).getPoseAmbiguity() : 0.0);
+  }
+
+  /**
+   * @param targetsUsed targets used for the estimate
+   * @return distance from the camera to the closest target, infinite if there are none
+   */
+  public static double closestTagDistance(List<PhotonTrackedTarget> targetsUsed) {
+    int targetCount = targetsUsed.size();
+    double smallestDistanceSquared = Double.POSITIVE_INFINITY;
+    for (int i = 0; i < targetCount; i++) {
+      var t3d = targetsUsed.get(i).getBestCameraToTarget();
+      double x = t3d.getX();
+      double y = t3d.getY();
+      double z = t3d.getZ();
+      double distanceSquared = x * x + y * y + z * z;
+      if (distanceSquared < smallestDistanceSquared)
+        smallestDistanceSquared = distanceSquared;
     }
-    double poseAmbiguityFactor = estimation.targetsUsed.size() != 1
+    return Math.sqrt(smallestDistanceSquared);
+  }
+
+  /**
+   * Same as {@link #confidenceMultiplier(List)} from what the pose estimator logs
+   * about the targets, so replay doesn't need the targets themselves.
+   *
+   * @param targetCount number of targets used for the estimate
+   * @param smallestDistance distance to the closest target
+   * @param singleTagAmbiguity pose ambiguity of the target, only used with one target
+   */
+  public static double confidenceMultiplier(int targetCount, double smallestDistance, double singleTagAmbiguity) {
+    double poseAmbiguityFactor = targetCount != 1
         ? 1
         : Math.max(
             1,
-            (estimation.targetsUsed.get(0).getPoseAmbiguity()
+            (singleTagAmbiguity
                 + VisionConfig.POSE_AMBIGUITY_SHIFTER)
                 * VisionConfig.POSE_AMBIGUITY_MULTIPLIER);
-    double confidenceMultiplier = Math.max(
+    return Math.max(
         1,
         (Math.max(
             1,
@@ -234,21 +368,39 @@ public class PoseEstimatorSubsystem extends SubsystemBase {
                 * VisionConfig.DISTANCE_WEIGHT)
             * poseAmbiguityFactor)
             / (1
-                + ((estimation.targetsUsed.size() - 1) * VisionConfig.TAG_PRESENCE_WEIGHT)));
-
-    return VisionConfig.VISION_MEASUREMENT_STANDARD_DEVIATIONS.times(confidenceMultiplier);
+                + ((targetCount - 1) * VisionConfig.TAG_PRESENCE_WEIGHT)));
   }
 
-  public void estimatorChecker(PhotonRunnable estimator) {
-    var cameraPose = estimator.grabLatestEstimatedPose();
-    if (cameraPose != null) {
+  /**
+   * Fuses every estimate the cameras buffered since the last loop, each with its
+   * own capture timestamp. Estimates older than
+   * {@link VisionConfig#MAX_VISION_MEASUREMENT_AGE_SECONDS} are rejected, and the
+   * latency of everything else is recorded.
+   */
+  private void fuseVisionMeasurements() {
+    // Loop timestamp, the FPGA clock on the robot and the log's clock in replay
+    double fusionTimestamp = Timer.getTimestamp();
+    for (int i = 0; i < inputs.visionPoses.length; i++) {
+      var latencyTracker = latencyTrackers[inputs.visionCameras[i]];
+      double timestamp = inputs.visionTimestamps[i];
+      if (fusionTimestamp - timestamp > VisionConfig.MAX_VISION_MEASUREMENT_AGE_SECONDS) {
+        latencyTracker.recordRejectedStale();
+        continue;
+      }
       // New pose from vision
-      var pose2d = cameraPose.estimatedPose.toPose2d();
+      var pose2d = inputs.visionPoses[i];
       if (originPosition == kRedAllianceWallRightSide) {
         pose2d = flipAlliance(pose2d);
       }
-      poseEstimator.addVisionMeasurement(pose2d, cameraPose.timestampSeconds,
-          confidenceCalculator(cameraPose));
+      var stdDevs = confidenceCalculator(confidenceMultiplier(inputs.visionTagCounts[i],
+          inputs.visionClosestTagDistances[i], inputs.visionAmbiguities[i]), visionStdDevs);
+      if (useDrivetrainOdometry) {
+        // Drivetrain converts the FPGA timestamp into its own timebase
+        drivetrain.addVisionMeasurement(pose2d, timestamp, stdDevs);
+      } else {
+        poseEstimator.addVisionMeasurement(pose2d, timestamp, stdDevs);
+      }
+      latencyTracker.recordFused(timestamp, inputs.visionReceiveTimestamps[i], fusionTimestamp);
     }
   }
-}
\ No newline at end of file
+}
@@ -0,0 +1,104 @@
+package frc.robot.vision;
+
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.geometry.Transform2d;
+import edu.wpi.first.math.util.Units;
+import frc.crevolib.math.Conversions;
+import frc.robot.vision.VisionConfig.ReefFace;
+
+/**
+ * Final robot poses for lining up on a reef branch, built once at startup.
+ *
+ * A goal depends on the reef face, which branch (left/right), which side the wrist
+ * is facing and whether the elevator is going to L4 (L4 uses the pushed-back
+ * _L4 face poses). Every combination is precomputed so looking one up is a single
+ * array index with no allocation.
+ */
+public final class ReefAlignmentGoals {
+
+    /* Blue Alliance */
+    // private static final double BRANCH_OFFSET_RIGHT_WRIST = Units.inchesToMeters(6.469);
+    // private static final Transform2d LEFT_BRANCH_TRANSFORM_RIGHT_WRIST = new Transform2d(0.0, -BRANCH_OFFSET_RIGHT_WRIST - Units.inchesToMeters(3.75), Rotation2d.kZero);
+    // private static final Transform2d RIGHT_BRANCH_TRANSFORM_RIGHT_WRIST = new Transform2d(0.0, BRANCH_OFFSET_RIGHT_WRIST - Units.inchesToMeters(1.00), Rotation2d.kZero);
+
+    /* Red Alliance */
+    private static final double BRANCH_OFFSET_RIGHT_WRIST = Units.inchesToMeters(6.469);
+    public static final Transform2d LEFT_BRANCH_TRANSFORM_RIGHT_WRIST = new Transform2d(0.0, -BRANCH_OFFSET_RIGHT_WRIST - Units.inchesToMeters(0.75), Rotation2d.kZero);
+    public static final Transform2d RIGHT_BRANCH_TRANSFORM_RIGHT_WRIST = new Transform2d(0.0, BRANCH_OFFSET_RIGHT_WRIST - Units.inchesToMeters(1.25), Rotation2d.kZero);
+
+    private static final double BRANCH_OFFSET_LEFT_WRIST = Units.inchesToMeters(6.469);
+    public static final Transform2d LEFT_BRANCH_TRANSFORM_LEFT_WRIST = new Transform2d(0.0, -BRANCH_OFFSET_LEFT_WRIST + Units.inchesToMeters(1.25) , Rotation2d.kZero);
+    public static final Transform2d RIGHT_BRANCH_TRANSFORM_LEFT_WRIST = new Transform2d(0.0, BRANCH_OFFSET_LEFT_WRIST + Units.inchesToMeters(0.5), Rotation2d.kZero);
+
+    // Distance from the tag to the robot center when lined up
+    public static final Transform2d ROBOT_OFFSET = new Transform2d(0.3018, 0, Rotation2d.kZero);
+
+    private static final ReefFace[] FACES = ReefFace.values();
+    private static final Pose2d[] GOALS = new Pose2d[FACES.length * 8];
+    // L4 variant of each face by ordinal, L4 faces map to themselves
+    private static final ReefFace[] L4_FACES = new ReefFace[FACES.length];
+
+    static {
+        for (ReefFace face : FACES) {
+            L4_FACES[face.ordinal()] = face;
+        }
+        for (ReefFace face : FACES) {
+            for (ReefFace candidate : FACES) {
+                if (candidate.name().equals(face.name() + "_L4")) {
+                    L4_FACES[face.ordinal()] = candidate;
+                }
+            }
+        }
+
+        for (ReefFace face : FACES) {
+            for (int i = 0; i < 8; i++) {
+                boolean leftBranch = (i & 4) != 0;
+                boolean rightWrist = (i & 2) != 0;
+                boolean elevatorL4 = (i & 1) != 0;
+                GOALS[index(face, leftBranch, rightWrist, elevatorL4)] = computeGoal(face, leftBranch, rightWrist, elevatorL4);
+            }
+        }
+    }
+
+    private ReefAlignmentGoals() {}
+
+    /**
+     * Gets the precomputed robot pose for lining up on a branch.
+     *
+     * @param face reef face to score on
+     * @param leftBranch true for the left branch, false for the right
+     * @param rightWrist true if the wrist is facing right
+     * @param elevatorL4 true if the elevator is at an L4 state
+     * @return field relative goal pose for the robot
+     */
+    public static Pose2d getGoal(ReefFace face, boolean leftBranch, boolean rightWrist, boolean elevatorL4) {
+        return GOALS[index(face, leftBranch, rightWrist, elevatorL4)];
+    }
+
+    /**
+     * @return the L4 version of the given face
+     */
+    public static ReefFace toL4Face(ReefFace face) {
+        return L4_FACES[face.ordinal()];
+    }
+
+    /**
+     * Builds a goal the same way AutoAlign used to every loop. Only used to fill the table.
+     */
+    static Pose2d computeGoal(ReefFace face, boolean leftBranch, boolean rightWrist, boolean elevatorL4) {
+        Pose2d goal = elevatorL4 ? toL4Face(face).AprilTag : (leftBranch ? face.leftBranch : face.rightBranch);
+        Transform2d branchTransform;
+        if (rightWrist) {
+            branchTransform = leftBranch ? LEFT_BRANCH_TRANSFORM_RIGHT_WRIST : RIGHT_BRANCH_TRANSFORM_RIGHT_WRIST;
+        } else {
+            branchTransform = leftBranch ? LEFT_BRANCH_TRANSFORM_LEFT_WRIST : RIGHT_BRANCH_TRANSFORM_LEFT_WRIST;
+        }
+        goal = goal.transformBy(branchTransform);
+        return Conversions.rotatePose(goal.transformBy(ROBOT_OFFSET), Rotation2d.kZero);
+    }
+
+    private static int index(ReefFace face, boolean leftBranch, boolean rightWrist, boolean elevatorL4) {
+        return (face.ordinal() << 3) | (leftBranch ? 4 : 0) | (rightWrist ? 2 : 0) | (elevatorL4 ? 1 : 0);
+    }
+}
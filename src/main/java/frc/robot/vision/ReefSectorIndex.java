@@ -0,0 +1,154 @@
+package frc.robot.vision;
+
+import java.util.Arrays;
+
+import edu.wpi.first.math.MathUtil;
+import frc.robot.vision.VisionConfig.HPStation;
+import frc.robot.vision.VisionConfig.ReefFace;
+
+/**
+ * Constant-time lookup of the nearest reef face and HP station from raw field x/y.
+ *
+ * The six reef tags sit on a circle around the reef center, so the region of the
+ * field closest to each tag is a 60 degree sector around the center. Instead of
+ * measuring the distance to every face we take the angle from the center of the
+ * reef on the robot's half of the field and index a precomputed table. Nothing
+ * here allocates.
+ */
+public final class ReefSectorIndex {
+    private static final int SECTOR_COUNT = 6;
+    private static final double SECTOR_WIDTH_RADIANS = 2.0 * Math.PI / SECTOR_COUNT;
+
+    // How far past a sector boundary the robot has to be before we switch faces
+    public static final double FACE_HYSTERESIS_RADIANS = Math.toRadians(4.0);
+    // How far past the field midline the robot has to be before we switch reefs
+    public static final double REEF_HYSTERESIS_METERS = 0.25;
+
+    private static final double FIELD_MIDLINE_X = VisionConfig.FIELD_LENGTH_METERS / 2.0;
+
+    private static final ReefFace[] BLUE_FACES = {
+        ReefFace.BLU_REEF_AB, ReefFace.BLU_REEF_CD, ReefFace.BLU_REEF_EF,
+        ReefFace.BLU_REEF_GH, ReefFace.BLU_REEF_IJ, ReefFace.BLU_REEF_KL
+    };
+    private static final ReefFace[] RED_FACES = {
+        ReefFace.RED_REEF_AB, ReefFace.RED_REEF_CD, ReefFace.RED_REEF_EF,
+        ReefFace.RED_REEF_GH, ReefFace.RED_REEF_IJ, ReefFace.RED_REEF_KL
+    };
+
+    private static final double BLUE_REEF_CENTER_X = centerX(BLUE_FACES);
+    private static final double BLUE_REEF_CENTER_Y = centerY(BLUE_FACES);
+    private static final double RED_REEF_CENTER_X = centerX(RED_FACES);
+    private static final double RED_REEF_CENTER_Y = centerY(RED_FACES);
+
+    // Face for each sector, sector k is centered at k * 60 degrees from the reef center
+    private static final ReefFace[] BLUE_SECTORS = buildSectors(BLUE_FACES, BLUE_REEF_CENTER_X, BLUE_REEF_CENTER_Y);
+    private static final ReefFace[] RED_SECTORS = buildSectors(RED_FACES, RED_REEF_CENTER_X, RED_REEF_CENTER_Y);
+
+    // Sector index of each face by ordinal, -1 for faces that aren't indexed (L4 variants)
+    private static final int[] SECTOR_OF_FACE = new int[ReefFace.values().length];
+    // Whether each face by ordinal belongs to the red reef
+    private static final boolean[] FACE_IS_RED = new boolean[ReefFace.values().length];
+
+    static {
+        Arrays.fill(SECTOR_OF_FACE, -1);
+        for (int i = 0; i < SECTOR_COUNT; i++) {
+            SECTOR_OF_FACE[BLUE_SECTORS[i].ordinal()] = i;
+            SECTOR_OF_FACE[RED_SECTORS[i].ordinal()] = i;
+            FACE_IS_RED[RED_SECTORS[i].ordinal()] = true;
+        }
+    }
+
+    private ReefSectorIndex() {}
+
+    /**
+     * Finds the reef face whose AprilTag is closest to the given field position.
+     */
+    public static ReefFace nearestReefFace(double x, double y) {
+        return nearestReefFace(x, y, null);
+    }
+
+    /**
+     * Finds the reef face closest to the given field position, sticking with the
+     * previous face until the robot is clearly past the sector boundary. Use this
+     * when the face is re-evaluated every loop so the target doesn't flicker.
+     *
+     * @param previous face returned last time, or null
+     */
+    public static ReefFace nearestReefFace(double x, double y, ReefFace previous) {
+        int previousSector = previous != null ? SECTOR_OF_FACE[previous.ordinal()] : -1;
+
+        boolean red = x > FIELD_MIDLINE_X;
+        if (previousSector >= 0 && Math.abs(x - FIELD_MIDLINE_X) < REEF_HYSTERESIS_METERS) {
+            red = FACE_IS_RED[previous.ordinal()];
+        }
+
+        double centerX = red ? RED_REEF_CENTER_X : BLUE_REEF_CENTER_X;
+        double centerY = red ? RED_REEF_CENTER_Y : BLUE_REEF_CENTER_Y;
+        ReefFace[] sectors = red ? RED_SECTORS : BLUE_SECTORS;
+        double angle = Math.atan2(y - centerY, x - centerX);
+
+        if (previousSector >= 0 && FACE_IS_RED[previous.ordinal()] == red) {
+            double offset = MathUtil.angleModulus(angle - previousSector * SECTOR_WIDTH_RADIANS);
+            if (Math.abs(offset) <= SECTOR_WIDTH_RADIANS / 2.0 + FACE_HYSTERESIS_RADIANS) {
+                return previous;
+            }
+        }
+        return sectors[sectorOf(angle)];
+    }
+
+    /**
+     * Finds the HP station closest to the given field position.
+     */
+    public static HPStation nearestHPStation(double x, double y) {
+        HPStation low;
+        HPStation high;
+        if (x > FIELD_MIDLINE_X) {
+            low = HPStation.RED_LEFT_STATION;
+            high = HPStation.RED_RIGHT_STATION;
+        } else {
+            low = HPStation.BLU_RIGHT_STATION;
+            high = HPStation.BLU_LEFT_STATION;
+        }
+        // Stations aren't placed exactly symmetric about the midline, so compare the two candidates
+        return distanceSquared(low, x, y) <= distanceSquared(high, x, y) ? low : high;
+    }
+
+    private static double distanceSquared(HPStation station, double x, double y) {
+        double dx = station.aprilTagX - x;
+        double dy = station.aprilTagY - y;
+        return dx * dx + dy * dy;
+    }
+
+    private static int sectorOf(double angleRadians) {
+        int sector = (int) Math.round(angleRadians / SECTOR_WIDTH_RADIANS) % SECTOR_COUNT;
+        return sector < 0 ? sector + SECTOR_COUNT : sector;
+    }
+
+    private static double centerX(ReefFace[] faces) {
+        double sum = 0.0;
+        for (ReefFace face : faces) {
+            sum += face.aprilTagX;
+        }
+        return sum / faces.length;
+    }
+
+    private static double centerY(ReefFace[] faces) {
+        double sum = 0.0;
+        for (ReefFace face : faces) {
+            sum += face.aprilTagY;
+        }
+        return sum / faces.length;
+    }
+
+    private static ReefFace[] buildSectors(ReefFace[] faces, double centerX, double centerY) {
+        ReefFace[] sectors = new ReefFace[SECTOR_COUNT];
+        for (ReefFace face : faces) {
+            int sector = sectorOf(Math.atan2(face.aprilTagY - centerY, face.aprilTagX - centerX));
+            if (sectors[sector] != null) {
+                throw new IllegalStateException("Reef faces " + sectors[sector] + " and " + face + " share a sector");
+            }
+            sectors[sector] = face;
+        }
+        return sectors;
+    }
+}
@@ -74,6 +74,26 @@ public class VisionConfig {
 
     public static boolean USE_VISION = true;
 
+    /**
+     * Which estimator owns the fused robot pose.
+     * kDrivetrainOdometry fuses vision into the drivetrain's own estimator, which the
+     * Phoenix odometry thread updates with every odometry sample (up to 250 Hz).
+     * kRioLoop keeps a separate estimator that is only updated once per robot loop.
+     */
+    public enum PoseEstimatorMode {
+        kRioLoop,
+        kDrivetrainOdometry
+    }
+
+    public static final PoseEstimatorMode POSE_ESTIMATOR_MODE = PoseEstimatorMode.kDrivetrainOdometry;
+
+    // Slots in each camera's estimate ring buffer. Cameras run at 30+ FPS so a
+    // couple of frames arrive per 20ms loop, this leaves headroom for a slow loop.
+    public static final int MEASUREMENT_BUFFER_SIZE = 16;
+
+    // Measurements captured longer ago than this are not fused. Old frames are
+    // replayed against odometry history, so past this point they hurt more than help.
+    public static final double MAX_VISION_MEASUREMENT_AGE_SECONDS = 0.3;
 
     public static final double APRILTAG_AMBIGUITY_THRESHOLD = 0.2;
     public static final double POSE_AMBIGUITY_SHIFTER = 0.2;
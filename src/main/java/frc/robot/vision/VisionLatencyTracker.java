@@ -0,0 +1,106 @@
+package frc.robot.vision;
+
+import edu.wpi.first.networktables.DoublePublisher;
+import edu.wpi.first.networktables.IntegerArrayPublisher;
+import edu.wpi.first.networktables.IntegerPublisher;
+import edu.wpi.first.networktables.NetworkTable;
+import edu.wpi.first.networktables.NetworkTableInstance;
+
+/**
+ * Tracks end-to-end latency for one camera's vision measurements.
+ *
+ * Every measurement is stamped three times: when the frame was captured (from
+ * PhotonVision), when the result arrived over NetworkTables and was picked up by
+ * the camera worker, and when the robot thread fused it. The tracker keeps a
+ * histogram of total latency plus windowed averages of each leg and publishes them
+ * under /Vision/&lt;camera&gt;/. Only touched from the robot thread.
+ */
+public class VisionLatencyTracker {
+  private static final double BIN_WIDTH_MS = 5.0;
+  private static final int BIN_COUNT = 50; // last bin collects everything >= 245 ms
+  private static final int PUBLISH_PERIOD_LOOPS = 50;
+
+  private final long[] histogram = new long[BIN_COUNT];
+
+  private int windowCount = 0;
+  private double windowCaptureToReceiveMs = 0.0;
+  private double windowReceiveToFusionMs = 0.0;
+  private double windowTotalMs = 0.0;
+  private double windowMaxTotalMs = 0.0;
+  private long fusedCount = 0;
+  private long rejectedStaleCount = 0;
+  private int loopsSincePublish = 0;
+
+  private final IntegerArrayPublisher histogramPublisher;
+  private final DoublePublisher captureToReceivePublisher;
+  private final DoublePublisher receiveToFusionPublisher;
+  private final DoublePublisher totalLatencyPublisher;
+  private final DoublePublisher maxTotalLatencyPublisher;
+  private final IntegerPublisher fusedPublisher;
+  private final IntegerPublisher rejectedStalePublisher;
+  private final IntegerPublisher droppedPublisher;
+
+  public VisionLatencyTracker(String cameraName) {
+    NetworkTable table = NetworkTableInstance.getDefault().getTable("Vision").getSubTable(cameraName);
+    table.getDoubleTopic("LatencyHistogramBinMs").publish().set(BIN_WIDTH_MS);
+    histogramPublisher = table.getIntegerArrayTopic("LatencyHistogram").publish();
+    captureToReceivePublisher = table.getDoubleTopic("CaptureToReceiveMs").publish();
+    receiveToFusionPublisher = table.getDoubleTopic("ReceiveToFusionMs").publish();
+    totalLatencyPublisher = table.getDoubleTopic("TotalLatencyMs").publish();
+    maxTotalLatencyPublisher = table.getDoubleTopic("MaxTotalLatencyMs").publish();
+    fusedPublisher = table.getIntegerTopic("Fused").publish();
+    rejectedStalePublisher = table.getIntegerTopic("RejectedStale").publish();
+    droppedPublisher = table.getIntegerTopic("Dropped").publish();
+  }
+
+  /**
+   * Records a fused measurement. All timestamps are FPGA seconds.
+   */
+  public void recordFused(double captureTimestamp, double receiveTimestamp, double fusionTimestamp) {
+    double totalMs = (fusionTimestamp - captureTimestamp) * 1000.0;
+    windowCaptureToReceiveMs += (receiveTimestamp - captureTimestamp) * 1000.0;
+    windowReceiveToFusionMs += (fusionTimestamp - receiveTimestamp) * 1000.0;
+    windowTotalMs += totalMs;
+    windowMaxTotalMs = Math.max(windowMaxTotalMs, totalMs);
+    windowCount++;
+    fusedCount++;
+
+    int bin = (int) (Math.max(0.0, totalMs) / BIN_WIDTH_MS);
+    histogram[Math.min(bin, BIN_COUNT - 1)]++;
+  }
+
+  /** Records a measurement that was older than the fusion horizon. */
+  public void recordRejectedStale() {
+    rejectedStaleCount++;
+  }
+
+  /**
+   * Publishes the histogram and the averages for the current window, then starts a new
+   * window. Call once per loop; it only publishes every {@value #PUBLISH_PERIOD_LOOPS} loops.
+   *
+   * @param droppedCount measurements dropped by the camera's buffer
+   */
+  public void periodic(long droppedCount) {
+    if (++loopsSincePublish < PUBLISH_PERIOD_LOOPS) {
+      return;
+    }
+    loopsSincePublish = 0;
+
+    histogramPublisher.set(histogram);
+    if (windowCount > 0) {
+      captureToReceivePublisher.set(windowCaptureToReceiveMs / windowCount);
+      receiveToFusionPublisher.set(windowReceiveToFusionMs / windowCount);
+      totalLatencyPublisher.set(windowTotalMs / windowCount);
+      maxTotalLatencyPublisher.set(windowMaxTotalMs);
+    }
+    fusedPublisher.set(fusedCount);
+    rejectedStalePublisher.set(rejectedStaleCount);
+    droppedPublisher.set(droppedCount);
+
+    windowCount = 0;
+    windowCaptureToReceiveMs = 0.0;
+    windowReceiveToFusionMs = 0.0;
+    windowTotalMs = 0.0;
+    windowMaxTotalMs = 0.0;
+  }
+}
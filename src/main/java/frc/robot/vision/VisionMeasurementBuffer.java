@@ -0,0 +1,124 @@
+package frc.robot.vision;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.photonvision.EstimatedRobotPose;
+
+/**
+ * Bounded, preallocated ring buffer of timestamped vision estimates for a single camera.
+ *
+ * The camera worker thread is the only producer and the robot thread is the only
+ * consumer, so the buffer is lock-free: each side owns one index and publishes it
+ * with ordered writes. Slots are allocated once and reused, so buffering a frame
+ * does not allocate.
+ */
+public class VisionMeasurementBuffer {
+
+  /**
+   * A single buffered estimate. Slots are reused, so don't hold on to one after
+   * calling {@link VisionMeasurementBuffer#pop()}.
+   */
+  public static final class Measurement {
+    private EstimatedRobotPose estimate;
+    private double timestampSeconds;
+    private double receiveTimestampSeconds;
+
+    public EstimatedRobotPose getEstimate() {
+      return estimate;
+    }
+
+    /** FPGA timestamp of when the frame was captured. */
+    public double getTimestampSeconds() {
+      return timestampSeconds;
+    }
+
+    /** FPGA timestamp of when the result arrived from NetworkTables. */
+    public double getReceiveTimestampSeconds() {
+      return receiveTimestampSeconds;
+    }
+  }
+
+  private final Measurement[] slots;
+  private final int mask;
+
+  // Next slot the producer will write
+  private final AtomicLong writeIndex = new AtomicLong();
+  // Next slot the consumer will read
+  private final AtomicLong readIndex = new AtomicLong();
+  private final AtomicLong droppedCount = new AtomicLong();
+
+  /**
+   * @param capacity number of slots, rounded up to the next power of two
+   */
+  public VisionMeasurementBuffer(int capacity) {
+    int size = Integer.highestOneBit(Math.max(2, capacity) - 1) << 1;
+    slots = new Measurement[size];
+    for (int i = 0; i < size; i++) {
+      slots[i] = new Measurement();
+    }
+    mask = size - 1;
+  }
+
+  /**
+   * Adds an estimate. Producer thread only.
+   *
+   * @return false if the buffer was full and the estimate was dropped
+   */
+  public boolean offer(EstimatedRobotPose estimate, double timestampSeconds, double receiveTimestampSeconds) {
+    long write = writeIndex.get();
+    if (write - readIndex.get() >= slots.length) {
+      droppedCount.incrementAndGet();
+      return false;
+    }
+    var slot = slots[(int) (write & mask)];
+    slot.estimate = estimate;
+    slot.timestampSeconds = timestampSeconds;
+    slot.receiveTimestampSeconds = receiveTimestampSeconds;
+    writeIndex.lazySet(write + 1);
+    return true;
+  }
+
+  /**
+   * Returns the oldest buffered estimate without removing it, or null if the buffer
+   * is empty. Consumer thread only.
+   */
+  public Measurement peek() {
+    long read = readIndex.get();
+    if (read == writeIndex.get()) {
+      return null;
+    }
+    return slots[(int) (read & mask)];
+  }
+
+  /**
+   * Releases the slot returned by {@link #peek()} back to the producer. Consumer thread only.
+   */
+  public void pop() {
+    long read = readIndex.get();
+    if (read == writeIndex.get()) {
+      return;
+    }
+    slots[(int) (read & mask)].estimate = null;
+    readIndex.lazySet(read + 1);
+  }
+
+  /**
+   * Number of estimates buffered right now. The producer can add more at any time,
+   * so this is only a lower bound. Consumer thread only.
+   */
+  public int size() {
+    return (int) (writeIndex.get() - readIndex.get());
+  }
+
+  /** Drops everything currently buffered. Consumer thread only. */
+  public void clear() {
+    while (peek() != null) {
+      pop();
+    }
+  }
+
+  /** Number of estimates dropped because the robot thread fell behind. */
+  public long getDroppedCount() {
+    return droppedCount.get();
+  }
+}
@@ -5,42 +5,42 @@ import java.util.function.Supplier;
 import com.ctre.phoenix6.swerve.SwerveModule;
 import com.ctre.phoenix6.swerve.SwerveRequest;
 
-import edu.wpi.first.math.controller.PIDController;
 import edu.wpi.first.math.geometry.Pose2d;
 import edu.wpi.first.math.geometry.Rotation2d;
-import edu.wpi.first.math.geometry.Transform2d;
-import edu.wpi.first.math.geometry.Translation2d;
 import edu.wpi.first.math.kinematics.ChassisSpeeds;
-import edu.wpi.first.units.measure.Angle;
-import edu.wpi.first.units.measure.Distance;
-import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
 import edu.wpi.first.wpilibj2.command.Command;
 import frc.crevolib.math.Conversions;
 import frc.robot.drivetrain.CommandSwerveDrivetrain;
+import frc.robot.telemetry.Telemetry;
+import frc.robot.telemetry.Telemetry.Level;
+import frc.robot.vision.HolonomicAlignController;
 import frc.robot.vision.PoseEstimatorSubsystem;
-import static frc.robot.vision.VisionConfig.AlignmentConfig.*;
-import static edu.wpi.first.units.Units.Degrees;
-import static edu.wpi.first.units.Units.Inches;
-import static edu.wpi.first.units.Units.Meters;
-import static edu.wpi.first.units.Units.MetersPerSecond;
-import static edu.wpi.first.units.Units.Radians;
+import frc.robot.vision.ReefAlignmentGoals;
 
 public class AutoAlignHP extends Command {
-    private final Distance TRANSLATION_TOLERANCE = Inches.of(0.25);
-    private final Angle THETA_TOLERANCE = Degrees.of(1.0);
-
     private final static CommandSwerveDrivetrain drivetrainSubsystem = CommandSwerveDrivetrain.getInstance();
     protected final static Supplier<Pose2d> currentPoseProvider = () -> PoseEstimatorSubsystem.getInstance().getCurrentPose();
     protected Supplier<Pose2d> targetPoseSupplier;
     private Pose2d goalPose2d;
-    public final Transform2d robotOffset = new Transform2d(0.3018, 0, Rotation2d.kZero);
 
-    private final PIDController xController;
-    private final PIDController yController;
-    private final PIDController thetaController;
-    double xSpeed;
-    double ySpeed;
-    double omegaSpeed;
+    private final HolonomicAlignController alignController = new HolonomicAlignController();
+
+    // Telemetry, every instance of the command shares the same entries
+    private final Telemetry.DoubleEntry goalPoseXEntry = Telemetry.getInstance().addDouble("Goal Pose X - HP Align", Level.kDebug);
+    private final Telemetry.DoubleEntry goalPoseYEntry = Telemetry.getInstance().addDouble("Goal Pose Y - HP Align", Level.kDebug);
+    private final Telemetry.DoubleEntry goalPoseThetaEntry = Telemetry.getInstance().addDouble("Goal Pose Theta - HP Align", Level.kDebug);
+    private final Telemetry.DoubleEntry currentRobotPoseXEntry = Telemetry.getInstance().addDouble("Current Robot Pose X - HP Align", Level.kDebug);
+    private final Telemetry.DoubleEntry currentRobotPoseYEntry = Telemetry.getInstance().addDouble("Current Robot Pose Y - HP Align", Level.kDebug);
+    private final Telemetry.DoubleEntry currentRobotPoseThetaEntry = Telemetry.getInstance().addDouble("Current Robot Pose Theta - HP Align", Level.kDebug);
+    private final Telemetry.DoubleEntry xSetpointEntry = Telemetry.getInstance().addDouble("X Setpoint - HP Align", Level.kDebug);
+    private final Telemetry.DoubleEntry ySetpointEntry = Telemetry.getInstance().addDouble("Y Setpoint - HP Align", Level.kDebug);
+    private final Telemetry.DoubleEntry thetaSetpointEntry = Telemetry.getInstance().addDouble("Theta Setpoint - HP Align", Level.kDebug);
+    private final Telemetry.DoubleEntry xOutputEntry = Telemetry.getInstance().addDouble("X Output - HP Align", Level.kDebug);
+    private final Telemetry.DoubleEntry yOutputEntry = Telemetry.getInstance().addDouble("Y Output - HP Align", Level.kDebug);
+    private final Telemetry.DoubleEntry thetaOutputEntry = Telemetry.getInstance().addDouble("Theta Output - HP Align", Level.kDebug);
+    private final Telemetry.DoubleEntry distanceErrorEntry = Telemetry.getInstance().addDouble("Distance Error - HP Align", Level.kDebug);
+    private final Telemetry.DoubleEntry thetaErrorEntry = Telemetry.getInstance().addDouble("Theta Error - HP Align", Level.kDebug);
+    private final Telemetry.BooleanEntry atGoalEntry = Telemetry.getInstance().addBoolean("At Goal - HP Align", Level.kDebug);
 
     private final SwerveRequest.ApplyFieldSpeeds applyFieldSpeeds = new SwerveRequest.ApplyFieldSpeeds()
             .withDriveRequestType(SwerveModule.DriveRequestType.Velocity);
@@ -51,88 +51,47 @@ public class AutoAlignHP extends Command {
     }
 
     public AutoAlignHP(CommandSwerveDrivetrain drivetrainSubsystem, Supplier<Pose2d> currentPoseProvider) {
-        xController = new PIDController(XY_kP, XY_kI, XY_kD);
-        xController.setTolerance(TRANSLATION_TOLERANCE.in(Meters));
-
-        yController = new PIDController(XY_kP, XY_kI, XY_kD);
-        yController.setTolerance(TRANSLATION_TOLERANCE.in(Meters));
-
-        thetaController = new PIDController(THETA_kP, THETA_kI, THETA_kD);
-        thetaController.enableContinuousInput(-Math.PI, Math.PI);
-        thetaController.setTolerance(THETA_TOLERANCE.in(Radians));
         addRequirements(drivetrainSubsystem);
     }
 
-    public void setGoal(Pose2d goalPose) {
-        thetaController.setSetpoint(goalPose.getRotation().getRadians());
-        xController.setSetpoint(goalPose.getX());
-        yController.setSetpoint(goalPose.getY());
-    }
-
-    private ChassisSpeeds applyLimits(ChassisSpeeds speeds){
-        Translation2d translation = new Translation2d(speeds.vxMetersPerSecond, speeds.vyMetersPerSecond);
-        double magnitude = translation.getNorm();
-        if (magnitude < .07) return new ChassisSpeeds(0,0, speeds.omegaRadiansPerSecond);
-        Rotation2d angle = translation.getAngle();
-        magnitude = Math.min(magnitude, MAX_ALIGN_TRANSLATION_VELOCITY.in(MetersPerSecond));
-        return new ChassisSpeeds(magnitude * angle.getCos(), magnitude * angle.getSin(), speeds.omegaRadiansPerSecond);
-    }
-
     @Override
     public void initialize() {
-        xController.reset();
-        yController.reset();
-        thetaController.reset();
+        // The station is picked once, so the goal can't jump between stations mid-approach
+        goalPose2d = targetPoseSupplier.get();
+        goalPose2d = Conversions.rotatePose(goalPose2d.transformBy(ReefAlignmentGoals.ROBOT_OFFSET), Rotation2d.kZero);
+
+        var robotPose = currentPoseProvider.get();
+        alignController.reset(robotPose,
+            ChassisSpeeds.fromRobotRelativeSpeeds(drivetrainSubsystem.getState().Speeds, robotPose.getRotation()));
     }
 
     @Override
     public void execute() {
-        goalPose2d = targetPoseSupplier.get();
-        goalPose2d = Conversions.rotatePose(goalPose2d.transformBy(robotOffset), Rotation2d.kZero);
-
         var robotPose = currentPoseProvider.get();
 
-        xSpeed = xController.calculate(robotPose.getX(), this.goalPose2d.getX());
-        if (xController.atSetpoint()) {
-        xSpeed = 0;
-        }
-
-        ySpeed = yController.calculate(robotPose.getY(), this.goalPose2d.getY());
-        if (yController.atSetpoint()) {
-        ySpeed = 0;
-        }
-
-        omegaSpeed = thetaController.calculate(robotPose.getRotation().getRadians(), this.goalPose2d.getRotation().getRadians());
-        if (thetaController.atSetpoint()) {
-        omegaSpeed = 0;
-        }
-
-        ChassisSpeeds speeds = applyLimits(new ChassisSpeeds(xSpeed, ySpeed, omegaSpeed));
+        ChassisSpeeds speeds = alignController.calculate(robotPose, this.goalPose2d);
         drivetrainSubsystem.setControl(applyFieldSpeeds.withSpeeds(speeds));
 
-        SmartDashboard.putNumber("Goal Pose X - HP Align", this.goalPose2d.getX());
-        SmartDashboard.putNumber("Goal Pose Y - HP Align", this.goalPose2d.getY());
-        SmartDashboard.putNumber("Goal Pose Theta - HP Align", this.goalPose2d.getRotation().getRadians());
-        SmartDashboard.putNumber("Current Robot Pose X - HP Align", robotPose.getX());
-        SmartDashboard.putNumber("Current Robot Pose Y - HP Align", robotPose.getY());
-        SmartDashboard.putNumber("Current Robot Pose Theta - HP Align", robotPose.getRotation().getRadians());
-        SmartDashboard.putNumber("X Setpoint - HP Align", xController.getSetpoint());
-        SmartDashboard.putNumber("Y Setpoint - HP Align", yController.getSetpoint());
-        SmartDashboard.putNumber("Theta Setpoint - HP Align", thetaController.getSetpoint());
-        SmartDashboard.putNumber("X Output - HP Align", xController.calculate(robotPose.getX()));
-        SmartDashboard.putNumber("Y Output - HP Align", yController.calculate(robotPose.getY()));
-        SmartDashboard.putNumber("Theta Output - HP Align", thetaController.calculate(robotPose.getRotation().getRadians()));
-        SmartDashboard.putNumber("X Error - HP Align", xController.getError());
-        SmartDashboard.putNumber("Y Error - HP Align", yController.getError());
-        SmartDashboard.putNumber("Theta Error - HP Align", thetaController.getError());
-        SmartDashboard.putBoolean("X at Setpoint - HP Align", xController.atSetpoint());
-        SmartDashboard.putBoolean("Y at Setpoint - HP Align", yController.atSetpoint());
-        SmartDashboard.putBoolean("Theta at Setpoint - HP Align", thetaController.atSetpoint());
+        goalPoseXEntry.set(this.goalPose2d.getX());
+        goalPoseYEntry.set(this.goalPose2d.getY());
+        goalPoseThetaEntry.set(this.goalPose2d.getRotation().getRadians());
+        currentRobotPoseXEntry.set(robotPose.getX());
+        currentRobotPoseYEntry.set(robotPose.getY());
+        currentRobotPoseThetaEntry.set(robotPose.getRotation().getRadians());
+        xSetpointEntry.set(alignController.getSetpointX());
+        ySetpointEntry.set(alignController.getSetpointY());
+        thetaSetpointEntry.set(alignController.getSetpointTheta());
+        xOutputEntry.set(speeds.vxMetersPerSecond);
+        yOutputEntry.set(speeds.vyMetersPerSecond);
+        thetaOutputEntry.set(speeds.omegaRadiansPerSecond);
+        distanceErrorEntry.set(alignController.getDistanceError());
+        thetaErrorEntry.set(alignController.getThetaError());
+        atGoalEntry.set(alignController.atGoal());
     }
 
     @Override
     public boolean isFinished() {
-        return xController.atSetpoint() && yController.atSetpoint() && thetaController.atSetpoint();
+        return alignController.atGoal();
     }
 
     @Override
@@ -0,0 +1,140 @@
+package frc.robot.replay;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Path;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.util.datalog.DataLog;
+import edu.wpi.first.util.datalog.DataLogWriter;
+import edu.wpi.first.util.datalog.DoubleLogEntry;
+import edu.wpi.first.util.datalog.StructLogEntry;
+
+/**
+ * Runs ReplayDiff on a short original/replay log pair written the way AdvantageKit
+ * writes them: outputs under RealOutputs/ in the original and ReplayOutputs/ in the
+ * _sim log, 100 loops 20 ms apart.
+ */
+class ReplayDiffTest {
+    private static final int kLoops = 100;
+    private static final long kLoopMicros = 20000;
+
+    @TempDir
+    Path mDir;
+
+    @Test
+    void matchingOutputsPassAndIgnoreTimingKeys() throws Exception {
+        var result = compare(0.0, 0.0, true, Double.POSITIVE_INFINITY);
+
+        assertTrue(result.passed());
+        assertEquals(List.of("Elevator/Voltage", "PoseEstimator/FusedPose/Rotation", "PoseEstimator/FusedPose/X",
+                "PoseEstimator/FusedPose/Y"), result.comparedKeys);
+        assertTrue(result.mismatchedKeys.isEmpty());
+    }
+
+    @Test
+    void voltageDifferenceFails() throws Exception {
+        var result = compare(0.5, 0.0, true, Double.POSITIVE_INFINITY);
+
+        assertFalse(result.passed());
+        assertEquals(List.of("Elevator/Voltage"), result.mismatchedKeys);
+    }
+
+    @Test
+    void fusedPoseDifferenceFails() throws Exception {
+        var result = compare(0.0, 0.01, true, Double.POSITIVE_INFINITY);
+
+        assertFalse(result.passed());
+        assertEquals(List.of("PoseEstimator/FusedPose/X"), result.mismatchedKeys);
+    }
+
+    @Test
+    void outputMissingFromReplayFails() throws Exception {
+        var result = compare(0.0, 0.0, false, Double.POSITIVE_INFINITY);
+
+        assertFalse(result.passed());
+        assertEquals(List.of("Elevator/Voltage"), result.mismatchedKeys);
+    }
+
+    @Test
+    void p95LoopCostIsCheckedAgainstTheBudget() throws Exception {
+        // Loop i costs i / 10 ms, so the 95th percentile is 9.5 ms
+        var withinBudget = compare(0.0, 0.0, true, 10.0);
+        assertEquals(9.5, withinBudget.p95LoopMs, 1e-9);
+        assertTrue(withinBudget.passed());
+
+        var overBudget = compare(0.0, 0.0, true, 5.0);
+        assertTrue(overBudget.overBudget);
+        assertFalse(overBudget.passed());
+    }
+
+    /**
+     * Writes the log pair and compares it.
+     *
+     * @param voltageError added to every replayed elevator voltage
+     * @param poseError added to every replayed fused pose x
+     * @param replayVoltage whether the replay logs the elevator voltage at all
+     */
+    private ReplayDiff.Result compare(double voltageError, double poseError, boolean replayVoltage, double maxP95Ms)
+            throws Exception {
+        String originalPath = mDir.resolve("match.wpilog").toString();
+        String replayPath = mDir.resolve("match_sim.wpilog").toString();
+
+        try (DataLog log = new DataLogWriter(originalPath)) {
+            var voltage = new DoubleLogEntry(log, "RealOutputs/Elevator/Voltage");
+            var fusedPose = StructLogEntry.create(log, "RealOutputs/PoseEstimator/FusedPose", Pose2d.struct);
+            var odometryPose = StructLogEntry.create(log, "RealOutputs/PoseEstimator/Pose", Pose2d.struct);
+            // AdvantageKit's own timing, never the same twice
+            var userCode = new DoubleLogEntry(log, "RealOutputs/LoggedRobot/UserCodeMS");
+            var conduitSave = new DoubleLogEntry(log, "RealOutputs/Logger/ConduitSaveMS");
+            for (int i = 1; i <= kLoops; i++) {
+                long timestamp = i * kLoopMicros;
+                voltage.append(voltage(i), timestamp);
+                fusedPose.append(pose(i, 0.0), timestamp);
+                odometryPose.append(pose(i, 0.0), timestamp);
+                userCode.append(3.0 + i, timestamp);
+                conduitSave.append(0.1 * i, timestamp);
+            }
+        }
+
+        try (DataLog log = new DataLogWriter(replayPath)) {
+            var voltage = new DoubleLogEntry(log, "ReplayOutputs/Elevator/Voltage");
+            var fusedPose = StructLogEntry.create(log, "ReplayOutputs/PoseEstimator/FusedPose", Pose2d.struct);
+            // The drivetrain's odometry pose is a logged input played back, not compared
+            var odometryPose = StructLogEntry.create(log, "ReplayOutputs/PoseEstimator/Pose", Pose2d.struct);
+            var userCode = new DoubleLogEntry(log, "ReplayOutputs/LoggedRobot/UserCodeMS");
+            var conduitSave = new DoubleLogEntry(log, "ReplayOutputs/Logger/ConduitSaveMS");
+            var gcPause = new DoubleLogEntry(log, "ReplayOutputs/GC/PauseMs");
+            var loopCpu = new DoubleLogEntry(log, "ReplayOutputs/Replay/LoopCPUMs");
+            for (int i = 1; i <= kLoops; i++) {
+                long timestamp = i * kLoopMicros;
+                if (replayVoltage) {
+                    voltage.append(voltage(i) + voltageError, timestamp);
+                }
+                fusedPose.append(pose(i, poseError), timestamp);
+                odometryPose.append(pose(i, 1.0), timestamp);
+                userCode.append(0.5 * i, timestamp);
+                conduitSave.append(0.01 * i, timestamp);
+                gcPause.append(i % 7, timestamp);
+                loopCpu.append(i / 10.0, timestamp);
+            }
+        }
+
+        return ReplayDiff.compare(originalPath, replayPath, maxP95Ms);
+    }
+
+    private static double voltage(int loop) {
+        return Math.sin(loop * 0.1) * 6.0;
+    }
+
+    private static Pose2d pose(int loop, double xError) {
+        return new Pose2d(1.0 + loop * 0.02 + xError, 4.0 - loop * 0.01, Rotation2d.fromDegrees(loop));
+    }
+}
@@ -0,0 +1,145 @@
+package frc.robot.replay;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.littletonrobotics.junction.LogFileUtil;
+import org.littletonrobotics.junction.Logger;
+import org.littletonrobotics.junction.wpilog.WPILOGWriter;
+
+import edu.wpi.first.hal.AllianceStationID;
+import edu.wpi.first.hal.HAL;
+import edu.wpi.first.wpilibj.TimedRobot;
+import edu.wpi.first.wpilibj.simulation.DriverStationSim;
+import edu.wpi.first.wpilibj.simulation.SimHooks;
+import edu.wpi.first.wpilibj.simulation.XboxControllerSim;
+import frc.robot.Main;
+import frc.robot.Robot;
+import frc.robot.vision.VisionConfig;
+import frc.robot.vision.VisionConfig.PoseEstimatorMode;
+
+/**
+ * Records a few seconds of the robot in sim, replays that log the same way
+ * ./gradlew simulateJava -PreplayLog does, and runs ReplayDiff on the pair.
+ *
+ * Robot.kMode is fixed when Robot loads, so the recording and the replay each get
+ * their own JVM. Both run the whole robot: CommandScheduler, the mechanisms and the
+ * pose estimator, with the operator priming L4 and then L3 so the elevator, arm and
+ * wrist all move.
+ */
+class ReplayEndToEndTest {
+    private static final long kTimeoutSeconds = 120;
+    // Replay has to keep up with the robot's own loop
+    private static final double kMaxP95Ms = TimedRobot.kDefaultPeriod * 1000.0;
+
+    @TempDir
+    Path mDir;
+
+    @Test
+    void replayMatchesRecordingWithinLoopBudget() throws Exception {
+        String originalPath = mDir.resolve("match.wpilog").toString();
+
+        runJava(Map.of(), Record.class.getName(), originalPath);
+        runJava(Map.of("ROBOT_REPLAY", "1", "AKIT_LOG_PATH", originalPath), Main.class.getName());
+
+        var result = ReplayDiff.compare(originalPath, LogFileUtil.addPathSuffix(originalPath, "_sim"), kMaxP95Ms);
+
+        var expectedKeys = new ArrayList<>(List.of("Elevator/Voltage", "RushinatorPivot/Voltage", "RushinatorWrist/Voltage"));
+        if (VisionConfig.POSE_ESTIMATOR_MODE == PoseEstimatorMode.kRioLoop) {
+            expectedKeys.addAll(List.of("PoseEstimator/FusedPose/X", "PoseEstimator/FusedPose/Y", "PoseEstimator/FusedPose/Rotation"));
+        }
+        assertTrue(result.comparedKeys.containsAll(expectedKeys), "compared " + result.comparedKeys);
+        assertEquals(List.of(), result.mismatchedKeys);
+        assertFalse(Double.isNaN(result.p95LoopMs), "replay didn't log its loop cost");
+        assertFalse(result.overBudget, "p95 " + result.p95LoopMs + " ms/loop, budget " + kMaxP95Ms);
+        assertTrue(result.passed());
+    }
+
+    /** Runs a main class from the test classpath in a new JVM and waits for it to exit cleanly. */
+    private static void runJava(Map<String, String> env, String mainClass, String... args) throws Exception {
+        var command = new ArrayList<String>();
+        command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+        command.add("-cp");
+        command.add(System.getProperty("java.class.path"));
+        command.add("-Djava.library.path=" + System.getProperty("java.library.path"));
+        command.add(mainClass);
+        command.addAll(List.of(args));
+
+        var builder = new ProcessBuilder(command).inheritIO();
+        builder.environment().remove("ROBOT_REPLAY");
+        builder.environment().putAll(env);
+        var process = builder.start();
+        if (!process.waitFor(kTimeoutSeconds, TimeUnit.SECONDS)) {
+            process.destroyForcibly();
+            fail(mainClass + " didn't exit within " + kTimeoutSeconds + " s");
+        }
+        assertEquals(0, process.exitValue(), mainClass + " exit code");
+    }
+
+    /**
+     * Drives the robot in sim through disabled, a few seconds of teleop and disabled
+     * again, and logs it to the path in args[0]. Time only moves when this steps it, so
+     * every loop runs no matter how slow the machine is.
+     */
+    public static class Record {
+        public static void main(String... args) throws Exception {
+            HAL.initialize(500, 0);
+            SimHooks.pauseTiming();
+            DriverStationSim.setAllianceStationId(AllianceStationID.Blue1);
+            DriverStationSim.setDsAttached(true);
+            DriverStationSim.notifyNewData();
+
+            // Robot only publishes to NT in sim, the log has to be added before it starts the logger
+            Logger.addDataReceiver(new WPILOGWriter(args[0]));
+            var robot = new Robot();
+            var robotThread = new Thread(robot::startCompetition);
+            robotThread.start();
+            // robotInit builds every subsystem, don't start the clock before the loop is running
+            SimHooks.waitForProgramStart();
+
+            var operator = new XboxControllerSim(1);
+            step(50);
+            DriverStationSim.setEnabled(true);
+            DriverStationSim.notifyNewData();
+            step(25);
+            press(operator, operator::setYButton); // Prime L4
+            step(100);
+            press(operator, operator::setBButton); // Prime L3
+            step(100);
+            DriverStationSim.setEnabled(false);
+            DriverStationSim.notifyNewData();
+            step(10);
+
+            robot.endCompetition();
+            robotThread.join();
+            Logger.end();
+            // Phoenix and the sim threads would keep the JVM alive
+            System.exit(0);
+        }
+
+        private static void press(XboxControllerSim controller, Consumer<Boolean> button) {
+            button.accept(true);
+            controller.notifyNewData();
+            step(5);
+            button.accept(false);
+            controller.notifyNewData();
+        }
+
+        private static void step(int loops) {
+            for (int i = 0; i < loops; i++) {
+                SimHooks.stepTiming(TimedRobot.kDefaultPeriod);
+            }
+        }
+    }
+}
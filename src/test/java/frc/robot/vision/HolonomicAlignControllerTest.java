@@ -0,0 +1,162 @@
+package frc.robot.vision;
+
+import static edu.wpi.first.units.Units.MetersPerSecond;
+import static frc.robot.vision.VisionConfig.AlignmentConfig.*;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.util.stream.Stream;
+
+import edu.wpi.first.math.controller.PIDController;
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.kinematics.ChassisSpeeds;
+
+/**
+ * Drives a kinematic sim of the drivetrain to the same goals with the profiled
+ * controller and with the per-axis PID path AutoAlign used before it.
+ *
+ * The sim applies the commanded field speeds exactly every loop, with no
+ * acceleration limit. That favours the PID path, which asks for a step in
+ * velocity on the first loop, so the profiled controller has to win without help.
+ */
+class HolonomicAlignControllerTest {
+    private static final double kLoopSeconds = 0.02;
+    private static final double kTimeoutSeconds = 5.0;
+    // Old applyLimits deadband
+    private static final double kOldDeadbandMetersPerSecond = 0.07;
+
+    static Stream<Arguments> alignments() {
+        return Stream.of(
+            Arguments.of(new Pose2d(0.0, 0.0, Rotation2d.kZero), new Pose2d(1.0, 0.5, Rotation2d.fromDegrees(30))),
+            Arguments.of(new Pose2d(0.0, 0.0, Rotation2d.kZero), new Pose2d(0.3, 0.0, Rotation2d.kZero)),
+            Arguments.of(new Pose2d(0.0, 0.0, Rotation2d.fromDegrees(-60)), new Pose2d(1.5, -0.4, Rotation2d.fromDegrees(60))),
+            // Small correction, the usual case once the path has dropped us off at the reef
+            Arguments.of(new Pose2d(0.0, 0.0, Rotation2d.kZero), new Pose2d(0.05, 0.02, Rotation2d.fromDegrees(5))));
+    }
+
+    @ParameterizedTest
+    @MethodSource("alignments")
+    void profiledControllerAlignsFasterThanPid(Pose2d start, Pose2d goal) {
+        double profiled = timeToAligned(new ProfiledAlign(), start, goal);
+        double pid = timeToAligned(new PidAlign(0.0), start, goal);
+
+        assertTrue(profiled < kTimeoutSeconds, "profiled controller never aligned");
+        assertTrue(pid < kTimeoutSeconds, "PID path never aligned");
+        assertTrue(profiled < pid, "profiled " + profiled + " s, PID " + pid + " s");
+    }
+
+    @ParameterizedTest
+    @MethodSource("alignments")
+    void oldDeadbandStallsOutsideTolerance(Pose2d start, Pose2d goal) {
+        // kP * error drops under the deadband at 0.07 / XY_kP = 1.4 cm, well outside the 0.25 in tolerance
+        assertTrue(kOldDeadbandMetersPerSecond / XY_kP > HolonomicAlignController.TRANSLATION_TOLERANCE_METERS);
+        assertFalse(timeToAligned(new PidAlign(kOldDeadbandMetersPerSecond), start, goal) < kTimeoutSeconds);
+    }
+
+    /**
+     * Steps the sim from start until the controller says it's aligned.
+     *
+     * @return seconds to aligned, or infinity if it didn't get there before the timeout
+     */
+    private static double timeToAligned(AlignPath path, Pose2d start, Pose2d goal) {
+        double x = start.getX();
+        double y = start.getY();
+        double theta = start.getRotation().getRadians();
+        path.reset(start);
+
+        for (int loop = 0; loop * kLoopSeconds < kTimeoutSeconds; loop++) {
+            var speeds = path.calculate(new Pose2d(x, y, new Rotation2d(theta)), goal);
+            if (path.atGoal()) {
+                return loop * kLoopSeconds;
+            }
+            x += speeds.vxMetersPerSecond * kLoopSeconds;
+            y += speeds.vyMetersPerSecond * kLoopSeconds;
+            theta += speeds.omegaRadiansPerSecond * kLoopSeconds;
+        }
+        return Double.POSITIVE_INFINITY;
+    }
+
+    private interface AlignPath {
+        void reset(Pose2d robotPose);
+
+        ChassisSpeeds calculate(Pose2d robotPose, Pose2d goalPose);
+
+        boolean atGoal();
+    }
+
+    private static class ProfiledAlign implements AlignPath {
+        private final HolonomicAlignController controller = new HolonomicAlignController();
+
+        @Override
+        public void reset(Pose2d robotPose) {
+            controller.reset(robotPose, new ChassisSpeeds());
+        }
+
+        @Override
+        public ChassisSpeeds calculate(Pose2d robotPose, Pose2d goalPose) {
+            return controller.calculate(robotPose, goalPose);
+        }
+
+        @Override
+        public boolean atGoal() {
+            return controller.atGoal();
+        }
+    }
+
+    /** AutoAlign's execute() and applyLimits before the profiled controller. */
+    private static class PidAlign implements AlignPath {
+        private final PIDController xController = new PIDController(XY_kP, XY_kI, XY_kD);
+        private final PIDController yController = new PIDController(XY_kP, XY_kI, XY_kD);
+        private final PIDController thetaController = new PIDController(THETA_kP, THETA_kI, THETA_kD);
+        private final double deadband;
+
+        PidAlign(double deadband) {
+            this.deadband = deadband;
+            xController.setTolerance(HolonomicAlignController.TRANSLATION_TOLERANCE_METERS);
+            yController.setTolerance(HolonomicAlignController.TRANSLATION_TOLERANCE_METERS);
+            thetaController.enableContinuousInput(-Math.PI, Math.PI);
+            thetaController.setTolerance(HolonomicAlignController.THETA_TOLERANCE_RADIANS);
+        }
+
+        @Override
+        public void reset(Pose2d robotPose) {
+            xController.reset();
+            yController.reset();
+            thetaController.reset();
+        }
+
+        @Override
+        public ChassisSpeeds calculate(Pose2d robotPose, Pose2d goalPose) {
+            double xSpeed = xController.calculate(robotPose.getX(), goalPose.getX());
+            if (xController.atSetpoint()) {
+                xSpeed = 0;
+            }
+            double ySpeed = yController.calculate(robotPose.getY(), goalPose.getY());
+            if (yController.atSetpoint()) {
+                ySpeed = 0;
+            }
+            double omegaSpeed = thetaController.calculate(robotPose.getRotation().getRadians(),
+                goalPose.getRotation().getRadians());
+            if (thetaController.atSetpoint()) {
+                omegaSpeed = 0;
+            }
+
+            double magnitude = Math.hypot(xSpeed, ySpeed);
+            if (magnitude < deadband || magnitude == 0.0) {
+                return new ChassisSpeeds(0, 0, omegaSpeed);
+            }
+            double scale = Math.min(magnitude, MAX_ALIGN_TRANSLATION_VELOCITY.in(MetersPerSecond)) / magnitude;
+            return new ChassisSpeeds(xSpeed * scale, ySpeed * scale, omegaSpeed);
+        }
+
+        @Override
+        public boolean atGoal() {
+            return xController.atSetpoint() && yController.atSetpoint() && thetaController.atSetpoint();
+        }
+    }
+}